@@ -0,0 +1,40 @@
+package com.ocr.yt_ocr_backend.benchmark;
+
+import com.ocr.yt_ocr_backend.YtOcrBackendApplication;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+// The whole application on a random port, so benchmarks use the real, configured beans.
+// The result cache is off: repeated corpus frames would otherwise measure cache hits.
+// Tesseract settings come from application.properties or -jvmArgsAppend -Docr.tessdata-path=...
+@State(Scope.Benchmark)
+public class AppState {
+
+    ConfigurableApplicationContext context;
+    int port;
+
+    @Setup(Level.Trial)
+    public void start() {
+        context = SpringApplication.run(YtOcrBackendApplication.class,
+            "--server.port=0",
+            "--ocr.cache.enabled=false",
+            "--ocr.limits.enabled=false",
+            "--spring.devtools.restart.enabled=false",
+            "--logging.level.root=WARN");
+        port = Integer.parseInt(context.getEnvironment().getProperty("local.server.port", "0"));
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    <T> T bean(Class<T> type) {
+        return context.getBean(type);
+    }
+}
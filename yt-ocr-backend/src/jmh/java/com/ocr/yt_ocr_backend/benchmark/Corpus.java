@@ -0,0 +1,42 @@
+package com.ocr.yt_ocr_backend.benchmark;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+// Loads the bundled frames (see CorpusGenerator) and raw OCR text samples from the classpath
+final class Corpus {
+
+    // Names usable as a JMH @Param
+    static final String IDE_DARK_1080P = "ide-dark-1080p";
+    static final String IDE_LIGHT_720P = "ide-light-720p";
+    static final String SELECTION_SMALL = "selection-small";
+    static final String TERMINAL_1080P = "terminal-1080p";
+    static final String SLIDE_720P = "slide-720p";
+
+    private Corpus() {}
+
+    static byte[] png(String name) {
+        return read("/corpus/" + name + ".png");
+    }
+
+    // The frame as the extension sends it: a data URL from canvas.toDataURL
+    static String dataUrl(String name) {
+        return "data:image/png;base64," + Base64.getEncoder().encodeToString(png(name));
+    }
+
+    static String rawText(String name) {
+        return new String(read("/corpus/" + name + ".txt"), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] read(String path) {
+        try (InputStream in = Corpus.class.getResourceAsStream(path)) {
+            if (in == null) throw new IllegalArgumentException("Missing corpus entry " + path);
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.ocr.yt_ocr_backend.benchmark;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Random;
+
+// Renders the benchmark corpus in src/jmh/resources/corpus. The PNGs are committed so every
+// machine measures the same pixels; rerun only to change the corpus:
+// java -cp target/test-classes com.ocr.yt_ocr_backend.benchmark.CorpusGenerator src/jmh/resources/corpus
+public final class CorpusGenerator {
+
+    private static final String[] CODE = {
+        "package com.example.orders;",
+        "",
+        "import java.util.List;",
+        "import java.util.stream.Collectors;",
+        "",
+        "public class OrderService {",
+        "    private final OrderRepository repository;",
+        "",
+        "    public OrderService(OrderRepository repository) {",
+        "        this.repository = repository;",
+        "    }",
+        "",
+        "    public List<Order> findOpen(long customerId) {",
+        "        return repository.findByCustomer(customerId).stream()",
+        "            .filter(o -> o.getStatus() == Status.OPEN)",
+        "            .sorted(Comparator.comparing(Order::getCreatedAt))",
+        "            .collect(Collectors.toList());",
+        "    }",
+        "",
+        "    public int total(List<Order> orders) {",
+        "        int sum = 0;",
+        "        for (int i = 0; i < orders.size(); i++) {",
+        "            sum += orders.get(i).getAmount();",
+        "        }",
+        "        return sum;",
+        "    }",
+        "}",
+    };
+
+    private static final String[] TERMINAL = {
+        "$ mvn -B test",
+        "[INFO] Scanning for projects...",
+        "[INFO] Building yt-ocr-backend 0.0.1-SNAPSHOT",
+        "[INFO] --- surefire:3.5.3:test (default-test) ---",
+        "[INFO] Tests run: 23, Failures: 0, Errors: 0, Skipped: 0",
+        "[INFO] BUILD SUCCESS",
+        "[INFO] Total time:  12.408 s",
+        "$ git log --oneline -3",
+        "2d26451 Add streaming OCR sessions",
+        "a02c021 OCR only detected text blocks",
+        "7953f7f Queue OCR work behind a job queue",
+        "$ _",
+    };
+
+    private CorpusGenerator() {}
+
+    public static void main(String[] args) throws IOException {
+        File dir = new File(args.length > 0 ? args[0] : "src/jmh/resources/corpus");
+        dir.mkdirs();
+        write(dir, "ide-dark-1080p", videoFrame());
+        write(dir, "ide-light-720p", editor(1280, 720, false, 18));
+        write(dir, "selection-small", selection());
+        write(dir, "terminal-1080p", terminal());
+        write(dir, "slide-720p", slide());
+    }
+
+    private static void write(File dir, String name, BufferedImage img) throws IOException {
+        ImageIO.write(img, "png", new File(dir, name + ".png"));
+    }
+
+    private static Graphics2D graphics(BufferedImage img) {
+        Graphics2D g = img.createGraphics();
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        return g;
+    }
+
+    // A paused coding video: player chrome around a dark IDE with a file tree
+    private static BufferedImage videoFrame() {
+        BufferedImage img = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = graphics(img);
+        g.drawImage(editor(1920, 1000, true, 22), 0, 0, null);
+        g.setColor(new Color(15, 15, 15));
+        g.fillRect(0, 1000, 1920, 80);
+        g.setColor(new Color(200, 0, 0));
+        g.fillRect(20, 1010, 760, 5);
+        g.setColor(new Color(90, 90, 90));
+        g.fillRect(780, 1010, 1120, 5);
+        g.setColor(Color.WHITE);
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 20));
+        g.drawString("12:48 / 31:02", 120, 1055);
+        g.dispose();
+        return img;
+    }
+
+    private static BufferedImage editor(int w, int h, boolean dark, int fontSize) {
+        BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = graphics(img);
+        Color background = dark ? new Color(30, 31, 34) : new Color(250, 250, 250);
+        Color sidebar = dark ? new Color(43, 45, 48) : new Color(235, 236, 240);
+        Color text = dark ? new Color(188, 190, 196) : new Color(8, 8, 8);
+        Color keyword = dark ? new Color(207, 142, 109) : new Color(0, 51, 179);
+        Color gutter = dark ? new Color(110, 112, 118) : new Color(160, 160, 160);
+
+        g.setColor(background);
+        g.fillRect(0, 0, w, h);
+        int side = w / 7;
+        g.setColor(sidebar);
+        g.fillRect(0, 0, side, h);
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, fontSize - 4));
+        g.setColor(gutter);
+        String[] files = {"src", "  main", "    java", "      OrderService.java", "      Order.java", "  test", "pom.xml"};
+        for (int i = 0; i < files.length; i++) {
+            g.drawString(files[i], 12, 40 + i * (fontSize + 6));
+        }
+
+        g.setFont(new Font(Font.MONOSPACED, Font.PLAIN, fontSize));
+        int lineHeight = fontSize * 3 / 2;
+        int x = side + 70;
+        for (int i = 0; i < CODE.length && 40 + (i + 1) * lineHeight < h; i++) {
+            int y = 40 + (i + 1) * lineHeight;
+            g.setColor(gutter);
+            g.drawString(String.format("%3d", i + 1), side + 12, y);
+            String line = CODE[i];
+            String trimmed = line.stripLeading();
+            String first = trimmed.split(" ", 2)[0];
+            boolean isKeyword = first.matches("package|import|public|private|return|for");
+            g.setColor(isKeyword ? keyword : text);
+            g.drawString(line, x, y);
+        }
+        g.dispose();
+        return img;
+    }
+
+    // A loose selection from a web page, three lines with a JPEG-like noise floor
+    private static BufferedImage selection() {
+        BufferedImage img = new BufferedImage(480, 120, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = graphics(img);
+        g.setColor(new Color(246, 248, 250));
+        g.fillRect(0, 0, 480, 120);
+        g.setColor(new Color(36, 41, 47));
+        g.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 14));
+        g.drawString("for (int i = 0; i < orders.size(); i++) {", 10, 35);
+        g.drawString("    sum += orders.get(i).getAmount();", 10, 60);
+        g.drawString("}", 10, 85);
+        g.dispose();
+        addNoise(img, 3, 11);
+        return img;
+    }
+
+    private static BufferedImage terminal() {
+        BufferedImage img = new BufferedImage(1920, 1080, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = graphics(img);
+        g.setColor(new Color(12, 12, 12));
+        g.fillRect(0, 0, 1920, 1080);
+        g.setColor(new Color(204, 204, 204));
+        g.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 26));
+        for (int i = 0; i < TERMINAL.length; i++) {
+            g.drawString(TERMINAL[i], 30, 60 + i * 40);
+        }
+        g.dispose();
+        return img;
+    }
+
+    private static BufferedImage slide() {
+        BufferedImage img = new BufferedImage(1280, 720, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = graphics(img);
+        g.setPaint(new GradientPaint(0, 0, new Color(24, 40, 72), 1280, 720, new Color(75, 108, 183)));
+        g.fillRect(0, 0, 1280, 720);
+        g.setColor(Color.WHITE);
+        g.setFont(new Font(Font.SANS_SERIF, Font.BOLD, 54));
+        g.drawString("Streams vs. Loops", 80, 130);
+        g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, 32));
+        String[] bullets = {
+            "Streams read well for filter / map / collect",
+            "Plain loops win on hot paths with primitives",
+            "Measure before rewriting either way",
+        };
+        for (int i = 0; i < bullets.length; i++) {
+            g.drawString("• " + bullets[i], 100, 260 + i * 80);
+        }
+        g.dispose();
+        return img;
+    }
+
+    private static void addNoise(BufferedImage img, int amplitude, long seed) {
+        Random random = new Random(seed);
+        for (int y = 0; y < img.getHeight(); y++) {
+            for (int x = 0; x < img.getWidth(); x++) {
+                int rgb = img.getRGB(x, y);
+                int d = random.nextInt(2 * amplitude + 1) - amplitude;
+                int r = Math.max(0, Math.min(255, ((rgb >> 16) & 0xff) + d));
+                int gr = Math.max(0, Math.min(255, ((rgb >> 8) & 0xff) + d));
+                int b = Math.max(0, Math.min(255, (rgb & 0xff) + d));
+                img.setRGB(x, y, (r << 16) | (gr << 8) | b);
+            }
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.ocr.yt_ocr_backend.benchmark;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import com.ocr.yt_ocr_backend.service.TextCorrectionEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Raw Tesseract text to corrected rows (line splitting plus the correction rules)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CorrectionBenchmark {
+
+    @Param({"code", "auto"})
+    public String mode;
+
+    private TextCorrectionEngine engine;
+    private String raw;
+
+    @Setup
+    public void load() throws IOException {
+        engine = new TextCorrectionEngine("classpath:ocr/corrections/");
+        raw = Corpus.rawText(Corpus.IDE_DARK_1080P);
+    }
+
+    @Benchmark
+    public List<TextRow> toRows() {
+        return engine.toRows(raw, mode);
+    }
+}
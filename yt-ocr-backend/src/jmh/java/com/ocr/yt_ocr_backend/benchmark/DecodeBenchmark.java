@@ -0,0 +1,57 @@
+package com.ocr.yt_ocr_backend.benchmark;
+
+import com.ocr.yt_ocr_backend.util.Base64RequestReader;
+import com.ocr.yt_ocr_backend.util.ImageUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+// Request decoding: data URL to bytes, bytes to a BufferedImage, and the streaming path
+// from a JSON request body straight to a BufferedImage
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class DecodeBenchmark {
+
+    @Param({Corpus.IDE_DARK_1080P, Corpus.SELECTION_SMALL, Corpus.SLIDE_720P})
+    public String frame;
+
+    private String dataUrl;
+    private byte[] png;
+    private byte[] jsonBody;
+
+    @Setup
+    public void load() {
+        dataUrl = Corpus.dataUrl(frame);
+        png = Corpus.png(frame);
+        jsonBody = ("{\"imageBase64\":\"" + dataUrl + "\",\"language\":\"eng\",\"mode\":\"code\"}")
+            .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    @Benchmark
+    public byte[] decodeBase64() {
+        return ImageUtils.decodeBase64(dataUrl);
+    }
+
+    @Benchmark
+    public BufferedImage readImage() throws IOException {
+        return ImageUtils.readImage(png);
+    }
+
+    @Benchmark
+    public BufferedImage decodeAndRead() throws IOException {
+        return ImageUtils.readImage(ImageUtils.decodeBase64(dataUrl));
+    }
+
+    @Benchmark
+    public BufferedImage readRequestBody() throws IOException {
+        return Base64RequestReader.read(new ByteArrayInputStream(jsonBody), 64 << 20, Long.MAX_VALUE).image();
+    }
+}
@@ -0,0 +1,92 @@
+package com.ocr.yt_ocr_backend.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ocr.yt_ocr_backend.dto.OcrBase64Request;
+import com.ocr.yt_ocr_backend.dto.OcrResponse;
+import com.ocr.yt_ocr_backend.service.OcrRequestProcessor;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Requests per second with several concurrent clients, cycling through the corpus.
+// "http" goes through Tomcat, the job queue and JSON; "inProcess" calls the request
+// processor directly. Change the client count with -t. Needs native Tesseract.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 10)
+@Measurement(iterations = 3, time = 10)
+@Threads(4)
+@Fork(1)
+public class EndToEndBenchmark {
+
+    private static final String[] FRAMES = {
+        Corpus.IDE_DARK_1080P, Corpus.IDE_LIGHT_720P, Corpus.SELECTION_SMALL,
+        Corpus.TERMINAL_1080P, Corpus.SLIDE_720P,
+    };
+
+    @State(Scope.Benchmark)
+    public static class Requests {
+        final List<OcrBase64Request> requests = new ArrayList<>();
+        final List<String> bodies = new ArrayList<>();
+        HttpClient client;
+        URI uri;
+        OcrRequestProcessor processor;
+
+        @Setup(Level.Trial)
+        public void load(AppState app) throws IOException {
+            ObjectMapper mapper = new ObjectMapper();
+            for (String frame : FRAMES) {
+                OcrBase64Request req = new OcrBase64Request();
+                req.setImageBase64(Corpus.dataUrl(frame));
+                req.setMode("code");
+                requests.add(req);
+                bodies.add(mapper.writeValueAsString(req));
+            }
+            client = HttpClient.newHttpClient();
+            uri = URI.create("http://localhost:" + app.port + "/api/ocr/base64");
+            processor = app.bean(OcrRequestProcessor.class);
+
+            // A broken OCR setup fails fast and would report a very good throughput
+            OcrResponse probe = processor.processBase64(requests.get(0));
+            if (!OcrRequestProcessor.isSuccessful(probe)) {
+                throw new IllegalStateException("OCR is not working (status " + probe.getStatus()
+                    + "); check ocr.tessdata-path");
+            }
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Cursor {
+        int next;
+
+        int advance() {
+            next = (next + 1) % FRAMES.length;
+            return next;
+        }
+    }
+
+    @Benchmark
+    public String http(Requests r, Cursor c) throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(r.uri)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(r.bodies.get(c.advance())))
+            .build();
+        HttpResponse<String> response = r.client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("HTTP " + response.statusCode() + ": " + response.body());
+        }
+        return response.body();
+    }
+
+    @Benchmark
+    public OcrResponse inProcess(Requests r, Cursor c) {
+        return r.processor.processBase64(r.requests.get(c.advance()));
+    }
+}
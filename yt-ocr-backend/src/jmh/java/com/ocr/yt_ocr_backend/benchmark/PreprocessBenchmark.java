@@ -0,0 +1,69 @@
+package com.ocr.yt_ocr_backend.benchmark;
+
+import com.ocr.yt_ocr_backend.service.ImagePreprocessor;
+import com.ocr.yt_ocr_backend.service.TextRegionDetector;
+import com.ocr.yt_ocr_backend.util.GrayImageOps;
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import com.ocr.yt_ocr_backend.util.ImageUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// The preprocessing pass as a whole and its stages on their own
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PreprocessBenchmark {
+
+    @Param({Corpus.IDE_DARK_1080P, Corpus.IDE_LIGHT_720P, Corpus.SELECTION_SMALL, Corpus.TERMINAL_1080P})
+    public String frame;
+
+    private ImagePreprocessor preprocessor;
+    private TextRegionDetector regionDetector;
+    private BufferedImage image;
+    private byte[] gray;
+    private GrayRaster prepared;
+
+    @Setup
+    public void load(AppState app) throws IOException {
+        preprocessor = app.bean(ImagePreprocessor.class);
+        regionDetector = app.bean(TextRegionDetector.class);
+        image = ImageUtils.readImage(Corpus.png(frame));
+        gray = new byte[image.getWidth() * image.getHeight()];
+        GrayImageOps.toGray(image, gray);
+
+        // The preprocessor's output lives in a reused buffer, so keep a copy
+        GrayRaster raster = preprocessor.process(image).raster();
+        prepared = new GrayRaster(raster.getWidth(), raster.getHeight(),
+            Arrays.copyOf(raster.getData(), raster.length()));
+    }
+
+    @Benchmark
+    public GrayRaster preprocess() {
+        return preprocessor.process(image).raster();
+    }
+
+    @Benchmark
+    public byte[] toGray() {
+        GrayImageOps.toGray(image, gray);
+        return gray;
+    }
+
+    @Benchmark
+    public int estimateXHeight() {
+        return GrayImageOps.estimateXHeight(gray, image.getWidth(), image.getHeight());
+    }
+
+    @Benchmark
+    public List<Rectangle> detectRegions() {
+        return regionDetector.detect(prepared);
+    }
+}
@@ -0,0 +1,60 @@
+package com.ocr.yt_ocr_backend.benchmark;
+
+import com.ocr.yt_ocr_backend.service.ImagePreprocessor;
+import com.ocr.yt_ocr_backend.service.OcrResult;
+import com.ocr.yt_ocr_backend.service.OcrService;
+import com.ocr.yt_ocr_backend.service.TesseractEnginePool;
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import com.ocr.yt_ocr_backend.util.ImageUtils;
+import net.sourceforge.tess4j.TesseractException;
+import org.openjdk.jmh.annotations.*;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+// Tesseract itself: one full-frame recognize on a pooled engine, and OcrService.doOcr
+// (preprocess, region detection, parallel recognition, correction) on a decoded frame.
+// Needs native Tesseract and traineddata.
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class RecognizeBenchmark {
+
+    @Param({Corpus.IDE_DARK_1080P, Corpus.SELECTION_SMALL, Corpus.SLIDE_720P})
+    public String frame;
+
+    @Param({"code"})
+    public String mode;
+
+    private TesseractEnginePool enginePool;
+    private OcrService ocrService;
+    private BufferedImage image;
+    private GrayRaster prepared;
+
+    @Setup
+    public void load(AppState app) throws IOException {
+        enginePool = app.bean(TesseractEnginePool.class);
+        ocrService = app.bean(OcrService.class);
+        image = ImageUtils.readImage(Corpus.png(frame));
+        GrayRaster raster = app.bean(ImagePreprocessor.class).process(image).raster();
+        prepared = new GrayRaster(raster.getWidth(), raster.getHeight(),
+            Arrays.copyOf(raster.getData(), raster.length()));
+    }
+
+    @Benchmark
+    public String recognizeFullFrame() throws TesseractException {
+        try (TesseractEnginePool.Lease lease = enginePool.borrow("eng", mode)) {
+            return lease.engine().recognize(prepared);
+        }
+    }
+
+    @Benchmark
+    public OcrResult doOcr() throws TesseractException {
+        return ocrService.doOcr(image, "eng", mode);
+    }
+}
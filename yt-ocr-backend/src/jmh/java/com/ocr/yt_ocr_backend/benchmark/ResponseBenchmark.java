@@ -0,0 +1,48 @@
+package com.ocr.yt_ocr_backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ocr.yt_ocr_backend.dto.OcrResponse;
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import com.ocr.yt_ocr_backend.service.TextCorrectionEngine;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Building the response from rows, from a plain string (error responses), and writing JSON
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResponseBenchmark {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private List<TextRow> rows;
+    private String text;
+
+    @Setup
+    public void load() throws IOException {
+        rows = new TextCorrectionEngine("classpath:ocr/corrections/")
+            .toRows(Corpus.rawText(Corpus.IDE_DARK_1080P), "code");
+        text = String.join("\n", rows.stream().map(TextRow::getContent).toList());
+    }
+
+    @Benchmark
+    public OcrResponse fromRows() {
+        return new OcrResponse(rows, 42);
+    }
+
+    @Benchmark
+    public OcrResponse fromText() {
+        return new OcrResponse(text, 42);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(new OcrResponse(rows, 42));
+    }
+}
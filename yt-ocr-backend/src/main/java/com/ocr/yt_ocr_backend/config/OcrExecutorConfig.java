@@ -0,0 +1,62 @@
+package com.ocr.yt_ocr_backend.config;
+
+import com.ocr.yt_ocr_backend.service.TesseractEnginePool;
+import com.ocr.yt_ocr_backend.util.VirtualThreads;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// With spring.threads.virtual.enabled on Java 21 the region workers are virtual
+// threads like the request threads; Tesseract itself always runs on ocrNativeExecutor.
+@Configuration
+public class OcrExecutorConfig {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrExecutorConfig.class);
+
+    private final boolean virtualThreads;
+
+    public OcrExecutorConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads && VirtualThreads.isSupported();
+        if (virtualThreads && !VirtualThreads.isSupported()) {
+            log.warn("spring.threads.virtual.enabled is set but Java {} has no virtual threads; using platform threads",
+                Runtime.version().feature());
+        }
+    }
+
+    // Recognises the text blocks of one image side by side
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService ocrRegionExecutor(@Value("${ocr.regions.workers:0}") int workers) {
+        int size = workers > 0 ? workers : Runtime.getRuntime().availableProcessors();
+        return Executors.newFixedThreadPool(size, threads("ocr-region-"));
+    }
+
+    // Platform threads for Tesseract calls made from virtual threads. A virtual thread
+    // inside a native call cannot unmount, so it would hold one of the few carrier threads
+    // for the whole recognition; one thread per engine permit keeps OCR at that concurrency.
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService ocrNativeExecutor(TesseractEnginePool enginePool,
+                                             @Value("${ocr.native.workers:0}") int workers) {
+        int size = workers > 0 ? workers : enginePool.getMaxActive();
+        return Executors.newFixedThreadPool(size, namedThreads("ocr-native-"));
+    }
+
+    private ThreadFactory threads(String prefix) {
+        return virtualThreads ? VirtualThreads.newFactory(prefix) : namedThreads(prefix);
+    }
+
+    static ThreadFactory namedThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return r -> {
+            Thread t = new Thread(r, prefix + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
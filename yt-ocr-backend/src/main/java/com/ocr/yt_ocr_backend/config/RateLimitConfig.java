@@ -0,0 +1,41 @@
+package com.ocr.yt_ocr_backend.config;
+
+import com.ocr.yt_ocr_backend.service.ClientRateLimiter;
+import com.ocr.yt_ocr_backend.service.OcrClient;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+// Admission control for the OCR API: every request is tied to its client (API key header,
+// else remote address) and charged a token; refusals surface as RateLimitedException
+@Configuration
+public class RateLimitConfig implements WebMvcConfigurer {
+
+    private final ClientRateLimiter limiter;
+    private final String keyHeader;
+
+    public RateLimitConfig(ClientRateLimiter limiter,
+                           @Value("${ocr.limits.key-header:X-API-Key}") String keyHeader) {
+        this.limiter = limiter;
+        this.keyHeader = keyHeader;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new HandlerInterceptor() {
+            @Override
+            public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+                // CORS preflights carry no work
+                if ("OPTIONS".equals(request.getMethod())) return true;
+                OcrClient client = limiter.admit(request.getHeader(keyHeader), request.getRemoteAddr(),
+                    request.getMethod(), request.getRequestURI());
+                request.setAttribute(OcrClient.ATTRIBUTE, client);
+                return true;
+            }
+        }).addPathPatterns("/api/**");
+    }
+}
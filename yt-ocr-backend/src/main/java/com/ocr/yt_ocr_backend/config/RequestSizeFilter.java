@@ -0,0 +1,93 @@
+package com.ocr.yt_ocr_backend.config;
+
+import com.ocr.yt_ocr_backend.util.BoundedInputStream;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ReadListener;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletInputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+// Caps the JSON bodies Jackson binds whole (/jobs, /batch), before any of it is on the heap.
+// /base64 streams its body through Base64RequestReader and multipart has its own limits.
+// An oversized body fails the read with file_too_large, see RequestBodyHandler.
+@Component
+public class RequestSizeFilter extends OncePerRequestFilter {
+
+    private final long jobMaxBytes;
+    private final long batchMaxBytes;
+
+    public RequestSizeFilter(@Value("${app.upload.max-size:5242880}") long maxFileSize,
+                             @Value("${ocr.batch.max-bytes:67108864}") long batchMaxBytes) {
+        // One base64 image plus its few other fields
+        this.jobMaxBytes = maxFileSize * 2;
+        this.batchMaxBytes = batchMaxBytes;
+    }
+
+    private long limit(HttpServletRequest request) {
+        if (!"POST".equals(request.getMethod())) return -1;
+        String type = request.getContentType();
+        if (type == null || !type.startsWith(MediaType.APPLICATION_JSON_VALUE)) return -1;
+        String path = request.getRequestURI();
+        if (path.equals("/api/ocr/jobs")) return jobMaxBytes;
+        if (path.equals("/api/ocr/batch")) return batchMaxBytes;
+        return -1;
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return limit(request) < 0;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        long max = limit(request);
+        // A declared length over the limit fails on the first read, without reading anything
+        long declared = request.getContentLengthLong();
+        chain.doFilter(new Bounded(request, declared > max ? 0 : max), response);
+    }
+
+    private static final class Bounded extends HttpServletRequestWrapper {
+        private final long max;
+        private ServletInputStream stream;
+
+        Bounded(HttpServletRequest request, long max) {
+            super(request);
+            this.max = max;
+        }
+
+        @Override
+        public ServletInputStream getInputStream() throws IOException {
+            if (stream == null) {
+                ServletInputStream raw = super.getInputStream();
+                InputStream bounded = new BoundedInputStream(raw, max);
+                stream = new ServletInputStream() {
+                    @Override
+                    public int read() throws IOException { return bounded.read(); }
+
+                    @Override
+                    public int read(byte[] b, int off, int len) throws IOException { return bounded.read(b, off, len); }
+
+                    @Override
+                    public boolean isFinished() { return raw.isFinished(); }
+
+                    @Override
+                    public boolean isReady() { return raw.isReady(); }
+
+                    @Override
+                    public void setReadListener(ReadListener listener) { raw.setReadListener(listener); }
+                };
+            }
+            return stream;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ocr.yt_ocr_backend.controller;
+
+import com.ocr.yt_ocr_backend.service.ClientRateLimiter;
+import com.ocr.yt_ocr_backend.service.OcrClient;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+// Every client seen recently, most recent first; API keys are masked. Lists caller
+// addresses, so it lives under /actuator/ocrclients and is off the web until an operator
+// adds it to management.endpoints.web.exposure.include
+@Component
+@Endpoint(id = "ocrclients")
+public class OcrClientsEndpoint {
+
+    private final ClientRateLimiter rateLimiter;
+
+    public OcrClientsEndpoint(ClientRateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @ReadOperation
+    public List<Map<String, Object>> clients() {
+        return rateLimiter.clients().stream().map(OcrClient::usage).toList();
+    }
+}
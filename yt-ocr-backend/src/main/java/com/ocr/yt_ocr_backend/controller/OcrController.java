@@ -1,145 +1,237 @@
 package com.ocr.yt_ocr_backend.controller;
 
-import com.ocr.yt_ocr_backend.dto.OcrBase64Request;
+import com.ocr.yt_ocr_backend.dto.OcrBatchRequest;
+import com.ocr.yt_ocr_backend.dto.OcrBatchResponse;
+import com.ocr.yt_ocr_backend.dto.OcrJobRequest;
+import com.ocr.yt_ocr_backend.dto.OcrJobResponse;
 import com.ocr.yt_ocr_backend.dto.OcrResponse;
+import com.ocr.yt_ocr_backend.service.LanguageRegistry;
+import com.ocr.yt_ocr_backend.service.OcrBatchService;
+import com.ocr.yt_ocr_backend.service.OcrClient;
+import com.ocr.yt_ocr_backend.service.OcrJob;
+import com.ocr.yt_ocr_backend.service.OcrJobService;
+import com.ocr.yt_ocr_backend.service.OcrRequestProcessor;
+import com.ocr.yt_ocr_backend.service.OcrResultCache;
+import com.ocr.yt_ocr_backend.service.OcrResultHistory;
+import com.ocr.yt_ocr_backend.service.OcrResultStore;
 import com.ocr.yt_ocr_backend.service.OcrService;
-import com.ocr.yt_ocr_backend.util.ImageUtils;
-import net.sourceforge.tess4j.TesseractException;
-import org.springframework.beans.factory.annotation.Value;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
-import java.io.File;
-import java.util.Arrays;
+import java.io.IOException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api/ocr")
 @CrossOrigin(origins = "*")
 public class OcrController {
-    private final OcrService ocrService;
-    
-    @Value("${app.upload.max-size:5242880}")
-    private long maxFileSize;
-    
-    private final List<String> allowedContentTypes = Arrays.asList(
-        "image/jpeg", "image/jpg", "image/png", "image/gif", "image/bmp", "image/webp"
-    );
+    private final OcrRequestProcessor requestProcessor;
+    private final OcrBatchService batchService;
+    private final OcrResultCache resultCache;
+    private final OcrResultStore resultStore;
+    private final OcrResultHistory history;
+    private final OcrJobService jobService;
+    private final LanguageRegistry languages;
 
-    public OcrController(OcrService ocrService) {
-        this.ocrService = ocrService;
+    public OcrController(OcrRequestProcessor requestProcessor, OcrBatchService batchService,
+                         OcrResultCache resultCache, OcrResultStore resultStore, OcrResultHistory history,
+                         OcrJobService jobService, LanguageRegistry languages) {
+        this.requestProcessor = requestProcessor;
+        this.batchService = batchService;
+        this.resultCache = resultCache;
+        this.resultStore = resultStore;
+        this.history = history;
+        this.jobService = jobService;
+        this.languages = languages;
     }
 
-    private boolean isValidImageFile(MultipartFile file) {
-        String contentType = file.getContentType();
-        return contentType != null && allowedContentTypes.contains(contentType.toLowerCase());
+    private ResponseEntity<OcrResponse> toResponse(OcrResponse response) {
+        if ("queue_full".equals(response.getStatus())) {
+            return tooManyRequests(response);
+        }
+        if ("timeout".equals(response.getStatus())) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(jobService.retryAfterSeconds()))
+                .body(response);
+        }
+        return OcrRequestProcessor.isSuccessful(response)
+            ? ResponseEntity.ok(response)
+            : ResponseEntity.badRequest().body(response);
+    }
+
+    private static OcrResponse status(String status) {
+        OcrResponse response = new OcrResponse();
+        response.setStatus(status);
+        return response;
+    }
+
+    private <T> ResponseEntity<T> tooManyRequests(T body) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(jobService.retryAfterSeconds()))
+            .body(body);
     }
 
-    private String sanitizeInput(String input) {
-        if (input == null) return "eng";
-        return input.replaceAll("[^a-zA-Z]", "");
+    private static OcrJobResponse toJobResponse(OcrJob job) {
+        OcrJobResponse response = new OcrJobResponse(job.getId(), job.getStatus());
+        response.setPriority(job.getPriority().name().toLowerCase());
+        response.setSubmittedAt(job.getSubmittedAt());
+        if (job.getResult().isDone()) {
+            response.setCompletedAt(job.getCompletedAt());
+            response.setResult(job.getResult().join());
+        }
+        return response;
+    }
+
+    private ResponseEntity<OcrBatchResponse> toResponse(OcrBatchResponse response) {
+        return response.getTotalItems() == 0
+            ? ResponseEntity.badRequest().body(response)
+            : ResponseEntity.ok(response);
     }
 
     @PostMapping(value="/file", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     public ResponseEntity<OcrResponse> extractFromFile(
             @RequestParam("file") MultipartFile file,
             @RequestParam(value = "language", defaultValue = "eng") String language,
-            @RequestParam(value = "mode", defaultValue = "auto") String mode) {
-        
-        long startTime = System.currentTimeMillis();
-        File tmp = null;
-        
-        try {
-            if (file.isEmpty()) {
-                OcrResponse response = new OcrResponse();
-                response.setStatus("file_empty");
-                return ResponseEntity.badRequest().body(response);
-            }
-
-            if (file.getSize() > maxFileSize) {
-                OcrResponse response = new OcrResponse();
-                response.setStatus("file_too_large");
-                return ResponseEntity.badRequest().body(response);
-            }
-            
-            if (!isValidImageFile(file)) {
-                OcrResponse response = new OcrResponse();
-                response.setStatus("invalid_format");
-                return ResponseEntity.badRequest().body(response);
-            }
-            
-            tmp = File.createTempFile("ocr_", ".img");
-            tmp.deleteOnExit();
-            file.transferTo(tmp);
-            
-            String sanitizedLanguage = sanitizeInput(language);
-            String sanitizedMode = sanitizeInput(mode);
-            String text = ocrService.doOcr(tmp, sanitizedLanguage, sanitizedMode);
-            
-            long processingTime = System.currentTimeMillis() - startTime;
-            return ResponseEntity.ok(new OcrResponse(text, processingTime));
-            
-        } catch (TesseractException te) {
-            long processingTime = System.currentTimeMillis() - startTime;
-            OcrResponse response = new OcrResponse("OCR processing failed", processingTime);
-            response.setStatus("ocr_failed");
-            return ResponseEntity.badRequest().body(response);
-        } catch (Exception e) {
-            long processingTime = System.currentTimeMillis() - startTime;
-            OcrResponse response = new OcrResponse("Processing error occurred", processingTime);
-            response.setStatus("error");
-            return ResponseEntity.badRequest().body(response);
-        } finally {
-            if (tmp != null) tmp.delete();
-        }
+            @RequestParam(value = "mode", defaultValue = "auto") String mode,
+            @RequestParam(value = "includeStages", defaultValue = "false") boolean includeStages,
+            @RequestParam(value = "includeBoxes", defaultValue = "false") boolean includeBoxes,
+            @RequestParam(value = "minConfidence", defaultValue = "0") float minConfidence,
+            @RequestParam(value = "since", required = false) String since,
+            @RequestAttribute(name = OcrClient.ATTRIBUTE, required = false) OcrClient client) {
+        OcrService.Detail detail = new OcrService.Detail(includeBoxes, minConfidence);
+        return toResponse(jobService.runInteractive(OcrClient.orAnonymous(client),
+            () -> requestProcessor.processFile(file, language, mode, includeStages, detail, since)));
     }
 
     @PostMapping(value = "/base64", consumes = MediaType.APPLICATION_JSON_VALUE)
-    public ResponseEntity<OcrResponse> extractFromBase64(@RequestBody OcrBase64Request req) {
-        long startTime = System.currentTimeMillis();
-        File tmp = null;
-        
-        try {
-            if (req.getImageBase64() == null || req.getImageBase64().trim().isEmpty()) {
-                OcrResponse response = new OcrResponse();
-                response.setStatus("invalid_base64");
-                return ResponseEntity.badRequest().body(response);
-            }
-
-            if (req.getImageBase64().length() > maxFileSize * 2) {
-                OcrResponse response = new OcrResponse();
-                response.setStatus("file_too_large");
-                return ResponseEntity.badRequest().body(response);
-            }
-            
-            tmp = ImageUtils.base64ToTempPng(req.getImageBase64());
-            
-            if (tmp.length() > maxFileSize) {
-                OcrResponse response = new OcrResponse();
-                response.setStatus("file_too_large");
-                return ResponseEntity.badRequest().body(response);
-            }
-            
-            String sanitizedLanguage = sanitizeInput(req.getLanguage());
-            String sanitizedMode = sanitizeInput(req.getMode());
-            String text = ocrService.doOcr(tmp, sanitizedLanguage, sanitizedMode);
-            long processingTime = System.currentTimeMillis() - startTime;
-            return ResponseEntity.ok(new OcrResponse(text, processingTime));
-            
-        } catch (TesseractException te) {
-            long processingTime = System.currentTimeMillis() - startTime;
-            OcrResponse response = new OcrResponse("OCR processing failed", processingTime);
-            response.setStatus("ocr_failed");
-            return ResponseEntity.badRequest().body(response);
-        } catch (Exception e) {
-            long processingTime = System.currentTimeMillis() - startTime;
-            OcrResponse response = new OcrResponse("Processing error occurred", processingTime);
-            response.setStatus("error");
-            return ResponseEntity.badRequest().body(response);
-        } finally {
-            if (tmp != null) tmp.delete();
+    public ResponseEntity<OcrResponse> extractFromBase64(
+            HttpServletRequest request,
+            @RequestAttribute(name = OcrClient.ATTRIBUTE, required = false) OcrClient client) throws IOException {
+        OcrClient caller = OcrClient.orAnonymous(client);
+        // Not worth reading the body when the queue would refuse it anyway
+        if (!jobService.hasRoom(caller)) return toResponse(status("queue_full"));
+        // Decoded from the request stream here; only the OCR itself waits in the queue
+        OcrRequestProcessor.Base64Upload upload =
+            requestProcessor.readBase64(request.getInputStream(), request.getContentLengthLong());
+        if ("queue_full".equals(upload.rejectedStatus())) return toResponse(status("queue_full"));
+        return toResponse(jobService.runInteractive(caller, () -> requestProcessor.processBase64(upload, caller)));
+    }
+
+    @PostMapping(value = "/jobs", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OcrJobResponse> submitJob(
+            @RequestBody OcrJobRequest req,
+            @RequestAttribute(name = OcrClient.ATTRIBUTE, required = false) OcrClient client) {
+        OcrClient caller = OcrClient.orAnonymous(client);
+        // Only configured API keys may queue jobs ahead of bulk work; anyone else gets bulk
+        OcrJob.Priority priority = caller.isKeyed()
+            ? OcrJob.Priority.parse(req.getPriority(), OcrJob.Priority.BULK)
+            : OcrJob.Priority.BULK;
+        OcrJob job = jobService.submit(priority, caller, () -> requestProcessor.processBase64(req, caller));
+        if (job == null) {
+            return tooManyRequests(new OcrJobResponse(null, "queue_full"));
+        }
+        return ResponseEntity.accepted()
+            .header(HttpHeaders.LOCATION, "/api/ocr/jobs/" + job.getId())
+            .body(toJobResponse(job));
+    }
+
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<OcrJobResponse> jobStatus(@PathVariable String id) {
+        OcrJob job = jobService.get(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new OcrJobResponse(id, "not_found"));
+        }
+        return ResponseEntity.ok(toJobResponse(job));
+    }
+
+    // The OCR result itself once the job is done; 202 while it is still queued or running
+    @GetMapping("/jobs/{id}/result")
+    public ResponseEntity<?> jobResult(@PathVariable String id) {
+        OcrJob job = jobService.get(id);
+        if (job == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(new OcrJobResponse(id, "not_found"));
         }
+        if (!job.getResult().isDone()) {
+            return ResponseEntity.accepted().body(toJobResponse(job));
+        }
+        return toResponse(job.getResult().join());
+    }
+
+    @GetMapping("/jobs/stats")
+    public Map<String, Object> jobStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("workers", jobService.getWorkers());
+        stats.put("queued", jobService.getQueued());
+        stats.put("capacity", jobService.getCapacity());
+        stats.put("rejected", jobService.getRejected());
+        stats.put("abandoned", jobService.getAbandoned());
+        return stats;
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OcrBatchResponse> extractBatchFromBase64(@RequestBody OcrBatchRequest req,
+            @RequestAttribute(name = OcrClient.ATTRIBUTE, required = false) OcrClient client) {
+        return toResponse(batchService.processBase64Batch(req.getItems(), OcrClient.orAnonymous(client)));
+    }
+
+    @PostMapping(value = "/batch", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<OcrBatchResponse> extractBatchFromFiles(
+            @RequestParam("files") List<MultipartFile> files,
+            @RequestParam(value = "language", defaultValue = "eng") String language,
+            @RequestParam(value = "mode", defaultValue = "auto") String mode,
+            @RequestAttribute(name = OcrClient.ATTRIBUTE, required = false) OcrClient client) {
+        return toResponse(batchService.processFileBatch(files, language, mode, OcrClient.orAnonymous(client)));
+    }
+
+    @GetMapping("/languages")
+    public Map<String, Object> supportedLanguages() {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("default", languages.getDefaultLanguage());
+        body.put("supported", languages.getLanguages());
+        body.put("auto_detect", languages.isAutoDetect());
+        return body;
+    }
+
+    // 404 when the frame was never OCRed (or the store is off): upload it instead
+    @GetMapping("/frames")
+    public ResponseEntity<OcrResponse> storedFrame(
+            @RequestParam("videoId") String videoId,
+            @RequestParam("videoTimeMs") long videoTimeMs,
+            @RequestParam("width") int width,
+            @RequestParam("height") int height,
+            @RequestParam(value = "language", defaultValue = "eng") String language,
+            @RequestParam(value = "mode", defaultValue = "auto") String mode) {
+        OcrResponse response = requestProcessor.lookupFrame(videoId, videoTimeMs, width, height, language, mode);
+        if ("not_found".equals(response.getStatus())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(response);
+        }
+        return toResponse(response);
+    }
+
+    // The calling client's counters (by X-API-Key, else address)
+    @GetMapping("/usage")
+    public Map<String, Object> usage(@RequestAttribute(name = OcrClient.ATTRIBUTE, required = false) OcrClient client) {
+        return OcrClient.orAnonymous(client).usage();
+    }
+
+    @GetMapping("/cache/stats")
+    public Map<String, Object> cacheStats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", resultCache.isEnabled());
+        stats.put("size", resultCache.size());
+        stats.put("hits", resultCache.getHits());
+        stats.put("perceptual_hits", resultCache.getPerceptualHits());
+        stats.put("misses", resultCache.getMisses());
+        stats.put("evictions", resultCache.getEvictions());
+        stats.put("store", resultStore.stats());
+        stats.put("delta", history.stats());
+        return stats;
     }
-}
\ No newline at end of file
+}
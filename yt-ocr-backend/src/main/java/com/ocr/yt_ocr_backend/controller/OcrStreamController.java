@@ -0,0 +1,87 @@
+package com.ocr.yt_ocr_backend.controller;
+
+import com.ocr.yt_ocr_backend.dto.OcrStreamFrameRequest;
+import com.ocr.yt_ocr_backend.dto.OcrStreamUpdate;
+import com.ocr.yt_ocr_backend.service.LanguageRegistry;
+import com.ocr.yt_ocr_backend.service.OcrClient;
+import com.ocr.yt_ocr_backend.service.OcrJobService;
+import com.ocr.yt_ocr_backend.service.OcrStreamService;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Session-based frame streaming: open a session, subscribe to its events, post frames,
+// delete the session when the video stops
+@RestController
+@RequestMapping("/api/ocr/stream")
+@CrossOrigin(origins = "*")
+public class OcrStreamController {
+    private final OcrStreamService streamService;
+    private final OcrJobService jobService;
+    private final LanguageRegistry languages;
+
+    public OcrStreamController(OcrStreamService streamService, OcrJobService jobService,
+                               LanguageRegistry languages) {
+        this.streamService = streamService;
+        this.jobService = jobService;
+        this.languages = languages;
+    }
+
+    @PostMapping("/sessions")
+    public ResponseEntity<Map<String, Object>> openSession(
+            @RequestParam(value = "language", defaultValue = "eng") String language,
+            @RequestParam(value = "mode", defaultValue = "auto") String mode) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        String resolved = languages.resolve(language);
+        if (resolved == null) {
+            body.put("status", "unsupported_language");
+            return ResponseEntity.badRequest().body(body);
+        }
+        // Frames of one video share a language; script detection is not repeated per frame
+        if (LanguageRegistry.AUTO.equals(resolved)) resolved = languages.getDefaultLanguage();
+
+        String id = streamService.open(resolved, mode);
+        if (id == null) {
+            body.put("status", "too_many_sessions");
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS).body(body);
+        }
+        body.put("status", "open");
+        body.put("session_id", id);
+        body.put("frames_url", "/api/ocr/stream/sessions/" + id + "/frames");
+        body.put("events_url", "/api/ocr/stream/sessions/" + id + "/events");
+        return ResponseEntity.status(HttpStatus.CREATED).body(body);
+    }
+
+    @GetMapping(value = "/sessions/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> events(@PathVariable String id) {
+        SseEmitter emitter = streamService.subscribe(id);
+        return emitter == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(emitter);
+    }
+
+    @PostMapping(value = "/sessions/{id}/frames", consumes = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<OcrStreamUpdate> frame(
+            @PathVariable String id, @RequestBody OcrStreamFrameRequest req,
+            @RequestAttribute(name = OcrClient.ATTRIBUTE, required = false) OcrClient client) {
+        OcrStreamUpdate update = streamService.processFrame(id, req.getImageBase64(), OcrClient.orAnonymous(client));
+        return switch (update.getStatus()) {
+            case "processed", "unchanged", "busy" -> ResponseEntity.ok(update);
+            case "session_not_found" -> ResponseEntity.status(HttpStatus.NOT_FOUND).body(update);
+            case "timeout" -> ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(update);
+            case "queue_full" -> ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(jobService.retryAfterSeconds()))
+                .body(update);
+            default -> ResponseEntity.badRequest().body(update);
+        };
+    }
+
+    @DeleteMapping("/sessions/{id}")
+    public ResponseEntity<Void> closeSession(@PathVariable String id) {
+        return streamService.close(id) ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
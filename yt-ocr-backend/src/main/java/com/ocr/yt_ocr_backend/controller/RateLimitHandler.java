@@ -0,0 +1,23 @@
+package com.ocr.yt_ocr_backend.controller;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse;
+import com.ocr.yt_ocr_backend.service.RateLimitedException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Rate limit refusals look like every other refused OCR request, plus a Retry-After
+@RestControllerAdvice
+public class RateLimitHandler {
+
+    @ExceptionHandler(RateLimitedException.class)
+    public ResponseEntity<OcrResponse> rateLimited(RateLimitedException e) {
+        OcrResponse response = new OcrResponse();
+        response.setStatus("rate_limited");
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+            .body(response);
+    }
+}
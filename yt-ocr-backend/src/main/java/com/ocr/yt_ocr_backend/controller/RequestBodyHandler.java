@@ -0,0 +1,28 @@
+package com.ocr.yt_ocr_backend.controller;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse;
+import com.ocr.yt_ocr_backend.util.ImageRejectedException;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// JSON bodies that could not be bound: 413 file_too_large when RequestSizeFilter cut the
+// body off, otherwise 400 invalid_request like a malformed /base64 body
+@RestControllerAdvice
+public class RequestBodyHandler {
+
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<OcrResponse> unreadable(HttpMessageNotReadableException e) {
+        OcrResponse response = new OcrResponse();
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ImageRejectedException rejected) {
+                response.setStatus(rejected.getStatus());
+                return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE).body(response);
+            }
+        }
+        response.setStatus("invalid_request");
+        return ResponseEntity.badRequest().body(response);
+    }
+}
@@ -5,6 +5,14 @@ public class OcrBase64Request {
     private String language = "eng";
     private String mode = "auto";
     private int maxFileSizeMB = 5;
+    private boolean includeStages;
+    private boolean includeBoxes;
+    private float minConfidence;
+    // Optional: identifies the frame so a repeat request is answered from the result store
+    private String videoId;
+    private Long videoTimeMs;
+    // Optional: result_id of an earlier response; only the rows changed since then come back
+    private String since;
 
     public String getImageBase64() { return imageBase64; }
     public void setImageBase64(String imageBase64) { this.imageBase64 = imageBase64; }
@@ -17,4 +25,22 @@ public class OcrBase64Request {
 
     public int getMaxFileSizeMB() { return maxFileSizeMB; }
     public void setMaxFileSizeMB(int maxFileSizeMB) { this.maxFileSizeMB = maxFileSizeMB; }
+
+    public boolean isIncludeStages() { return includeStages; }
+    public void setIncludeStages(boolean includeStages) { this.includeStages = includeStages; }
+
+    public boolean isIncludeBoxes() { return includeBoxes; }
+    public void setIncludeBoxes(boolean includeBoxes) { this.includeBoxes = includeBoxes; }
+
+    public float getMinConfidence() { return minConfidence; }
+    public void setMinConfidence(float minConfidence) { this.minConfidence = minConfidence; }
+
+    public String getVideoId() { return videoId; }
+    public void setVideoId(String videoId) { this.videoId = videoId; }
+
+    public Long getVideoTimeMs() { return videoTimeMs; }
+    public void setVideoTimeMs(Long videoTimeMs) { this.videoTimeMs = videoTimeMs; }
+
+    public String getSince() { return since; }
+    public void setSince(String since) { this.since = since; }
 }
@@ -0,0 +1,11 @@
+package com.ocr.yt_ocr_backend.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class OcrBatchRequest {
+    private List<OcrBase64Request> items = new ArrayList<>();
+
+    public List<OcrBase64Request> getItems() { return items; }
+    public void setItems(List<OcrBase64Request> items) { this.items = items; }
+}
@@ -0,0 +1,65 @@
+package com.ocr.yt_ocr_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.ArrayList;
+import java.util.List;
+
+public class OcrBatchResponse {
+    @JsonProperty("status")
+    private String status = "success";
+
+    // Same order as the request items
+    @JsonProperty("results")
+    private List<OcrResponse> results = new ArrayList<>();
+
+    @JsonProperty("total_items")
+    private int totalItems;
+
+    @JsonProperty("succeeded")
+    private int succeeded;
+
+    @JsonProperty("failed")
+    private int failed;
+
+    @JsonProperty("processing_time_ms")
+    private long processingTimeMs;
+
+    @JsonProperty("items_per_second")
+    private double itemsPerSecond;
+
+    public OcrBatchResponse() {}
+
+    public OcrBatchResponse(List<OcrResponse> results, int succeeded, long processingTime) {
+        this.results = results;
+        this.totalItems = results.size();
+        this.succeeded = succeeded;
+        this.failed = totalItems - succeeded;
+        this.processingTimeMs = processingTime;
+        this.itemsPerSecond = processingTime > 0 ? totalItems * 1000.0 / processingTime : totalItems;
+
+        if (failed > 0) {
+            this.status = succeeded == 0 ? "failed" : "partial_failure";
+        }
+    }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public List<OcrResponse> getResults() { return results; }
+    public void setResults(List<OcrResponse> results) { this.results = results; }
+
+    public int getTotalItems() { return totalItems; }
+    public void setTotalItems(int totalItems) { this.totalItems = totalItems; }
+
+    public int getSucceeded() { return succeeded; }
+    public void setSucceeded(int succeeded) { this.succeeded = succeeded; }
+
+    public int getFailed() { return failed; }
+    public void setFailed(int failed) { this.failed = failed; }
+
+    public long getProcessingTimeMs() { return processingTimeMs; }
+    public void setProcessingTimeMs(long processingTimeMs) { this.processingTimeMs = processingTimeMs; }
+
+    public double getItemsPerSecond() { return itemsPerSecond; }
+    public void setItemsPerSecond(double itemsPerSecond) { this.itemsPerSecond = itemsPerSecond; }
+}
@@ -0,0 +1,10 @@
+package com.ocr.yt_ocr_backend.dto;
+
+// A base64 OCR request queued as a job; jobs default to bulk priority, and only clients
+// with a configured API key may ask for interactive
+public class OcrJobRequest extends OcrBase64Request {
+    private String priority = "bulk";
+
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+}
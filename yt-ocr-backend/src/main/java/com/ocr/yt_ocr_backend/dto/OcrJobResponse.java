@@ -0,0 +1,52 @@
+package com.ocr.yt_ocr_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OcrJobResponse {
+    @JsonProperty("job_id")
+    private String jobId;
+
+    // queued, running, completed, queue_full or not_found
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("priority")
+    private String priority;
+
+    @JsonProperty("submitted_at")
+    private Long submittedAt;
+
+    @JsonProperty("completed_at")
+    private Long completedAt;
+
+    // Only present once the job has completed
+    @JsonProperty("result")
+    private OcrResponse result;
+
+    public OcrJobResponse() {}
+
+    public OcrJobResponse(String jobId, String status) {
+        this.jobId = jobId;
+        this.status = status;
+    }
+
+    public String getJobId() { return jobId; }
+    public void setJobId(String jobId) { this.jobId = jobId; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getPriority() { return priority; }
+    public void setPriority(String priority) { this.priority = priority; }
+
+    public Long getSubmittedAt() { return submittedAt; }
+    public void setSubmittedAt(Long submittedAt) { this.submittedAt = submittedAt; }
+
+    public Long getCompletedAt() { return completedAt; }
+    public void setCompletedAt(Long completedAt) { this.completedAt = completedAt; }
+
+    public OcrResponse getResult() { return result; }
+    public void setResult(OcrResponse result) { this.result = result; }
+}
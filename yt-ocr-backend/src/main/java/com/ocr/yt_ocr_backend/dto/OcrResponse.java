@@ -1,7 +1,9 @@
 package com.ocr.yt_ocr_backend.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import java.util.List;
+import java.util.Map;
 import java.util.ArrayList;
 
 public class OcrResponse {
@@ -17,6 +19,39 @@ public class OcrResponse {
     @JsonProperty("processing_time_ms")
     private long processingTimeMs;
 
+    @JsonProperty("cached")
+    private boolean cached;
+
+    // Resize factor applied before OCR; omitted when no preprocessing ran
+    @JsonProperty("scale_factor")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Double scaleFactor;
+
+    // Language the text was read with when the request asked for "auto"
+    @JsonProperty("detected_language")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String detectedLanguage;
+
+    // Per-stage breakdown, only when the request asked for it
+    @JsonProperty("stages_ms")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private Map<String, Double> stagesMs;
+
+    // Handle for asking later for only the rows that changed since this response
+    @JsonProperty("result_id")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String resultId;
+
+    // Set when rows only holds the rows added since that result (numbered as in the full
+    // result) and removed_lines the line numbers dropped from it
+    @JsonProperty("base_result_id")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private String baseResultId;
+
+    @JsonProperty("removed_lines")
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    private List<Integer> removedLines;
+
     public OcrResponse() {}
 
     public OcrResponse(String text, long processingTime) {
@@ -24,6 +59,15 @@ public class OcrResponse {
         parseTextToRows(text);
     }
 
+    public OcrResponse(List<TextRow> rows, long processingTime) {
+        this.processingTimeMs = processingTime;
+        this.rows = rows;
+        this.totalLines = rows.size();
+        if (rows.isEmpty()) {
+            this.status = "no_text_detected";
+        }
+    }
+
     private void parseTextToRows(String text) {
         if (text == null || text.trim().isEmpty()) {
             this.status = "no_text_detected";
@@ -57,6 +101,27 @@ public class OcrResponse {
     public long getProcessingTimeMs() { return processingTimeMs; }
     public void setProcessingTimeMs(long processingTimeMs) { this.processingTimeMs = processingTimeMs; }
 
+    public boolean isCached() { return cached; }
+    public void setCached(boolean cached) { this.cached = cached; }
+
+    public Double getScaleFactor() { return scaleFactor; }
+    public void setScaleFactor(Double scaleFactor) { this.scaleFactor = scaleFactor; }
+
+    public String getDetectedLanguage() { return detectedLanguage; }
+    public void setDetectedLanguage(String detectedLanguage) { this.detectedLanguage = detectedLanguage; }
+
+    public Map<String, Double> getStagesMs() { return stagesMs; }
+    public void setStagesMs(Map<String, Double> stagesMs) { this.stagesMs = stagesMs; }
+
+    public String getResultId() { return resultId; }
+    public void setResultId(String resultId) { this.resultId = resultId; }
+
+    public String getBaseResultId() { return baseResultId; }
+    public void setBaseResultId(String baseResultId) { this.baseResultId = baseResultId; }
+
+    public List<Integer> getRemovedLines() { return removedLines; }
+    public void setRemovedLines(List<Integer> removedLines) { this.removedLines = removedLines; }
+
     public static class TextRow {
         @JsonProperty("line_no")
         private int lineNo;
@@ -64,6 +129,19 @@ public class OcrResponse {
         @JsonProperty("content")
         private String content;
 
+        // Only set when the request asked for boxes or a confidence threshold
+        @JsonProperty("confidence")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Float confidence;
+
+        @JsonProperty("bbox")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private Box bbox;
+
+        @JsonProperty("words")
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private List<Word> words;
+
         public TextRow() {}
 
         public TextRow(int lineNo, String content) {
@@ -76,5 +154,78 @@ public class OcrResponse {
 
         public String getContent() { return content; }
         public void setContent(String content) { this.content = content; }
+
+        public Float getConfidence() { return confidence; }
+        public void setConfidence(Float confidence) { this.confidence = confidence; }
+
+        public Box getBbox() { return bbox; }
+        public void setBbox(Box bbox) { this.bbox = bbox; }
+
+        public List<Word> getWords() { return words; }
+        public void setWords(List<Word> words) { this.words = words; }
+    }
+
+    public static class Word {
+        @JsonProperty("text")
+        private String text;
+
+        @JsonProperty("confidence")
+        private float confidence;
+
+        @JsonProperty("bbox")
+        private Box bbox;
+
+        public Word() {}
+
+        public Word(String text, float confidence, Box bbox) {
+            this.text = text;
+            this.confidence = confidence;
+            this.bbox = bbox;
+        }
+
+        public String getText() { return text; }
+        public void setText(String text) { this.text = text; }
+
+        public float getConfidence() { return confidence; }
+        public void setConfidence(float confidence) { this.confidence = confidence; }
+
+        public Box getBbox() { return bbox; }
+        public void setBbox(Box bbox) { this.bbox = bbox; }
+    }
+
+    // Pixel rectangle in the submitted image
+    public static class Box {
+        @JsonProperty("x")
+        private int x;
+
+        @JsonProperty("y")
+        private int y;
+
+        @JsonProperty("width")
+        private int width;
+
+        @JsonProperty("height")
+        private int height;
+
+        public Box() {}
+
+        public Box(int x, int y, int width, int height) {
+            this.x = x;
+            this.y = y;
+            this.width = width;
+            this.height = height;
+        }
+
+        public int getX() { return x; }
+        public void setX(int x) { this.x = x; }
+
+        public int getY() { return y; }
+        public void setY(int y) { this.y = y; }
+
+        public int getWidth() { return width; }
+        public void setWidth(int width) { this.width = width; }
+
+        public int getHeight() { return height; }
+        public void setHeight(int height) { this.height = height; }
     }
 }
@@ -0,0 +1,8 @@
+package com.ocr.yt_ocr_backend.dto;
+
+public class OcrStreamFrameRequest {
+    private String imageBase64;
+
+    public String getImageBase64() { return imageBase64; }
+    public void setImageBase64(String imageBase64) { this.imageBase64 = imageBase64; }
+}
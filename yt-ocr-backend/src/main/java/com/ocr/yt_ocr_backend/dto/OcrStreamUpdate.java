@@ -0,0 +1,77 @@
+package com.ocr.yt_ocr_backend.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+
+import java.util.List;
+
+// Result of one frame posted to a streaming session; also pushed as a "lines" event
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class OcrStreamUpdate {
+    // processed, unchanged, busy, queue_full, timeout, session_not_found, invalid_base64,
+    // file_too_large, invalid_format, ocr_failed or error
+    @JsonProperty("status")
+    private String status;
+
+    @JsonProperty("session_id")
+    private String sessionId;
+
+    @JsonProperty("frame_no")
+    private long frameNo;
+
+    // Rows gone since the previous OCRed frame, with their old line numbers
+    @JsonProperty("removed")
+    private List<TextRow> removed;
+
+    // Rows new in this frame, with their new line numbers
+    @JsonProperty("added")
+    private List<TextRow> added;
+
+    @JsonProperty("total_lines")
+    private Integer totalLines;
+
+    @JsonProperty("regions_recognized")
+    private Integer regionsRecognized;
+
+    @JsonProperty("regions_reused")
+    private Integer regionsReused;
+
+    @JsonProperty("processing_time_ms")
+    private long processingTimeMs;
+
+    public OcrStreamUpdate() {}
+
+    public OcrStreamUpdate(String sessionId, long frameNo, String status) {
+        this.sessionId = sessionId;
+        this.frameNo = frameNo;
+        this.status = status;
+    }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+
+    public long getFrameNo() { return frameNo; }
+    public void setFrameNo(long frameNo) { this.frameNo = frameNo; }
+
+    public List<TextRow> getRemoved() { return removed; }
+    public void setRemoved(List<TextRow> removed) { this.removed = removed; }
+
+    public List<TextRow> getAdded() { return added; }
+    public void setAdded(List<TextRow> added) { this.added = added; }
+
+    public Integer getTotalLines() { return totalLines; }
+    public void setTotalLines(Integer totalLines) { this.totalLines = totalLines; }
+
+    public Integer getRegionsRecognized() { return regionsRecognized; }
+    public void setRegionsRecognized(Integer regionsRecognized) { this.regionsRecognized = regionsRecognized; }
+
+    public Integer getRegionsReused() { return regionsReused; }
+    public void setRegionsReused(Integer regionsReused) { this.regionsReused = regionsReused; }
+
+    public long getProcessingTimeMs() { return processingTimeMs; }
+    public void setProcessingTimeMs(long processingTimeMs) { this.processingTimeMs = processingTimeMs; }
+}
@@ -0,0 +1,194 @@
+package com.ocr.yt_ocr_backend.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Token buckets per client and endpoint, checked before a request reaches a controller.
+// Each bucket is one theoretical arrival time (GCRA) updated by compare-and-set, so the
+// check takes no lock. Endpoints are matched by the longest configured path prefix; a rule
+// may name a method ("POST /api/ocr/jobs"), so polling does not spend the submission budget.
+// Only configured API keys count as clients of their own; any other key is ignored and
+// the request is charged to its address. Beyond max-clients, new addresses share one
+// overflow client, so the table cannot be grown without bound.
+@Component
+public class ClientRateLimiter {
+
+    // method is null for a rule that applies to every method
+    record Rule(String method, String prefix, double perSecond, int burst) {
+        Rule(String prefix, double perSecond, int burst) {
+            this(null, prefix, perSecond, burst);
+        }
+
+        boolean applies(String requestMethod, String path) {
+            return (method == null || method.equalsIgnoreCase(requestMethod)) && path.startsWith(prefix);
+        }
+    }
+
+    private record State(OcrClient client, AtomicLongArray arrivals) {}
+
+    private final boolean enabled;
+    private final List<Rule> rules;
+    private final Map<String, Integer> weights;
+    private final long idleMs;
+    private final int maxClients;
+    private final Map<String, State> clients = new ConcurrentHashMap<>();
+    private final State overflow;
+    private ScheduledExecutorService janitor;
+
+    @Autowired
+    public ClientRateLimiter(@Value("${ocr.limits.enabled:true}") boolean enabled,
+                             // [METHOD ]prefix:requests-per-second:burst, longest prefix wins
+                             @Value("${ocr.limits.endpoints:/api/ocr:20:60}") String endpoints,
+                             // api-key:weight for every accepted key; addresses weigh 1
+                             @Value("${ocr.limits.weights:}") String weights,
+                             @Value("${ocr.limits.client-idle-ms:600000}") long idleMs,
+                             @Value("${ocr.limits.max-clients:10000}") int maxClients) {
+        this(enabled, endpoints, weights, idleMs, maxClients, true);
+    }
+
+    ClientRateLimiter(boolean enabled, String endpoints, String weights, long idleMs, int maxClients,
+                      boolean purge) {
+        this.enabled = enabled;
+        this.rules = parseRules(endpoints);
+        this.weights = parseWeights(weights);
+        this.idleMs = idleMs;
+        this.maxClients = maxClients;
+        this.overflow = newState(new OcrClient("overflow", "overflow", 1));
+        if (purge) {
+            janitor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "ocr-limits-janitor");
+                t.setDaemon(true);
+                return t;
+            });
+            long period = Math.max(1000, idleMs / 4);
+            janitor.scheduleWithFixedDelay(this::purgeIdle, period, period, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (janitor != null) janitor.shutdownNow();
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    // Resolves and counts the client; throws when its bucket for the request is empty
+    public OcrClient admit(String apiKey, String remoteAddr, String method, String path) {
+        State state = state(apiKey, remoteAddr);
+        OcrClient client = state.client();
+        client.recordRequest();
+        if (!enabled) return client;
+
+        int rule = match(method, path);
+        if (rule < 0) return client;
+        long waitNanos = take(state.arrivals(), rule, rules.get(rule), client.getWeight(), System.nanoTime());
+        if (waitNanos > 0) {
+            client.recordRateLimited();
+            throw new RateLimitedException(Math.max(1, (long) Math.ceil(waitNanos / 1e9)));
+        }
+        return client;
+    }
+
+    // Most active first
+    public List<OcrClient> clients() {
+        List<OcrClient> list = new ArrayList<>();
+        clients.values().forEach(s -> list.add(s.client()));
+        list.sort(Comparator.comparingLong(OcrClient::getLastSeen).reversed());
+        return list;
+    }
+
+    private State state(String apiKey, String remoteAddr) {
+        String key = apiKey == null ? "" : apiKey.trim();
+        boolean keyed = weights.containsKey(key);
+        String id = keyed ? "key:" + key : "ip:" + remoteAddr;
+        State state = clients.get(id);
+        if (state != null) return state;
+        // Configured keys are few and always get their own buckets
+        if (!keyed && clients.size() >= maxClients) return overflow;
+        return clients.computeIfAbsent(id, k ->
+            newState(new OcrClient(id, keyed ? "key:" + mask(key) : id, keyed ? weights.get(key) : 1)));
+    }
+
+    // A new client starts with full buckets
+    private State newState(OcrClient client) {
+        long now = System.nanoTime();
+        AtomicLongArray arrivals = new AtomicLongArray(rules.size());
+        for (int i = 0; i < rules.size(); i++) arrivals.set(i, now);
+        return new State(client, arrivals);
+    }
+
+    // 0 when a token was taken, otherwise the nanoseconds until one is available
+    static long take(AtomicLongArray arrivals, int index, Rule rule, int weight, long now) {
+        long interval = (long) (1e9 / (rule.perSecond() * weight));
+        long window = interval * rule.burst();
+        while (true) {
+            long arrival = arrivals.get(index);
+            long next = (arrival - now > 0 ? arrival : now) + interval;
+            if (next - now > window) return next - now - window;
+            if (arrivals.compareAndSet(index, arrival, next)) return 0;
+        }
+    }
+
+    // On equal prefixes a rule for the method beats one for every method
+    private int match(String method, String path) {
+        int best = -1;
+        for (int i = 0; i < rules.size(); i++) {
+            Rule rule = rules.get(i);
+            if (!rule.applies(method, path)) continue;
+            if (best < 0) {
+                best = i;
+                continue;
+            }
+            Rule current = rules.get(best);
+            int diff = rule.prefix().length() - current.prefix().length();
+            if (diff > 0 || (diff == 0 && current.method() == null && rule.method() != null)) best = i;
+        }
+        return best;
+    }
+
+    private void purgeIdle() {
+        long cutoff = System.currentTimeMillis() - idleMs;
+        clients.values().removeIf(s -> s.client().getLastSeen() < cutoff);
+    }
+
+    private static String mask(String key) {
+        return key.length() <= 4 ? "****" : key.substring(0, 4) + "****";
+    }
+
+    static List<Rule> parseRules(String value) {
+        List<Rule> rules = new ArrayList<>();
+        if (value == null) return rules;
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length != 3 || parts[0].isEmpty()) continue;
+            String[] target = parts[0].trim().split("\\s+", 2);
+            String method = target.length == 2 ? target[0].toUpperCase() : null;
+            String prefix = target.length == 2 ? target[1] : target[0];
+            rules.add(new Rule(method, prefix, Double.parseDouble(parts[1]), Integer.parseInt(parts[2])));
+        }
+        return rules;
+    }
+
+    private static Map<String, Integer> parseWeights(String value) {
+        Map<String, Integer> weights = new HashMap<>();
+        if (value == null) return weights;
+        for (String entry : value.split(",")) {
+            String[] parts = entry.trim().split(":");
+            if (parts.length == 2 && !parts[0].isEmpty()) weights.put(parts[0], Integer.parseInt(parts[1]));
+        }
+        return weights;
+    }
+}
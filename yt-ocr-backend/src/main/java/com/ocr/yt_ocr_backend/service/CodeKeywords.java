@@ -0,0 +1,204 @@
+package com.ocr.yt_ocr_backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Keyword dictionaries for code mode, one <language>.keywords file per language. A token
+// that differs from a keyword only by typical OCR confusions (l/1/I, O/0, rn/m, vv/w, ...)
+// is replaced with the keyword. Lookups go through a map of folded spellings, so each
+// token costs one fold and one hash lookup.
+@Component
+public class CodeKeywords {
+
+    @Value("${ocr.keywords.location:classpath:ocr/keywords/}")
+    private String location;
+
+    private Map<String, Set<String>> keywords = Map.of();
+    private Map<String, Map<String, String>> indexes = Map.of();
+    // All languages together, for text whose language could not be told
+    private Map<String, String> anyIndex = Map.of();
+
+    public CodeKeywords() {}
+
+    // For callers outside Spring, e.g. tests and benchmarks
+    public CodeKeywords(String location) throws IOException {
+        this.location = location;
+        load();
+    }
+
+    @PostConstruct
+    void load() throws IOException {
+        String pattern = location.endsWith("/") ? location + "*.keywords" : location + "/*.keywords";
+        if (pattern.startsWith("classpath:")) {
+            pattern = "classpath*:" + pattern.substring("classpath:".length());
+        }
+
+        Map<String, Set<String>> loaded = new LinkedHashMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(pattern)) {
+            String name = resource.getFilename();
+            if (name == null) continue;
+            try (InputStream in = resource.getInputStream()) {
+                loaded.put(name.substring(0, name.length() - ".keywords".length()),
+                    parse(new String(in.readAllBytes(), StandardCharsets.UTF_8)));
+            }
+        }
+
+        Map<String, Map<String, String>> built = new HashMap<>();
+        Set<String> all = new HashSet<>();
+        loaded.forEach((language, words) -> {
+            built.put(language, index(words));
+            all.addAll(words);
+        });
+        keywords = Map.copyOf(loaded);
+        indexes = Map.copyOf(built);
+        anyIndex = index(all);
+    }
+
+    static Set<String> parse(String text) {
+        Set<String> words = new HashSet<>();
+        for (String line : text.split("\n")) {
+            int hash = line.indexOf('#');
+            String content = hash >= 0 ? line.substring(0, hash) : line;
+            for (String word : content.trim().split("\\s+")) {
+                if (!word.isEmpty()) words.add(word);
+            }
+        }
+        return words;
+    }
+
+    // Keywords whose folded spellings collide are left out: the token would be ambiguous
+    private static Map<String, String> index(Set<String> words) {
+        Map<String, String> index = new HashMap<>();
+        Set<String> ambiguous = new HashSet<>();
+        for (String word : words) {
+            String previous = index.put(fold(word), word);
+            if (previous != null && !previous.equals(word)) ambiguous.add(fold(word));
+        }
+        ambiguous.forEach(index::remove);
+        return index;
+    }
+
+    // Lower case with each group of easily confused glyphs reduced to one spelling
+    static String fold(String token) {
+        StringBuilder sb = new StringBuilder(token.length());
+        for (int i = 0; i < token.length(); i++) {
+            char c = Character.toLowerCase(token.charAt(i));
+            char next = i + 1 < token.length() ? Character.toLowerCase(token.charAt(i + 1)) : 0;
+            if (c == 'r' && next == 'n') {
+                sb.append('m');
+                i++;
+            } else if (c == 'v' && next == 'v') {
+                sb.append('w');
+                i++;
+            } else {
+                sb.append(switch (c) {
+                    case '1', 'i', '|', '!' -> 'l';
+                    case '0' -> 'o';
+                    case '5' -> 's';
+                    case '8' -> 'b';
+                    default -> c;
+                });
+            }
+        }
+        return sb.toString();
+    }
+
+    // The language with the most of its own keywords (those no other dictionary has) in
+    // the text, or null when no language stands out
+    public String detect(List<String> lines) {
+        Map<String, Integer> scores = new HashMap<>();
+        for (String line : lines) {
+            forEachToken(line, (start, end) -> {
+                String token = line.substring(start, end);
+                String only = null;
+                for (Map.Entry<String, Set<String>> e : keywords.entrySet()) {
+                    if (!e.getValue().contains(token)) continue;
+                    if (only != null) return;
+                    only = e.getKey();
+                }
+                if (only != null) scores.merge(only, 1, Integer::sum);
+            });
+        }
+
+        String best = null;
+        int bestScore = 0;
+        for (Map.Entry<String, Integer> e : scores.entrySet()) {
+            if (e.getValue() > bestScore) {
+                best = e.getKey();
+                bestScore = e.getValue();
+            } else if (e.getValue() == bestScore) {
+                best = null;
+            }
+        }
+        return best;
+    }
+
+    public String correct(String line, String language) {
+        Map<String, String> index = language != null ? indexes.getOrDefault(language, anyIndex) : anyIndex;
+        if (index.isEmpty()) return line;
+
+        StringBuilder out = new StringBuilder(line.length());
+        int[] copied = {0};
+        forEachToken(line, (start, end) -> {
+            String token = line.substring(start, end);
+            if (!worthFolding(token)) return;
+            String keyword = index.get(fold(token));
+            // Case-only differences are deliberate (string vs String), not OCR errors
+            if (keyword == null || keyword.equalsIgnoreCase(token)) return;
+            out.append(line, copied[0], start).append(keyword);
+            copied[0] = end;
+        });
+        if (copied[0] == 0) return line;
+        return out.append(line, copied[0], line.length()).toString();
+    }
+
+    // Two-character tokens are only folded when they contain a digit or symbol ("1f", "0r"),
+    // otherwise identifiers like ln or lf would turn into keywords
+    private static boolean worthFolding(String token) {
+        boolean letter = false;
+        boolean other = false;
+        for (int i = 0; i < token.length(); i++) {
+            if (Character.isLetter(token.charAt(i))) letter = true;
+            else other = true;
+        }
+        return letter && (token.length() >= 3 || other);
+    }
+
+    private interface TokenVisitor {
+        void visit(int start, int end);
+    }
+
+    // Word characters, plus a '|' or '!' between two of them where OCR misread an l or i
+    private static void forEachToken(String line, TokenVisitor visitor) {
+        int length = line.length();
+        int i = 0;
+        while (i < length) {
+            if (!TextCorrectionEngine.isWordChar(line.charAt(i))) {
+                i++;
+                continue;
+            }
+            int start = i;
+            while (i < length) {
+                char c = line.charAt(i);
+                boolean confusable = (c == '|' || c == '!') && i > start && i + 1 < length
+                    && TextCorrectionEngine.isWordChar(line.charAt(i + 1));
+                if (!TextCorrectionEngine.isWordChar(c) && !confusable) break;
+                i++;
+            }
+            visitor.visit(start, i);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package com.ocr.yt_ocr_backend.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Rebuilds the leading indentation of code from where each line starts on screen.
+// Code is set in a monospaced font, so the x offset from the leftmost line divided by the
+// width of one character gives the column; columns are then snapped to the indent unit
+// the block uses (4 or 2 spaces) to absorb a pixel or two of box jitter.
+final class CodeLayout {
+
+    private static final int[] UNITS = {4, 2};
+    private static final double UNIT_FIT = 0.8;
+
+    private CodeLayout() {}
+
+    // Leading spaces for each line of one block
+    static int[] indentation(List<OcrEngine.Line> lines) {
+        int[] columns = new int[lines.size()];
+        double advance = charAdvance(lines);
+        if (advance <= 0) return columns;
+
+        int left = Integer.MAX_VALUE;
+        for (OcrEngine.Line line : lines) {
+            left = Math.min(left, line.bounds().x);
+        }
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = (int) Math.round((lines.get(i).bounds().x - left) / advance);
+        }
+
+        int unit = indentUnit(columns);
+        for (int i = 0; i < columns.length; i++) {
+            columns[i] = Math.round((float) columns[i] / unit) * unit;
+        }
+        return columns;
+    }
+
+    // Median width per character of the words; short words are skipped when there are
+    // longer ones, as side bearings make up too much of a one-glyph box
+    static double charAdvance(List<OcrEngine.Line> lines) {
+        List<Double> widths = new ArrayList<>();
+        List<Double> shortWidths = new ArrayList<>();
+        for (OcrEngine.Line line : lines) {
+            for (OcrEngine.Word word : line.words()) {
+                int chars = word.text().codePointCount(0, word.text().length());
+                if (chars == 0 || word.bounds().width <= 0) continue;
+                (chars >= 3 ? widths : shortWidths).add((double) word.bounds().width / chars);
+            }
+        }
+        if (widths.isEmpty()) widths = shortWidths;
+        if (widths.isEmpty()) return 0;
+        Collections.sort(widths);
+        return widths.get(widths.size() / 2);
+    }
+
+    // Largest unit that most indented lines are a multiple of
+    static int indentUnit(int[] columns) {
+        int indented = 0;
+        for (int c : columns) {
+            if (c > 0) indented++;
+        }
+        if (indented == 0) return 1;
+
+        for (int unit : UNITS) {
+            int fits = 0;
+            for (int c : columns) {
+                int rest = c % unit;
+                // one column either way is measurement noise
+                if (c > 0 && (rest <= 1 || rest == unit - 1)) fits++;
+            }
+            if (fits >= indented * UNIT_FIT) return unit;
+        }
+        return 1;
+    }
+}
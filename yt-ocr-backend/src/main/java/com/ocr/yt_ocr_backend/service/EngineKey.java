@@ -0,0 +1,11 @@
+package com.ocr.yt_ocr_backend.service;
+
+// Identifies one engine configuration in the pool. Engines are only shared between
+// requests whose language, mode profile, page segmentation and engine mode all match.
+public record EngineKey(String language, String mode, int psm, int oem) {
+
+    @Override
+    public String toString() {
+        return language + ":" + mode + ":psm" + psm + ":oem" + oem;
+    }
+}
@@ -0,0 +1,112 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.util.GrayImageOps;
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+
+// Single preprocessing pass for every endpoint and mode: grayscale at source resolution,
+// x-height estimate to pick the scale factor, then one resize with the contrast curve
+// applied on the way, then optional binarisation. Each stage runs once and works on
+// per-thread buffers that are reused between requests.
+@Component
+public class ImagePreprocessor {
+
+    // Used when adaptive scaling is off or no text line could be measured
+    @Value("${ocr.preprocess.scale:2.0}")
+    private double scale;
+
+    @Value("${ocr.preprocess.adaptive:true}")
+    private boolean adaptive;
+
+    // Tesseract is most accurate with an x-height of roughly 20-30 px
+    @Value("${ocr.preprocess.target-x-height:22}")
+    private int targetXHeight;
+
+    @Value("${ocr.preprocess.min-scale:0.25}")
+    private double minScale;
+
+    @Value("${ocr.preprocess.max-scale:4.0}")
+    private double maxScale;
+
+    // Factors this close to 1 are not worth a resample
+    @Value("${ocr.preprocess.scale-tolerance:0.15}")
+    private double scaleTolerance;
+
+    @Value("${ocr.preprocess.contrast:1.5}")
+    private float contrast;
+
+    @Value("${ocr.preprocess.brightness:10}")
+    private float brightness;
+
+    // none, otsu or sauvola
+    @Value("${ocr.preprocess.binarize:none}")
+    private String binarize;
+
+    @Value("${ocr.preprocess.sauvola-window:25}")
+    private int sauvolaWindow;
+
+    @Value("${ocr.preprocess.sauvola-k:0.34}")
+    private double sauvolaK;
+
+    // Larger buffers are used once and dropped instead of being pinned to the thread
+    @Value("${ocr.preprocess.max-retained-bytes:16777216}")
+    private int maxRetainedBytes;
+
+    private byte[] contrastLut;
+
+    private final ThreadLocal<byte[]> sourceBuffer = new ThreadLocal<>();
+    private final ThreadLocal<byte[]> outputBuffer = new ThreadLocal<>();
+
+    @PostConstruct
+    void init() {
+        contrastLut = GrayImageOps.contrastLut(contrast, brightness);
+    }
+
+    public record Output(GrayRaster raster, double scaleFactor) {}
+
+    // The returned raster is backed by a per-thread buffer and is only valid until the
+    // next call on the same thread
+    public Output process(BufferedImage src) {
+        int sw = src.getWidth();
+        int sh = src.getHeight();
+        byte[] gray = buffer(sourceBuffer, sw * sh);
+        GrayImageOps.toGray(src, gray);
+
+        double factor = adaptive ? scaleFor(GrayImageOps.estimateXHeight(gray, sw, sh)) : scale;
+        int dw = Math.max(1, (int) Math.round(sw * factor));
+        int dh = Math.max(1, (int) Math.round(sh * factor));
+        byte[] out = buffer(outputBuffer, dw * dh);
+        GrayImageOps.scale(gray, sw, sh, out, dw, dh, contrastLut);
+
+        switch (binarize) {
+            case "otsu" -> GrayImageOps.binarizeOtsu(out, dw * dh);
+            case "sauvola" -> GrayImageOps.binarizeSauvola(out, dw, dh, sauvolaWindow, sauvolaK);
+            default -> { }
+        }
+        return new Output(new GrayRaster(dw, dh, out), factor);
+    }
+
+    double scaleFor(int xHeight) {
+        if (xHeight <= 0) return scale;
+
+        double factor = Math.max(minScale, Math.min(maxScale, (double) targetXHeight / xHeight));
+        if (Math.abs(factor - 1) <= scaleTolerance) return 1.0;
+        // Two decimals keep the reported factor readable and repeat frames on the same size
+        return Math.round(factor * 100) / 100.0;
+    }
+
+    private byte[] buffer(ThreadLocal<byte[]> holder, int size) {
+        byte[] buf = holder.get();
+        if (buf != null && buf.length >= size) return buf;
+
+        buf = new byte[size];
+        if (size <= maxRetainedBytes) {
+            holder.set(buf);
+        }
+        return buf;
+    }
+}
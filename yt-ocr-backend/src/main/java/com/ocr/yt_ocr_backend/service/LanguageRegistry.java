@@ -0,0 +1,101 @@
+package com.ocr.yt_ocr_backend.service;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+// The languages this server OCRs. Requests may only ask for one of these (or "auto"), and
+// the engine pool loads all of them at startup, so no request waits for traineddata to
+// load. An entry can combine models, e.g. eng+hin.
+@Component
+public class LanguageRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(LanguageRegistry.class);
+
+    public static final String AUTO = "auto";
+    // Pseudo language of the orientation and script detection engine
+    public static final String OSD = "osd";
+
+    @Value("${ocr.languages.supported:${ocr.lang:eng}}")
+    private String supported;
+
+    @Value("${ocr.languages.default:${ocr.lang:eng}}")
+    private String defaultLanguage;
+
+    @Value("${ocr.languages.auto-detect:true}")
+    private boolean autoDetect;
+
+    // comma separated script:language pairs for language=auto, e.g. Devanagari:eng+hin;
+    // scripts without an entry use the default language
+    @Value("${ocr.languages.scripts:}")
+    private String scripts;
+
+    private Set<String> languages = Set.of();
+    private Map<String, String> scriptLanguages = Map.of();
+    private boolean detectionUseful;
+
+    public LanguageRegistry() {}
+
+    // For callers outside Spring, e.g. tests
+    LanguageRegistry(String supported, String defaultLanguage, boolean autoDetect, String scripts) {
+        this.supported = supported;
+        this.defaultLanguage = defaultLanguage;
+        this.autoDetect = autoDetect;
+        this.scripts = scripts;
+        init();
+    }
+
+    @PostConstruct
+    void init() {
+        Set<String> parsed = new LinkedHashSet<>();
+        parsed.add(defaultLanguage);
+        for (String entry : supported.split(",")) {
+            if (!entry.isBlank()) parsed.add(entry.trim());
+        }
+
+        Map<String, String> byScript = new HashMap<>();
+        for (String entry : scripts.split(",")) {
+            int colon = entry.indexOf(':');
+            if (colon < 0) continue;
+            String language = entry.substring(colon + 1).trim();
+            if (parsed.contains(language)) {
+                byScript.put(entry.substring(0, colon).trim(), language);
+            } else {
+                log.warn("Ignoring script mapping {}: {} is not a supported language", entry.trim(), language);
+            }
+        }
+        languages = Collections.unmodifiableSet(parsed);
+        scriptLanguages = Map.copyOf(byScript);
+        // Detection only pays off when some script maps to a non-default language
+        detectionUseful = byScript.values().stream().anyMatch(language -> !language.equals(defaultLanguage));
+    }
+
+    // The language to run for a request value: the default for none, AUTO when the
+    // script is to be detected, and null for anything that is not supported
+    public String resolve(String requested) {
+        if (requested == null || requested.isBlank()) return defaultLanguage;
+        String value = requested.trim();
+        if (AUTO.equalsIgnoreCase(value)) return isAutoDetect() ? AUTO : defaultLanguage;
+        return languages.contains(value) ? value : null;
+    }
+
+    // Tesseract script name (Latin, Devanagari, Han, ...) to language
+    public String forScript(String script) {
+        if (script == null) return defaultLanguage;
+        return scriptLanguages.getOrDefault(script, defaultLanguage);
+    }
+
+    public Set<String> getLanguages() { return languages; }
+
+    public String getDefaultLanguage() { return defaultLanguage; }
+
+    public boolean isAutoDetect() { return autoDetect && detectionUseful; }
+}
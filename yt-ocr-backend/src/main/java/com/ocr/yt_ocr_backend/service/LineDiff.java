@@ -0,0 +1,56 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// Line-level diff (longest common subsequence on row content) between two OCR results.
+// Removed rows carry their old line numbers, added rows their new ones.
+final class LineDiff {
+
+    // Above this many cells the table costs more than resending everything
+    private static final long MAX_CELLS = 1_000_000;
+
+    record Result(List<TextRow> removed, List<TextRow> added) {
+        boolean isEmpty() { return removed.isEmpty() && added.isEmpty(); }
+    }
+
+    private LineDiff() {}
+
+    static Result diff(List<TextRow> before, List<TextRow> after) {
+        int n = before.size();
+        int m = after.size();
+        List<TextRow> removed = new ArrayList<>();
+        List<TextRow> added = new ArrayList<>();
+        if ((long) (n + 1) * (m + 1) > MAX_CELLS) {
+            return new Result(new ArrayList<>(before), new ArrayList<>(after));
+        }
+
+        // lcs[i][j] = common lines of before[i..] and after[j..]
+        int[][] lcs = new int[n + 1][m + 1];
+        for (int i = n - 1; i >= 0; i--) {
+            for (int j = m - 1; j >= 0; j--) {
+                lcs[i][j] = before.get(i).getContent().equals(after.get(j).getContent())
+                    ? lcs[i + 1][j + 1] + 1
+                    : Math.max(lcs[i + 1][j], lcs[i][j + 1]);
+            }
+        }
+
+        int i = 0;
+        int j = 0;
+        while (i < n && j < m) {
+            if (before.get(i).getContent().equals(after.get(j).getContent())) {
+                i++;
+                j++;
+            } else if (lcs[i + 1][j] >= lcs[i][j + 1]) {
+                removed.add(before.get(i++));
+            } else {
+                added.add(after.get(j++));
+            }
+        }
+        while (i < n) removed.add(before.get(i++));
+        while (j < m) added.add(after.get(j++));
+        return new Result(removed, added);
+    }
+}
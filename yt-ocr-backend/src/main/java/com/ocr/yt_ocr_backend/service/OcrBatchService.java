@@ -0,0 +1,117 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrBase64Request;
+import com.ocr.yt_ocr_backend.dto.OcrBatchResponse;
+import com.ocr.yt_ocr_backend.dto.OcrResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
+
+// Runs batch items as bulk jobs of the calling client on the shared OCR workers, so a batch
+// waits behind interactive requests and gets only its client's fair share. At most one item
+// per worker is queued at a time, which leaves the rest of the queue to other clients.
+@Service
+public class OcrBatchService {
+    private final OcrRequestProcessor requestProcessor;
+    private final OcrJobService jobService;
+
+    @Value("${ocr.batch.max-items:500}")
+    private int maxItems = 500;
+
+    public OcrBatchService(OcrRequestProcessor requestProcessor, OcrJobService jobService) {
+        this.requestProcessor = requestProcessor;
+        this.jobService = jobService;
+    }
+
+    public OcrBatchResponse processBase64Batch(List<OcrBase64Request> items, OcrClient client) {
+        return run(items, client, item -> requestProcessor.processBase64(item, client));
+    }
+
+    public OcrBatchResponse processFileBatch(List<MultipartFile> files, String language, String mode,
+                                             OcrClient client) {
+        return run(files, client, file -> requestProcessor.processFile(file, language, mode));
+    }
+
+    private record Pending(int index, CompletableFuture<OcrResponse> future) {}
+
+    private <T> OcrBatchResponse run(List<T> items, OcrClient client, Function<T, OcrResponse> processor) {
+        if (items == null || items.isEmpty()) {
+            OcrBatchResponse response = new OcrBatchResponse();
+            response.setStatus("batch_empty");
+            return response;
+        }
+
+        if (items.size() > maxItems) {
+            OcrBatchResponse response = new OcrBatchResponse();
+            response.setStatus("batch_too_large");
+            return response;
+        }
+
+        long startTime = System.currentTimeMillis();
+        int window = jobService.getWorkers();
+
+        OcrResponse[] results = new OcrResponse[items.size()];
+        Deque<Pending> pending = new ArrayDeque<>();
+        for (int i = 0; i < items.size(); i++) {
+            T item = items.get(i);
+            CompletableFuture<OcrResponse> future = null;
+            while (future == null) {
+                if (pending.size() >= window) {
+                    await(pending.poll(), results);
+                    continue;
+                }
+                future = jobService.execute(OcrJob.Priority.BULK, client, () -> processor.apply(item));
+                // Queue full: wait for one of our own items, or give up on this one if none is queued
+                if (future == null) {
+                    if (pending.isEmpty()) break;
+                    await(pending.poll(), results);
+                }
+            }
+            if (future != null) {
+                pending.add(new Pending(i, future));
+            } else {
+                results[i] = status("queue_full");
+            }
+        }
+        while (!pending.isEmpty()) await(pending.poll(), results);
+
+        int succeeded = 0;
+        for (OcrResponse result : results) {
+            if (OcrRequestProcessor.isSuccessful(result)) succeeded++;
+        }
+
+        long processingTime = System.currentTimeMillis() - startTime;
+        return new OcrBatchResponse(new ArrayList<>(Arrays.asList(results)), succeeded, processingTime);
+    }
+
+    private void await(Pending item, OcrResponse[] results) {
+        OcrResponse result;
+        try {
+            result = item.future().get(jobService.getWaitTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result = status("timeout");
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            result = new OcrResponse("Processing error occurred", 0);
+            result.setStatus("error");
+        }
+        results[item.index()] = result;
+    }
+
+    private static OcrResponse status(String status) {
+        OcrResponse response = new OcrResponse();
+        response.setStatus(status);
+        return response;
+    }
+}
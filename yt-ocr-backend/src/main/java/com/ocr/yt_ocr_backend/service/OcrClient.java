@@ -0,0 +1,72 @@
+package com.ocr.yt_ocr_backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Who a request comes from for rate limiting and fair queuing: an API key or an IP address.
+// The weight scales both the client's rates and its share of the OCR workers.
+public final class OcrClient {
+
+    // Request attribute the rate limit interceptor stores the client under
+    public static final String ATTRIBUTE = "ocr.client";
+
+    public static final OcrClient ANONYMOUS = new OcrClient("anonymous", "anonymous", 1);
+
+    private final String id;
+    private final String name;
+    private final int weight;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder rateLimited = new LongAdder();
+    private final LongAdder queueFull = new LongAdder();
+    private final LongAdder jobs = new LongAdder();
+    private final LongAdder ocrNanos = new LongAdder();
+    private volatile long lastSeen = System.currentTimeMillis();
+
+    // id is the internal key; name is what the usage endpoint shows (API keys are masked)
+    OcrClient(String id, String name, int weight) {
+        this.id = id;
+        this.name = name;
+        this.weight = Math.max(1, weight);
+    }
+
+    public static OcrClient orAnonymous(OcrClient client) {
+        return client != null ? client : ANONYMOUS;
+    }
+
+    public String getId() { return id; }
+    public String getName() { return name; }
+    public int getWeight() { return weight; }
+    public long getLastSeen() { return lastSeen; }
+
+    // Known by a configured API key rather than by address
+    public boolean isKeyed() { return id.startsWith("key:"); }
+
+    void recordRequest() {
+        requests.increment();
+        lastSeen = System.currentTimeMillis();
+    }
+
+    void recordRateLimited() { rateLimited.increment(); }
+    void recordQueueFull() { queueFull.increment(); }
+
+    void recordJob(long nanos) {
+        jobs.increment();
+        ocrNanos.add(nanos);
+    }
+
+    public Map<String, Object> usage() {
+        Map<String, Object> usage = new LinkedHashMap<>();
+        usage.put("client", name);
+        usage.put("weight", weight);
+        usage.put("requests", requests.sum());
+        usage.put("rate_limited", rateLimited.sum());
+        usage.put("queue_full", queueFull.sum());
+        usage.put("jobs", jobs.sum());
+        usage.put("ocr_time_ms", TimeUnit.NANOSECONDS.toMillis(ocrNanos.sum()));
+        usage.put("last_seen", lastSeen);
+        return usage;
+    }
+}
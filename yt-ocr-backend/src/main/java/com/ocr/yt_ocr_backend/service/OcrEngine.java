@@ -0,0 +1,188 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import com.sun.jna.Pointer;
+import com.sun.jna.ptr.PointerByReference;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.ITessAPI.TessPageIteratorLevel;
+import net.sourceforge.tess4j.ITessAPI.TessResultIterator;
+import net.sourceforge.tess4j.TessAPI;
+import net.sourceforge.tess4j.Tesseract;
+import net.sourceforge.tess4j.TesseractException;
+
+import java.awt.Rectangle;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+// Tesseract that keeps its native handle (and loaded traineddata) open between calls.
+// Tess4J's doOCR creates and deletes the TessBaseAPI on every call, so the pool uses
+// recognize() instead. Not thread-safe: only use an instance through a pool Lease.
+public class OcrEngine extends Tesseract implements Recognizer {
+
+    private static final int MAX_RETAINED_BUFFER = 16 * 1024 * 1024;
+
+    private final EngineKey key;
+    private boolean open;
+    private ByteBuffer pixelBuffer;
+
+    OcrEngine(EngineKey key) {
+        this.key = key;
+    }
+
+    public EngineKey getKey() { return key; }
+
+    void open() throws TesseractException {
+        init();
+        setVariables();
+        String loaded = getAPI().TessBaseAPIGetInitLanguagesAsString(getHandle());
+        if (loaded == null || loaded.isEmpty()) {
+            dispose();
+            throw new TesseractException("Could not load traineddata for language " + key.language());
+        }
+        open = true;
+    }
+
+    public String recognize(GrayRaster raster) throws TesseractException {
+        return recognize(raster, new Rectangle(0, 0, raster.getWidth(), raster.getHeight()));
+    }
+
+    // Only the region's pixels are copied, so cropping costs nothing extra
+    @Override
+    public String recognize(GrayRaster raster, Rectangle region) throws TesseractException {
+        try {
+            setImage(region.width, region.height, imageBuffer(raster, region), 8);
+            return getOCRText("", 1);
+        } finally {
+            getAPI().TessBaseAPIClear(getHandle());
+        }
+    }
+
+    // Script of the text in the region (Latin, Devanagari, Han, ...) as Tesseract names it,
+    // or null if it could not tell. Only works on an engine opened for LanguageRegistry.OSD.
+    @Override
+    public String detectScript(GrayRaster raster, Rectangle region) throws TesseractException {
+        TessAPI api = getAPI();
+        try {
+            setImage(region.width, region.height, imageBuffer(raster, region), 8);
+            IntBuffer orientation = IntBuffer.allocate(1);
+            FloatBuffer orientationConfidence = FloatBuffer.allocate(1);
+            FloatBuffer scriptConfidence = FloatBuffer.allocate(1);
+            PointerByReference scriptName = new PointerByReference();
+            if (api.TessBaseAPIDetectOrientationScript(getHandle(), orientation, orientationConfidence,
+                    scriptName, scriptConfidence) != ITessAPI.TRUE) {
+                return null;
+            }
+            // Points into Tesseract's unicharset: read it, never free it
+            Pointer name = scriptName.getValue();
+            return name != null ? name.getString(0) : null;
+        } finally {
+            api.TessBaseAPIClear(getHandle());
+        }
+    }
+
+    // Bounds are relative to the region; confidences are 0-100
+    public record Word(String text, float confidence, Rectangle bounds) {}
+
+    public record Line(String text, float confidence, Rectangle bounds, List<Word> words) {}
+
+    // Lines and words with their boxes and confidences, read from the result iterator of
+    // a single Recognize call
+    @Override
+    public List<Line> recognizeLines(GrayRaster raster, Rectangle region) throws TesseractException {
+        TessAPI api = getAPI();
+        try {
+            setImage(region.width, region.height, imageBuffer(raster, region), 8);
+            if (api.TessBaseAPIRecognize(getHandle(), null) != 0) {
+                throw new TesseractException("Recognition failed");
+            }
+            TessResultIterator ri = api.TessBaseAPIGetIterator(getHandle());
+            if (ri == null) return List.of();
+            try {
+                return readLines(api, ri);
+            } finally {
+                api.TessResultIteratorDelete(ri);
+            }
+        } finally {
+            api.TessBaseAPIClear(getHandle());
+        }
+    }
+
+    private static List<Line> readLines(TessAPI api, TessResultIterator ri) {
+        final int line = TessPageIteratorLevel.RIL_TEXTLINE;
+        final int word = TessPageIteratorLevel.RIL_WORD;
+        ITessAPI.TessPageIterator pi = api.TessResultIteratorGetPageIterator(ri);
+        api.TessPageIteratorBegin(pi);
+
+        List<Line> lines = new ArrayList<>();
+        List<Word> words = null;
+        do {
+            if (words == null || api.TessPageIteratorIsAtBeginningOf(pi, line) == ITessAPI.TRUE) {
+                String text = text(api, ri, line);
+                if (text == null) {
+                    words = null;
+                    continue;
+                }
+                words = new ArrayList<>();
+                lines.add(new Line(text.strip(), api.TessResultIteratorConfidence(ri, line), bounds(api, pi, line), words));
+            }
+            String text = text(api, ri, word);
+            if (text != null && !text.isBlank()) {
+                words.add(new Word(text, api.TessResultIteratorConfidence(ri, word), bounds(api, pi, word)));
+            }
+        } while (api.TessPageIteratorNext(pi, word) == ITessAPI.TRUE);
+        return lines;
+    }
+
+    private static String text(TessAPI api, TessResultIterator ri, int level) {
+        Pointer p = api.TessResultIteratorGetUTF8Text(ri, level);
+        if (p == null) return null;
+        try {
+            return p.getString(0, StandardCharsets.UTF_8.name());
+        } finally {
+            api.TessDeleteText(p);
+        }
+    }
+
+    private static Rectangle bounds(TessAPI api, ITessAPI.TessPageIterator pi, int level) {
+        IntBuffer left = IntBuffer.allocate(1);
+        IntBuffer top = IntBuffer.allocate(1);
+        IntBuffer right = IntBuffer.allocate(1);
+        IntBuffer bottom = IntBuffer.allocate(1);
+        api.TessPageIteratorBoundingBox(pi, level, left, top, right, bottom);
+        return new Rectangle(left.get(0), top.get(0), right.get(0) - left.get(0), bottom.get(0) - top.get(0));
+    }
+
+    // Tesseract copies the pixels in SetImage, so one direct buffer per engine is enough
+    private ByteBuffer imageBuffer(GrayRaster raster, Rectangle region) {
+        int length = region.width * region.height;
+        ByteBuffer buf = pixelBuffer;
+        if (buf == null || buf.capacity() < length) {
+            buf = ByteBuffer.allocateDirect(length);
+            if (length <= MAX_RETAINED_BUFFER) {
+                pixelBuffer = buf;
+            }
+        }
+        buf.clear();
+        byte[] data = raster.getData();
+        if (region.width == raster.getWidth()) {
+            buf.put(data, region.y * region.width, length);
+        } else {
+            for (int y = region.y; y < region.y + region.height; y++) {
+                buf.put(data, y * raster.getWidth() + region.x, region.width);
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    void close() {
+        if (open) {
+            open = false;
+            dispose();
+        }
+    }
+}
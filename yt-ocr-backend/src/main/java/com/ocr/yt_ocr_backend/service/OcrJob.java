@@ -0,0 +1,51 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse;
+
+import java.util.concurrent.CompletableFuture;
+
+public class OcrJob {
+
+    // Interactive work (the extension waiting on a frame) always runs before bulk work
+    public enum Priority {
+        INTERACTIVE, BULK;
+
+        public static Priority parse(String value, Priority fallback) {
+            if (value == null || value.isBlank()) return fallback;
+            return "interactive".equalsIgnoreCase(value.trim()) ? INTERACTIVE : BULK;
+        }
+    }
+
+    private final String id;
+    private final Priority priority;
+    private final long submittedAt;
+    private final CompletableFuture<OcrResponse> result = new CompletableFuture<>();
+    private volatile String status = "queued";
+    private volatile long completedAt;
+
+    OcrJob(String id, Priority priority) {
+        this.id = id;
+        this.priority = priority;
+        this.submittedAt = System.currentTimeMillis();
+    }
+
+    public String getId() { return id; }
+    public Priority getPriority() { return priority; }
+    public long getSubmittedAt() { return submittedAt; }
+    public long getCompletedAt() { return completedAt; }
+
+    // queued, running or completed
+    public String getStatus() { return status; }
+
+    public CompletableFuture<OcrResponse> getResult() { return result; }
+
+    void markRunning() {
+        status = "running";
+    }
+
+    void complete(OcrResponse response) {
+        completedAt = System.currentTimeMillis();
+        status = "completed";
+        result.complete(response);
+    }
+}
@@ -0,0 +1,313 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse;
+import com.ocr.yt_ocr_backend.util.VirtualThreads;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+// Runs OCR work on a fixed set of workers fed from a bounded priority queue. Requests that
+// would exceed the queue are refused immediately so callers can back off instead of
+// holding a servlet thread until they time out. Within a priority, clients are served by
+// weighted fair queuing: each job is tagged with a virtual finish time that advances by
+// its expected run time divided by the client's weight, so a client with many queued
+// jobs cannot push another client's jobs back, and CPU is shared in proportion to weight.
+@Service
+public class OcrJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrJobService.class);
+
+    private final int workers;
+    private final int capacity;
+    private final long resultTtlMs;
+
+    private final ThreadPoolExecutor executor;
+    private final ScheduledExecutorService janitor;
+    private final Map<String, OcrJob> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong abandoned = new AtomicLong();
+    // moving average of job run time, used for Retry-After
+    private volatile double averageRunMs = 500;
+
+    // How long a caller waits for its job before giving up with "timeout"
+    @Value("${ocr.jobs.wait-timeout-ms:120000}")
+    private long waitTimeoutMs = 120_000;
+    // Fair queuing state: virtual time and the last finish tag of each client, under fairLock
+    private final Object fairLock = new Object();
+    private double virtualTime;
+    private final Map<String, Double> lastFinish = new HashMap<>();
+
+    @Autowired
+    public OcrJobService(TesseractEnginePool enginePool, MeterRegistry registry,
+                         @Value("${ocr.jobs.workers:0}") int workers,
+                         @Value("${ocr.jobs.queue-capacity:0}") int capacity,
+                         @Value("${ocr.jobs.result-ttl-ms:300000}") long resultTtlMs,
+                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this(workers > 0 ? workers : enginePool.getMaxActive(), capacity, resultTtlMs,
+            virtualThreads && VirtualThreads.isSupported());
+        Gauge.builder("ocr.jobs.queued", queued, AtomicInteger::get)
+            .description("OCR jobs waiting for a worker")
+            .register(registry);
+        FunctionCounter.builder("ocr.jobs.rejected", rejected, AtomicLong::get)
+            .description("OCR jobs refused because the queue was full")
+            .register(registry);
+        FunctionCounter.builder("ocr.jobs.abandoned", abandoned, AtomicLong::get)
+            .description("Interactive OCR jobs dropped from the queue after their caller timed out")
+            .register(registry);
+    }
+
+    // 0 capacity means a few jobs waiting per worker
+    OcrJobService(int workers, int capacity, long resultTtlMs) {
+        this(workers, capacity, resultTtlMs, false);
+    }
+
+    // Virtual workers only wait while Tesseract runs on the native executor, see OcrService
+    OcrJobService(int workers, int capacity, long resultTtlMs, boolean virtualThreads) {
+        this.workers = Math.max(1, workers);
+        this.capacity = capacity > 0 ? capacity : this.workers * 4;
+        this.resultTtlMs = resultTtlMs;
+
+        AtomicInteger counter = new AtomicInteger();
+        ThreadFactory threads = virtualThreads ? VirtualThreads.newFactory("ocr-job-") : r -> {
+            Thread t = new Thread(r, "ocr-job-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        };
+        executor = new ThreadPoolExecutor(this.workers, this.workers, 0, TimeUnit.MILLISECONDS,
+            new PriorityBlockingQueue<>(), threads);
+
+        janitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ocr-job-janitor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, resultTtlMs / 4);
+        janitor.scheduleWithFixedDelay(this::purgeFinished, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        janitor.shutdownNow();
+        executor.shutdownNow();
+    }
+
+    // Returns null when the queue is full
+    public OcrJob submit(OcrJob.Priority priority, Supplier<OcrResponse> work) {
+        return submit(priority, OcrClient.ANONYMOUS, work);
+    }
+
+    public OcrJob submit(OcrJob.Priority priority, OcrClient client, Supplier<OcrResponse> work) {
+        if (!admit(client)) return null;
+
+        OcrJob job = new OcrJob(UUID.randomUUID().toString(), priority);
+        enqueue(job, client, work);
+        return job;
+    }
+
+    private Task enqueue(OcrJob job, OcrClient client, Supplier<OcrResponse> work) {
+        jobs.put(job.getId(), job);
+        Task task = new Task(job.getPriority(), client, () -> {
+            job.markRunning();
+            OcrResponse response = null;
+            try {
+                response = work.get();
+            } catch (RuntimeException e) {
+                log.warn("OCR job {} failed: {}", job.getId(), e.getMessage());
+            } finally {
+                // Also on an Error (out of memory on a huge image), which then propagates
+                if (response == null) {
+                    response = new OcrResponse("Processing error occurred", 0);
+                    response.setStatus("error");
+                }
+                job.complete(response);
+            }
+        });
+        executor.execute(task);
+        return task;
+    }
+
+    // Queues untracked work (no job id or stored result); returns null when the queue is full
+    public <T> CompletableFuture<T> execute(OcrJob.Priority priority, Supplier<T> work) {
+        return execute(priority, OcrClient.ANONYMOUS, work);
+    }
+
+    public <T> CompletableFuture<T> execute(OcrJob.Priority priority, OcrClient client, Supplier<T> work) {
+        if (!admit(client)) return null;
+
+        CompletableFuture<T> future = new CompletableFuture<>();
+        executor.execute(new Task(priority, client, () -> {
+            try {
+                future.complete(work.get());
+            } catch (RuntimeException | Error e) {
+                future.completeExceptionally(e);
+                if (e instanceof Error error) throw error;
+            }
+        }));
+        return future;
+    }
+
+    // Lets a caller refuse a request before reading its body when the queue is already full
+    public boolean hasRoom(OcrClient client) {
+        if (queued.get() < capacity) return true;
+        rejected.incrementAndGet();
+        client.recordQueueFull();
+        return false;
+    }
+
+    private boolean admit(OcrClient client) {
+        if (queued.incrementAndGet() > capacity) {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            client.recordQueueFull();
+            return false;
+        }
+        return true;
+    }
+
+    // Runs work as an interactive job and waits for it; returns a queue_full response when refused
+    public OcrResponse runInteractive(Supplier<OcrResponse> work) {
+        return runInteractive(OcrClient.ANONYMOUS, work);
+    }
+
+    public OcrResponse runInteractive(OcrClient client, Supplier<OcrResponse> work) {
+        if (!admit(client)) {
+            OcrResponse response = new OcrResponse();
+            response.setStatus("queue_full");
+            return response;
+        }
+        OcrJob job = new OcrJob(UUID.randomUUID().toString(), OcrJob.Priority.INTERACTIVE);
+        Task task = enqueue(job, client, work);
+        try {
+            return job.getResult().get(waitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            OcrResponse response = new OcrResponse();
+            response.setStatus("timeout");
+            // Nobody is waiting any more: a job no worker has taken gives its slot back
+            if (executor.remove(task)) {
+                task.abandon();
+                job.complete(response);
+            }
+            return response;
+        } catch (InterruptedException | ExecutionException e) {
+            if (e instanceof InterruptedException) Thread.currentThread().interrupt();
+            OcrResponse response = new OcrResponse("Processing error occurred", 0);
+            response.setStatus("error");
+            return response;
+        } finally {
+            jobs.remove(job.getId());
+        }
+    }
+
+    public OcrJob get(String id) {
+        return jobs.get(id);
+    }
+
+    // Seconds until a worker is likely to be free for one more job
+    public long retryAfterSeconds() {
+        double waves = (double) queued.get() / workers + 1;
+        long seconds = (long) Math.ceil(waves * averageRunMs / 1000);
+        return Math.max(1, Math.min(60, seconds));
+    }
+
+    public long getWaitTimeoutMs() { return waitTimeoutMs; }
+    public int getQueued() { return queued.get(); }
+    public int getCapacity() { return capacity; }
+    public int getWorkers() { return workers; }
+    public long getRejected() { return rejected.get(); }
+    public long getAbandoned() { return abandoned.get(); }
+
+    void setWaitTimeoutMs(long waitTimeoutMs) { this.waitTimeoutMs = waitTimeoutMs; }
+
+    private void purgeFinished() {
+        long cutoff = System.currentTimeMillis() - resultTtlMs;
+        jobs.values().removeIf(job -> job.getCompletedAt() != 0 && job.getCompletedAt() < cutoff);
+        // Clients with nothing queued start from the virtual time again anyway
+        synchronized (fairLock) {
+            lastFinish.values().removeIf(finish -> finish <= virtualTime);
+        }
+    }
+
+    private final class Task implements Runnable, Comparable<Task> {
+        private final OcrJob.Priority priority;
+        private final OcrClient client;
+        private final long seq;
+        private final double expectedMs;
+        private final double startTag;
+        private final double finishTag;
+        private final Runnable body;
+
+        Task(OcrJob.Priority priority, OcrClient client, Runnable body) {
+            this.priority = priority;
+            this.client = client;
+            this.body = body;
+            expectedMs = averageRunMs;
+            synchronized (fairLock) {
+                seq = sequence.incrementAndGet();
+                startTag = Math.max(virtualTime, lastFinish.getOrDefault(client.getId(), 0.0));
+                finishTag = startTag + expectedMs / client.getWeight();
+                lastFinish.put(client.getId(), finishTag);
+            }
+        }
+
+        @Override
+        public void run() {
+            queued.decrementAndGet();
+            synchronized (fairLock) {
+                virtualTime = Math.max(virtualTime, startTag);
+            }
+            long start = System.nanoTime();
+            body.run();
+            long nanos = System.nanoTime() - start;
+            double runMs = nanos / 1e6;
+            averageRunMs = averageRunMs * 0.9 + runMs * 0.1;
+            client.recordJob(nanos);
+            // Charge what the job really cost, so heavy frames count for more than light ones
+            synchronized (fairLock) {
+                lastFinish.computeIfPresent(client.getId(), (id, f) -> f + (runMs - expectedMs) / client.getWeight());
+            }
+        }
+
+        // Taken off the queue before it ran: frees its slot and refunds the client's share
+        void abandon() {
+            queued.decrementAndGet();
+            abandoned.incrementAndGet();
+            synchronized (fairLock) {
+                lastFinish.computeIfPresent(client.getId(), (id, f) -> f - expectedMs / client.getWeight());
+            }
+        }
+
+        // Priority first, then fair share, then submission order
+        @Override
+        public int compareTo(Task other) {
+            int byPriority = priority.compareTo(other.priority);
+            if (byPriority != 0) return byPriority;
+            int byFinish = Double.compare(finishTag, other.finishTag);
+            return byFinish != 0 ? byFinish : Long.compare(seq, other.seq);
+        }
+    }
+}
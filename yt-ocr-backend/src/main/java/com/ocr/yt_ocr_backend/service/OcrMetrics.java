@@ -0,0 +1,46 @@
+package com.ocr.yt_ocr_backend.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+// Latency of each request stage as the ocr.stage timer (tag "stage"), with a histogram
+// so percentiles can be read from /actuator/metrics/ocr.stage or aggregated downstream
+@Component
+public class OcrMetrics {
+
+    public static final String DECODE = "decode";
+    public static final String CACHE_LOOKUP = "cache_lookup";
+    public static final String PREPROCESS = "preprocess";
+    public static final String DETECT_REGIONS = "detect_regions";
+    public static final String DETECT_SCRIPT = "detect_script";
+    public static final String ENGINE_WAIT = "engine_wait";
+    public static final String RECOGNIZE = "recognize";
+    public static final String CORRECTION = "correction";
+    public static final String TOTAL = "total";
+
+    private final MeterRegistry registry;
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+
+    public OcrMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    public StageTimings newTimings() {
+        return new StageTimings(this);
+    }
+
+    void record(String stage, long nanos) {
+        timers.computeIfAbsent(stage, s -> Timer.builder("ocr.stage")
+                .description("Time spent in one stage of an OCR request")
+                .tag("stage", s)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(registry))
+            .record(nanos, TimeUnit.NANOSECONDS);
+    }
+}
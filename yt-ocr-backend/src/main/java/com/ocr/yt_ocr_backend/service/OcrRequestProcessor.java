@@ -0,0 +1,337 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrBase64Request;
+import com.ocr.yt_ocr_backend.dto.OcrResponse;
+import com.ocr.yt_ocr_backend.util.Base64RequestReader;
+import com.ocr.yt_ocr_backend.util.ImageRejectedException;
+import com.ocr.yt_ocr_backend.util.ImageUtils;
+import jakarta.annotation.PostConstruct;
+import net.sourceforge.tess4j.TesseractException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+// Validates one OCR request and turns it into an OcrResponse; shared by the single and batch endpoints
+@Service
+public class OcrRequestProcessor {
+    private final OcrService ocrService;
+
+    @Value("${app.upload.max-size:5242880}")
+    private long maxFileSize;
+
+    // Checked against the image header, before the pixels are decoded
+    @Value("${app.upload.max-pixels:40000000}")
+    private long maxPixels;
+
+    // Request threads decoding base64 bodies at once; 0 = one per core
+    @Value("${ocr.decode.max-concurrent:0}")
+    private int maxConcurrentDecodes;
+
+    @Value("${ocr.decode.wait-ms:1000}")
+    private long decodeWaitMs = 1000;
+
+    // Who may name a frame for GET /frames: "keyed" (clients with an API key) or "anyone"
+    @Value("${ocr.store.frame-writers:keyed}")
+    private String frameWriters = "keyed";
+
+    private Semaphore decodePermits;
+
+    private final List<String> allowedContentTypes = Arrays.asList(
+        "image/jpeg", "image/jpg", "image/png", "image/gif", "image/bmp", "image/webp"
+    );
+
+    private final OcrMetrics metrics;
+    private final LanguageRegistry languages;
+    private final OcrResultStore resultStore;
+    private final OcrResultHistory history;
+
+    public OcrRequestProcessor(OcrService ocrService, OcrMetrics metrics, LanguageRegistry languages,
+                               OcrResultStore resultStore, OcrResultHistory history) {
+        this.ocrService = ocrService;
+        this.metrics = metrics;
+        this.languages = languages;
+        this.resultStore = resultStore;
+        this.history = history;
+    }
+
+    @PostConstruct
+    void init() {
+        decodePermits = new Semaphore(maxConcurrentDecodes > 0
+            ? maxConcurrentDecodes : Runtime.getRuntime().availableProcessors());
+    }
+
+    private boolean isValidImageFile(MultipartFile file) {
+        String contentType = file.getContentType();
+        return contentType != null && allowedContentTypes.contains(contentType.toLowerCase());
+    }
+
+    static String sanitizeInput(String input) {
+        if (input == null) return "eng";
+        return input.replaceAll("[^a-zA-Z]", "");
+    }
+
+    public static boolean isSuccessful(OcrResponse response) {
+        return "success".equals(response.getStatus()) || "no_text_detected".equals(response.getStatus());
+    }
+
+    public OcrResponse processFile(MultipartFile file, String language, String mode) {
+        return processFile(file, language, mode, false, OcrService.Detail.TEXT);
+    }
+
+    public OcrResponse processFile(MultipartFile file, String language, String mode, boolean includeStages,
+                                   OcrService.Detail detail) {
+        return processFile(file, language, mode, includeStages, detail, null);
+    }
+
+    public OcrResponse processFile(MultipartFile file, String language, String mode, boolean includeStages,
+                                   OcrService.Detail detail, String since) {
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+
+        try {
+            if (file.isEmpty()) {
+                OcrResponse response = new OcrResponse();
+                response.setStatus("file_empty");
+                return response;
+            }
+
+            if (file.getSize() > maxFileSize) {
+                OcrResponse response = new OcrResponse();
+                response.setStatus("file_too_large");
+                return response;
+            }
+
+            if (!isValidImageFile(file)) {
+                OcrResponse response = new OcrResponse();
+                response.setStatus("invalid_format");
+                return response;
+            }
+
+            String resolvedLanguage = languages.resolve(language);
+            if (resolvedLanguage == null) {
+                return rejected("unsupported_language");
+            }
+
+            StageTimings timings = metrics.newTimings();
+            long t = System.nanoTime();
+            BufferedImage image;
+            try (InputStream in = file.getInputStream()) {
+                image = ImageUtils.readImage(in, maxPixels);
+            }
+            timings.record(OcrMetrics.DECODE, t);
+
+            String sanitizedMode = sanitizeInput(mode);
+            OcrResult result = ocrService.doOcr(image, resolvedLanguage, sanitizedMode, timings, detail);
+            return success(result, timings, includeStages, startTime, startNanos, since);
+
+        } catch (ImageRejectedException re) {
+            return rejected(re.getStatus());
+        } catch (IOException ioe) {
+            return rejected("invalid_format");
+        } catch (TesseractException te) {
+            return failure("OCR processing failed", "ocr_failed", startTime);
+        } catch (Exception e) {
+            return failure("Processing error occurred", "error", startTime);
+        }
+    }
+
+    public OcrResponse processBase64(OcrBase64Request req) {
+        return processBase64(req, OcrClient.ANONYMOUS);
+    }
+
+    public OcrResponse processBase64(OcrBase64Request req, OcrClient client) {
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+
+        try {
+            if (req == null || req.getImageBase64() == null || req.getImageBase64().trim().isEmpty()) {
+                OcrResponse response = new OcrResponse();
+                response.setStatus("invalid_base64");
+                return response;
+            }
+
+            if (req.getImageBase64().length() > maxFileSize * 2) {
+                OcrResponse response = new OcrResponse();
+                response.setStatus("file_too_large");
+                return response;
+            }
+
+            String resolvedLanguage = languages.resolve(req.getLanguage());
+            if (resolvedLanguage == null) {
+                return rejected("unsupported_language");
+            }
+
+            StageTimings timings = metrics.newTimings();
+            long t = System.nanoTime();
+            byte[] imageBytes = ImageUtils.decodeBase64(req.getImageBase64());
+
+            if (imageBytes.length > maxFileSize) {
+                OcrResponse response = new OcrResponse();
+                response.setStatus("file_too_large");
+                return response;
+            }
+
+            BufferedImage image = ImageUtils.readImage(new ByteArrayInputStream(imageBytes), maxPixels);
+            timings.record(OcrMetrics.DECODE, t);
+
+            String sanitizedMode = sanitizeInput(req.getMode());
+            OcrService.Detail detail = new OcrService.Detail(req.isIncludeBoxes(), req.getMinConfidence());
+            OcrResult result = doOcr(image, resolvedLanguage, sanitizedMode, timings, detail,
+                req.getVideoId(), req.getVideoTimeMs(), client);
+            return success(result, timings, req.isIncludeStages(), startTime, startNanos, req.getSince());
+
+        } catch (ImageRejectedException re) {
+            return rejected(re.getStatus());
+        } catch (TesseractException te) {
+            return failure("OCR processing failed", "ocr_failed", startTime);
+        } catch (Exception e) {
+            return failure("Processing error occurred", "error", startTime);
+        }
+    }
+
+    // A base64 request read off the wire: either the decoded image or the status it was refused with
+    public record Base64Upload(Base64RequestReader.Parsed request, String rejectedStatus,
+                               StageTimings timings, long startTime, long startNanos) {}
+
+    // Runs on the request thread so the body is decoded while it streams in; the
+    // upload is then OCRed with processBase64(Base64Upload) on a worker. Decodes are
+    // bounded like OCR is: past ocr.decode.max-concurrent, a request waits briefly and
+    // is then refused with queue_full, so a flood of uploads cannot hold every request
+    // thread and a decoded image each
+    public Base64Upload readBase64(InputStream body, long contentLength) {
+        long startTime = System.currentTimeMillis();
+        long startNanos = System.nanoTime();
+        StageTimings timings = metrics.newTimings();
+
+        String status;
+        if (contentLength > maxFileSize * 2) {
+            status = "file_too_large";
+        } else if (!acquireDecode()) {
+            status = "queue_full";
+        } else {
+            try {
+                Base64RequestReader.Parsed request = Base64RequestReader.read(body, maxFileSize, maxPixels,
+                    languages::resolve);
+                timings.record(OcrMetrics.DECODE, startNanos);
+                return new Base64Upload(request, null, timings, startTime, startNanos);
+            } catch (ImageRejectedException e) {
+                status = e.getStatus();
+            } catch (IOException e) {
+                status = "invalid_request";
+            } finally {
+                decodePermits.release();
+            }
+        }
+        return new Base64Upload(null, status, timings, startTime, startNanos);
+    }
+
+    private boolean acquireDecode() {
+        try {
+            return decodePermits.tryAcquire(decodeWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    public OcrResponse processBase64(Base64Upload upload, OcrClient client) {
+        if (upload.rejectedStatus() != null) {
+            return rejected(upload.rejectedStatus());
+        }
+
+        // The language was resolved while the body was read
+        Base64RequestReader.Parsed req = upload.request();
+        try {
+            OcrService.Detail detail = new OcrService.Detail(req.includeBoxes(), req.minConfidence());
+            OcrResult result = doOcr(req.image(), req.language(), sanitizeInput(req.mode()),
+                upload.timings(), detail, req.videoId(), req.videoTimeMs(), client);
+            return success(result, upload.timings(), req.includeStages(), upload.startTime(), upload.startNanos(),
+                req.since());
+        } catch (TesseractException te) {
+            return failure("OCR processing failed", "ocr_failed", upload.startTime());
+        } catch (Exception e) {
+            return failure("Processing error occurred", "error", upload.startTime());
+        }
+    }
+
+    // The result of a frame the extension names by video and timestamp is also stored under
+    // that frame, so GET /frames can answer later requests without an upload. The upload
+    // itself is only answered from the store by its pixels (OcrService), never by the name.
+    // The first writer of a frame wins, so a later upload can't replace what others are served
+    private OcrResult doOcr(BufferedImage image, String language, String mode, StageTimings timings,
+                            OcrService.Detail detail, String videoId, Long videoTimeMs,
+                            OcrClient client) throws TesseractException {
+        OcrResult result = ocrService.doOcr(image, language, mode, timings, detail);
+        if (resultStore.isEnabled() && videoId != null && !videoId.isBlank() && videoTimeMs != null
+                && detail.equals(OcrService.Detail.TEXT) && mayNameFrames(client)) {
+            OcrResultStore.Key frameKey = resultStore.frameKey(videoId, videoTimeMs,
+                image.getWidth(), image.getHeight(), language, mode);
+            if (!resultStore.contains(frameKey)) {
+                resultStore.put(frameKey, result.getRows(), result.getDetectedLanguage());
+            }
+        }
+        return result;
+    }
+
+    private boolean mayNameFrames(OcrClient client) {
+        return "anyone".equalsIgnoreCase(frameWriters) || (client != null && client.isKeyed());
+    }
+
+    // Lets the extension ask for a stored frame before capturing and uploading it
+    public OcrResponse lookupFrame(String videoId, long videoTimeMs, int width, int height,
+                                   String language, String mode) {
+        long startTime = System.currentTimeMillis();
+        String resolvedLanguage = languages.resolve(language);
+        if (resolvedLanguage == null) {
+            return rejected("unsupported_language");
+        }
+        OcrResultCache.Hit hit = resultStore.isEnabled()
+            ? resultStore.lookup(resultStore.frameKey(videoId, videoTimeMs, width, height,
+                resolvedLanguage, sanitizeInput(mode)))
+            : null;
+        if (hit == null) {
+            return rejected("not_found");
+        }
+        OcrResponse response = new OcrResponse(hit.rows(), System.currentTimeMillis() - startTime);
+        response.setCached(true);
+        response.setDetectedLanguage(hit.detectedLanguage());
+        return response;
+    }
+
+    private static OcrResponse rejected(String status) {
+        OcrResponse response = new OcrResponse();
+        response.setStatus(status);
+        return response;
+    }
+
+    private OcrResponse success(OcrResult result, StageTimings timings, boolean includeStages,
+                                long startTime, long startNanos, String since) {
+        timings.record(OcrMetrics.TOTAL, startNanos);
+        long processingTime = System.currentTimeMillis() - startTime;
+        OcrResponse response = new OcrResponse(result.getRows(), processingTime);
+        response.setCached(result.isCached());
+        response.setScaleFactor(result.getScaleFactor());
+        response.setDetectedLanguage(result.getDetectedLanguage());
+        if (includeStages) {
+            response.setStagesMs(timings.toMillis());
+        }
+        history.apply(response, since);
+        return response;
+    }
+
+    private OcrResponse failure(String message, String status, long startTime) {
+        long processingTime = System.currentTimeMillis() - startTime;
+        OcrResponse response = new OcrResponse(message, processingTime);
+        response.setStatus(status);
+        return response;
+    }
+}
@@ -0,0 +1,33 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+
+import java.util.List;
+
+public class OcrResult {
+    private final List<TextRow> rows;
+    private final boolean cached;
+    // null for cache hits, which skip preprocessing
+    private final Double scaleFactor;
+    // Language picked for language=auto; null otherwise
+    private final String detectedLanguage;
+
+    public OcrResult(List<TextRow> rows, boolean cached, Double scaleFactor) {
+        this(rows, cached, scaleFactor, null);
+    }
+
+    public OcrResult(List<TextRow> rows, boolean cached, Double scaleFactor, String detectedLanguage) {
+        this.rows = rows;
+        this.cached = cached;
+        this.scaleFactor = scaleFactor;
+        this.detectedLanguage = detectedLanguage;
+    }
+
+    public List<TextRow> getRows() { return rows; }
+
+    public boolean isCached() { return cached; }
+
+    public Double getScaleFactor() { return scaleFactor; }
+
+    public String getDetectedLanguage() { return detectedLanguage; }
+}
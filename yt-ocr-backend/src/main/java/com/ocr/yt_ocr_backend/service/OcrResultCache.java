@@ -0,0 +1,187 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.image.BufferedImage;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Bounded LRU of OCR results keyed by the decoded pixels plus language and mode.
+// With the perceptual option, frames that only differ by compression noise also hit.
+@Component
+public class OcrResultCache {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMs;
+    private final boolean perceptual;
+    private final int perceptualMaxDistance;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong perceptualHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    public OcrResultCache(@Value("${ocr.cache.enabled:true}") boolean enabled,
+                          @Value("${ocr.cache.max-entries:512}") int maxEntries,
+                          @Value("${ocr.cache.ttl-ms:600000}") long ttlMs,
+                          @Value("${ocr.cache.perceptual:false}") boolean perceptual,
+                          @Value("${ocr.cache.perceptual-max-distance:4}") int perceptualMaxDistance) {
+        this.enabled = enabled && maxEntries > 0;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+        this.perceptual = perceptual;
+        this.perceptualMaxDistance = perceptualMaxDistance;
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    // Fingerprint the image once; the same fingerprint is used for lookup and store
+    public Fingerprint fingerprint(BufferedImage img) {
+        return new Fingerprint(img.getWidth(), img.getHeight(), pixelHash(img),
+            perceptual ? differenceHash(img) : 0L);
+    }
+
+    public List<TextRow> get(Fingerprint fp, String language, String mode) {
+        Hit hit = lookup(fp, language, mode);
+        return hit == null ? null : hit.rows();
+    }
+
+    public Hit lookup(Fingerprint fp, String language, String mode) {
+        if (!enabled) return null;
+        long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            Key key = new Key(language, mode, fp.width(), fp.height(), fp.pixelHash());
+            Entry entry = entries.get(key);
+            if (entry != null && !isExpired(entry, now)) {
+                hits.incrementAndGet();
+                return entry.hit();
+            }
+            if (entry != null) {
+                entries.remove(key);
+                evictions.incrementAndGet();
+            }
+
+            if (perceptual) {
+                for (Map.Entry<Key, Entry> e : entries.entrySet()) {
+                    Key k = e.getKey();
+                    if (k.width() == fp.width() && k.height() == fp.height()
+                            && k.language().equals(language) && k.mode().equals(mode)
+                            && !isExpired(e.getValue(), now)
+                            && Long.bitCount(e.getValue().dHash() ^ fp.dHash()) <= perceptualMaxDistance) {
+                        perceptualHits.incrementAndGet();
+                        return e.getValue().hit();
+                    }
+                }
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    public void put(Fingerprint fp, String language, String mode, List<TextRow> rows) {
+        put(fp, language, mode, rows, null);
+    }
+
+    // detectedLanguage is what language=auto resolved to, so hits can report it too
+    public void put(Fingerprint fp, String language, String mode, List<TextRow> rows, String detectedLanguage) {
+        if (!enabled) return;
+        long now = System.currentTimeMillis();
+
+        synchronized (entries) {
+            entries.put(new Key(language, mode, fp.width(), fp.height(), fp.pixelHash()), new Entry(new Hit(List.copyOf(rows), detectedLanguage), fp.dHash(), now));
+
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext() && entries.size() > maxEntries) {
+                it.next();
+                it.remove();
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    public int size() {
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public long getHits() { return hits.get(); }
+    public long getPerceptualHits() { return perceptualHits.get(); }
+    public long getMisses() { return misses.get(); }
+    public long getEvictions() { return evictions.get(); }
+
+    private boolean isExpired(Entry entry, long now) {
+        return ttlMs > 0 && now - entry.createdAt() > ttlMs;
+    }
+
+    // 64-bit hash over every pixel, row by row to avoid a full-size int[] copy
+    static long pixelHash(BufferedImage img) {
+        int w = img.getWidth();
+        int h = img.getHeight();
+        int[] row = new int[w];
+        long hash = 0xcbf29ce484222325L;
+        for (int y = 0; y < h; y++) {
+            img.getRGB(0, y, w, 1, row, 0, w);
+            for (int x = 0; x < w; x++) {
+                hash ^= row[x];
+                hash *= 0x100000001b3L;
+            }
+        }
+        return hash ^ (hash >>> 29);
+    }
+
+    // dHash: 9x8 block-averaged luma, one bit per horizontal neighbour comparison
+    static long differenceHash(BufferedImage img) {
+        int w = img.getWidth();
+        int h = img.getHeight();
+        long[] sums = new long[72];
+        int[] counts = new int[72];
+        int[] row = new int[w];
+
+        for (int y = 0; y < h; y++) {
+            int cy = Math.min(7, y * 8 / h);
+            img.getRGB(0, y, w, 1, row, 0, w);
+            for (int x = 0; x < w; x++) {
+                int cx = Math.min(8, x * 9 / w);
+                int rgb = row[x];
+                int luma = (((rgb >> 16) & 0xff) * 77 + ((rgb >> 8) & 0xff) * 150 + (rgb & 0xff) * 29) >> 8;
+                sums[cy * 9 + cx] += luma;
+                counts[cy * 9 + cx]++;
+            }
+        }
+
+        long bits = 0;
+        for (int cy = 0; cy < 8; cy++) {
+            for (int cx = 0; cx < 8; cx++) {
+                int a = cy * 9 + cx;
+                long left = counts[a] == 0 ? 0 : sums[a] / counts[a];
+                long right = counts[a + 1] == 0 ? 0 : sums[a + 1] / counts[a + 1];
+                bits = (bits << 1) | (left > right ? 1 : 0);
+            }
+        }
+        return bits;
+    }
+
+    public record Fingerprint(int width, int height, long pixelHash, long dHash) {}
+
+    private record Key(String language, String mode, int width, int height, long pixelHash) {}
+
+    public record Hit(List<TextRow> rows, String detectedLanguage) {}
+
+    private record Entry(Hit hit, long dHash, long createdAt) {}
+}
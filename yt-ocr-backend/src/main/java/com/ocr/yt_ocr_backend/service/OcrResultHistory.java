@@ -0,0 +1,100 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse;
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+// Recent responses by result_id, so a client that repeats a capture can send "since" with
+// the id it got last time and receive only the rows that changed (LineDiff on content).
+// Bounded LRU with a TTL, like the result cache; an unknown id just gets the full result.
+@Component
+public class OcrResultHistory {
+
+    private final boolean enabled;
+    private final int maxEntries;
+    private final long ttlMs;
+
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    private final AtomicLong deltas = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    private record Entry(List<TextRow> rows, long createdAt) {}
+
+    public OcrResultHistory(@Value("${ocr.delta.enabled:true}") boolean enabled,
+                            @Value("${ocr.delta.max-entries:4096}") int maxEntries,
+                            @Value("${ocr.delta.ttl-ms:600000}") long ttlMs) {
+        this.enabled = enabled && maxEntries > 0;
+        this.maxEntries = maxEntries;
+        this.ttlMs = ttlMs;
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    // Gives a successful response its result_id and, when since names a remembered
+    // result, cuts its rows down to the changes
+    public void apply(OcrResponse response, String since) {
+        if (!enabled) return;
+        List<TextRow> rows = response.getRows();
+        response.setResultId(remember(rows));
+
+        if (since == null || since.isBlank()) return;
+        List<TextRow> base = get(since);
+        if (base == null) {
+            misses.incrementAndGet();
+            return;
+        }
+        deltas.incrementAndGet();
+        LineDiff.Result diff = LineDiff.diff(base, rows);
+        List<Integer> removedLines = new ArrayList<>(diff.removed().size());
+        for (TextRow row : diff.removed()) removedLines.add(row.getLineNo());
+        response.setRows(diff.added());
+        response.setRemovedLines(removedLines);
+        response.setBaseResultId(since);
+    }
+
+    String remember(List<TextRow> rows) {
+        String id = UUID.randomUUID().toString();
+        synchronized (entries) {
+            entries.put(id, new Entry(rows, System.currentTimeMillis()));
+            Iterator<Entry> it = entries.values().iterator();
+            while (it.hasNext() && entries.size() > maxEntries) {
+                it.next();
+                it.remove();
+            }
+        }
+        return id;
+    }
+
+    List<TextRow> get(String id) {
+        synchronized (entries) {
+            Entry entry = entries.get(id);
+            if (entry == null) return null;
+            if (System.currentTimeMillis() - entry.createdAt() > ttlMs) {
+                entries.remove(id);
+                return null;
+            }
+            return entry.rows();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        synchronized (entries) {
+            stats.put("size", entries.size());
+        }
+        stats.put("deltas", deltas.get());
+        stats.put("unknown_since", misses.get());
+        return stats;
+    }
+}
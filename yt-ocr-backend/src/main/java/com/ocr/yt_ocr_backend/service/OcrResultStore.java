@@ -0,0 +1,435 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.CRC32;
+
+// Second-level result cache that survives restarts: an append-only file of max-bytes,
+// memory-mapped whole, with the index of key -> offset kept on the heap and rebuilt by
+// scanning the file at startup. Lookups are a hash probe plus a copy out of the mapping.
+// When the file is full it is compacted: the most recently used results are rewritten
+// into the next generation's file up to half the size, and superseded or cold ones are
+// dropped. A mapped file cannot be replaced or deleted on Windows and Java cannot unmap
+// it, so the old generation is left to the GC and deleted once it is no longer mapped;
+// at startup the newest generation wins.
+//
+// Keys are a SHA-256 prefix over what decides the result: the image (or the video id,
+// timestamp and capture size the extension sent), language, mode and the engine settings,
+// so a settings change or a bump of ocr.store.generation starts from an empty key space.
+// Uploads are only ever answered by image key; frame keys just serve GET /frames.
+@Component
+public class OcrResultStore {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrResultStore.class);
+
+    private static final int MAGIC = 0x4f435253; // "OCRS"
+    private static final int VERSION = 2;
+    private static final int HEADER_SIZE = 32;
+    private static final int WRITE_POS_OFFSET = 8;
+    // length, key (two longs), payload, crc
+    private static final int PAYLOAD_OFFSET = 4 + 16;
+    private static final int RECORD_OVERHEAD = PAYLOAD_OFFSET + 4;
+    private static final String DATA_PREFIX = "results-";
+    private static final String DATA_SUFFIX = ".dat";
+
+    @Value("${ocr.store.enabled:false}")
+    private boolean enabled;
+
+    @Value("${ocr.store.path:${user.dir}/ocr-store}")
+    private Path directory;
+
+    @Value("${ocr.store.max-bytes:268435456}")
+    private long maxBytes;
+
+    private String configSignature;
+
+    private final Map<Key, Slot> index = new HashMap<>();
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private FileChannel lockChannel;
+    private FileLock fileLock;
+    private MappedByteBuffer data;
+    private long generation;
+    private int writePos;
+    private long clock;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong compactions = new AtomicLong();
+
+    @Autowired
+    public OcrResultStore(@Value("${ocr.psm:6}") String psm,
+                          @Value("${ocr.oem:1}") String oem,
+                          @Value("${ocr.char-whitelist:}") String charWhitelist,
+                          @Value("${ocr.store.generation:1}") String generation) {
+        this.configSignature = String.join("|", psm, oem, charWhitelist, generation);
+    }
+
+    // For callers outside Spring, e.g. tests
+    OcrResultStore(Path directory, long maxBytes, String configSignature) throws IOException {
+        this.enabled = true;
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.configSignature = configSignature;
+        open();
+    }
+
+    @PostConstruct
+    void open() throws IOException {
+        if (!enabled) return;
+        // The mapping is addressed with ints
+        maxBytes = Math.max(HEADER_SIZE + 4096, Math.min(maxBytes, Integer.MAX_VALUE - 8));
+        Files.createDirectories(directory);
+
+        // Another process (e.g. a second instance on the same directory) would corrupt the file
+        lockChannel = FileChannel.open(directory.resolve("results.lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        fileLock = lockChannel.tryLock();
+        if (fileLock == null) {
+            log.warn("OCR result store {} is in use by another process; running without it", directory);
+            lockChannel.close();
+            enabled = false;
+            return;
+        }
+
+        generation = latestGeneration();
+        data = map(dataFile(generation));
+        if (data.getInt(0) != MAGIC || data.getInt(4) != VERSION) {
+            writeHeader(data, HEADER_SIZE);
+        }
+        writePos = scan();
+        deleteOldGenerations();
+        log.info("OCR result store {}: {} results, {} of {} bytes used", directory, index.size(), writePos, maxBytes);
+    }
+
+    @PreDestroy
+    void close() throws IOException {
+        if (!enabled) return;
+        lock.writeLock().lock();
+        try {
+            data.force();
+            fileLock.release();
+            lockChannel.close();
+            enabled = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public boolean isEnabled() { return enabled; }
+
+    // Key of an image's pixels, from the L1 fingerprint
+    public Key imageKey(OcrResultCache.Fingerprint fp, String language, String mode) {
+        return key("image", fp.width() + "x" + fp.height() + ":" + Long.toHexString(fp.pixelHash()), language, mode);
+    }
+
+    // Key of a video frame captured at width x height, for repeat requests of the same tutorial
+    public Key frameKey(String videoId, long videoTimeMs, int width, int height, String language, String mode) {
+        return key("frame", videoId + "@" + videoTimeMs + ":" + width + "x" + height, language, mode);
+    }
+
+    public boolean contains(Key key) {
+        if (!enabled) return false;
+        synchronized (index) {
+            return index.containsKey(key);
+        }
+    }
+
+    public List<TextRow> get(Key key) {
+        OcrResultCache.Hit hit = lookup(key);
+        return hit == null ? null : hit.rows();
+    }
+
+    public OcrResultCache.Hit lookup(Key key) {
+        if (!enabled) return null;
+        lock.readLock().lock();
+        try {
+            Slot slot;
+            synchronized (index) {
+                slot = index.get(key);
+                if (slot != null) slot.lastUsed = ++clock;
+            }
+            if (slot == null) {
+                misses.incrementAndGet();
+                return null;
+            }
+            byte[] payload = new byte[slot.length];
+            data.get(slot.offset + PAYLOAD_OFFSET, payload);
+            hits.incrementAndGet();
+            return decode(payload);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public void put(Key key, List<TextRow> rows) {
+        put(key, rows, null);
+    }
+
+    public void put(Key key, List<TextRow> rows, String detectedLanguage) {
+        if (!enabled) return;
+        byte[] payload = encode(rows, detectedLanguage);
+        int size = RECORD_OVERHEAD + payload.length;
+        // A result that would not fit after compaction is not worth keeping
+        if (size > (maxBytes - HEADER_SIZE) / 2) return;
+
+        lock.writeLock().lock();
+        try {
+            if (!enabled) return;
+            if (writePos + size > maxBytes) compact();
+            writeRecord(data, writePos, key, payload);
+            synchronized (index) {
+                index.put(key, new Slot(writePos, payload.length, ++clock));
+            }
+            writePos += size;
+            data.putLong(WRITE_POS_OFFSET, writePos);
+        } catch (IOException e) {
+            log.warn("OCR result store compaction failed, disabling it: {}", e.getMessage());
+            enabled = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("enabled", enabled);
+        synchronized (index) {
+            stats.put("size", index.size());
+        }
+        stats.put("bytes_used", enabled ? writePos : 0);
+        stats.put("max_bytes", maxBytes);
+        stats.put("hits", hits.get());
+        stats.put("misses", misses.get());
+        stats.put("compactions", compactions.get());
+        return stats;
+    }
+
+    private Key key(String kind, String subject, String language, String mode) {
+        try {
+            MessageDigest sha = MessageDigest.getInstance("SHA-256");
+            String material = String.join("\n", kind, subject, language, mode, configSignature);
+            ByteBuffer digest = ByteBuffer.wrap(sha.digest(material.getBytes(StandardCharsets.UTF_8)));
+            return new Key(digest.getLong(), digest.getLong());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    Path dataFile() {
+        return dataFile(generation);
+    }
+
+    private Path dataFile(long generation) {
+        return directory.resolve(DATA_PREFIX + generation + DATA_SUFFIX);
+    }
+
+    // -1 when the name is not a data file
+    private static long generationOf(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(DATA_PREFIX) || !name.endsWith(DATA_SUFFIX)) return -1;
+        try {
+            return Long.parseLong(name.substring(DATA_PREFIX.length(), name.length() - DATA_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private long latestGeneration() throws IOException {
+        long latest = 0;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, DATA_PREFIX + "*" + DATA_SUFFIX)) {
+            for (Path file : files) latest = Math.max(latest, generationOf(file));
+        }
+        return latest;
+    }
+
+    // Best effort: a file still mapped (Windows) stays until the next start
+    private void deleteOldGenerations() {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, DATA_PREFIX + "*" + DATA_SUFFIX)) {
+            for (Path file : files) {
+                long g = generationOf(file);
+                if (g >= 0 && g < generation) {
+                    try {
+                        Files.deleteIfExists(file);
+                    } catch (IOException e) {
+                        log.debug("OCR result store: cannot delete {} yet: {}", file, e.getMessage());
+                    }
+                }
+            }
+        } catch (IOException e) {
+            log.debug("OCR result store: cannot list {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private MappedByteBuffer map(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, maxBytes);
+        }
+    }
+
+    private static void writeHeader(MappedByteBuffer buf, int writePos) {
+        buf.putInt(0, MAGIC);
+        buf.putInt(4, VERSION);
+        buf.putLong(WRITE_POS_OFFSET, writePos);
+    }
+
+    private static void writeRecord(MappedByteBuffer buf, int pos, Key key, byte[] payload) {
+        buf.putInt(pos, payload.length);
+        buf.putLong(pos + 4, key.hi());
+        buf.putLong(pos + 12, key.lo());
+        buf.put(pos + PAYLOAD_OFFSET, payload);
+        buf.putInt(pos + PAYLOAD_OFFSET + payload.length, crc(key, payload));
+    }
+
+    // Rebuilds the index; a record torn by a crash ends the file there
+    private int scan() {
+        long end = Math.min(data.getLong(WRITE_POS_OFFSET), maxBytes);
+        int pos = HEADER_SIZE;
+        while (pos + RECORD_OVERHEAD <= end) {
+            int length = data.getInt(pos);
+            if (length < 0 || pos + RECORD_OVERHEAD + (long) length > end) break;
+            Key key = new Key(data.getLong(pos + 4), data.getLong(pos + 12));
+            byte[] payload = new byte[length];
+            data.get(pos + PAYLOAD_OFFSET, payload);
+            if (data.getInt(pos + PAYLOAD_OFFSET + length) != crc(key, payload)) break;
+            index.put(key, new Slot(pos, length, ++clock));
+            pos += RECORD_OVERHEAD + length;
+        }
+        if (pos != end) {
+            log.warn("OCR result store: dropping {} bytes after offset {}", end - pos, pos);
+            data.putLong(WRITE_POS_OFFSET, pos);
+        }
+        return pos;
+    }
+
+    // Caller holds the write lock
+    private void compact() throws IOException {
+        List<Map.Entry<Key, Slot>> live;
+        synchronized (index) {
+            live = new ArrayList<>(index.entrySet());
+        }
+        live.sort(Comparator.comparingLong((Map.Entry<Key, Slot> e) -> e.getValue().lastUsed).reversed());
+
+        // A torn file from a compaction that crashed is simply overwritten
+        Path target = dataFile(generation + 1);
+        Files.deleteIfExists(target);
+        MappedByteBuffer next = map(target);
+        long budget = HEADER_SIZE + (maxBytes - HEADER_SIZE) / 2;
+        Map<Key, Slot> kept = new HashMap<>();
+        int pos = HEADER_SIZE;
+        for (Map.Entry<Key, Slot> e : live) {
+            Slot slot = e.getValue();
+            int size = RECORD_OVERHEAD + slot.length;
+            if (pos + size > budget) break;
+            byte[] payload = new byte[slot.length];
+            data.get(slot.offset + PAYLOAD_OFFSET, payload);
+            writeRecord(next, pos, e.getKey(), payload);
+            kept.put(e.getKey(), new Slot(pos, slot.length, slot.lastUsed));
+            pos += size;
+        }
+        writeHeader(next, pos);
+        next.force();
+
+        data = next;
+        generation++;
+        writePos = pos;
+        deleteOldGenerations();
+        synchronized (index) {
+            index.clear();
+            index.putAll(kept);
+        }
+        compactions.incrementAndGet();
+        log.info("OCR result store compacted: kept {} of {} results", kept.size(), live.size());
+    }
+
+    private static int crc(Key key, byte[] payload) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(16).putLong(key.hi()).putLong(key.lo()).flip());
+        crc.update(payload);
+        return (int) crc.getValue();
+    }
+
+    // row count, then line number, length and UTF-8 text per row, then the detected
+    // language's length (-1 for none) and UTF-8 text
+    static byte[] encode(List<TextRow> rows, String detectedLanguage) {
+        List<byte[]> texts = new ArrayList<>(rows.size());
+        byte[] language = detectedLanguage == null ? null : detectedLanguage.getBytes(StandardCharsets.UTF_8);
+        int size = 4 + 4 + (language == null ? 0 : language.length);
+        for (TextRow row : rows) {
+            byte[] text = row.getContent() == null ? new byte[0] : row.getContent().getBytes(StandardCharsets.UTF_8);
+            texts.add(text);
+            size += 8 + text.length;
+        }
+        ByteBuffer buf = ByteBuffer.allocate(size);
+        buf.putInt(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            buf.putInt(rows.get(i).getLineNo());
+            buf.putInt(texts.get(i).length);
+            buf.put(texts.get(i));
+        }
+        buf.putInt(language == null ? -1 : language.length);
+        if (language != null) buf.put(language);
+        return buf.array();
+    }
+
+    static OcrResultCache.Hit decode(byte[] payload) {
+        ByteBuffer buf = ByteBuffer.wrap(payload);
+        int count = buf.getInt();
+        List<TextRow> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            int lineNo = buf.getInt();
+            byte[] text = new byte[buf.getInt()];
+            buf.get(text);
+            rows.add(new TextRow(lineNo, new String(text, StandardCharsets.UTF_8)));
+        }
+        int length = buf.getInt();
+        String language = null;
+        if (length >= 0) {
+            byte[] bytes = new byte[length];
+            buf.get(bytes);
+            language = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return new OcrResultCache.Hit(rows, language);
+    }
+
+    public record Key(long hi, long lo) {}
+
+    private static final class Slot {
+        final int offset;
+        final int length;
+        long lastUsed;
+
+        Slot(int offset, int length, long lastUsed) {
+            this.offset = offset;
+            this.length = length;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
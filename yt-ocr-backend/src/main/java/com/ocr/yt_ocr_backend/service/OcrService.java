@@ -1,211 +1,370 @@
 package com.ocr.yt_ocr_backend.service;
 
-import net.sourceforge.tess4j.ITesseract;
-import net.sourceforge.tess4j.Tesseract;
+import com.ocr.yt_ocr_backend.dto.OcrResponse;
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import com.ocr.yt_ocr_backend.util.VirtualThreads;
+import com.ocr.yt_ocr_backend.worker.OcrWorkerPool;
 import net.sourceforge.tess4j.TesseractException;
-import org.springframework.beans.factory.annotation.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
 
-import javax.imageio.ImageIO;
-import java.awt.*;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
-import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
 
 @Service
 public class OcrService {
 
-    @Value("${ocr.tessdata-path}")
-    private String tessdatapath;
-
-    @Value("${ocr.lang:eng}")
-    private String lang;
-
-    @Value("${ocr.psm:6}")
-    private String psm;
-
-    @Value("${ocr.oem:1}")
-    private String oem;
-
-    @Value("${ocr.char-whitelist:}")
-    private String charWhitelist;
-
-    private ITesseract tesseractEngine;
-    private String currentLanguage;
-
-    private ITesseract newEngine(String language, String mode) {
-        Tesseract tesseract = new Tesseract();
-
-        String resolvePath = tessdatapath.startsWith("./") || tessdatapath.equals("tessdata") 
-            ? System.getProperty("user.dir") + "/tessdata" 
-            : tessdatapath;
-        tesseract.setDatapath(resolvePath);
-        tesseract.setLanguage(language);
-
-        // Optimize for code recognition
-        if ("code".equals(mode)) {
-            tesseract.setPageSegMode(6); // Uniform block of text
-            tesseract.setOcrEngineMode(1); // LSTM only for better accuracy
-            
-            // Code-specific settings
-            tesseract.setVariable("tessedit_char_blacklist", ""); // Allow all characters
-            tesseract.setVariable("preserve_interword_spaces", "1");
-            tesseract.setVariable("tessedit_enable_dict_correction", "0"); // Disable dictionary for code
-            tesseract.setVariable("tessedit_enable_bigram_correction", "0");
-            tesseract.setVariable("load_system_dawg", "0"); // Disable word lists
-            tesseract.setVariable("load_freq_dawg", "0");
-            tesseract.setVariable("load_punc_dawg", "0");
-            tesseract.setVariable("load_number_dawg", "0");
-            tesseract.setVariable("load_unambig_dawg", "0");
-            tesseract.setVariable("load_bigram_dawg", "0");
-            tesseract.setVariable("load_fixed_length_dawgs", "0");
-        } else {
-            tesseract.setPageSegMode(Integer.parseInt(psm));
-            tesseract.setOcrEngineMode(Integer.parseInt(oem));
-        }
+    private static final Logger log = LoggerFactory.getLogger(OcrService.class);
 
-        tesseract.setVariable("tessedit_create_hocr", "0");
-        tesseract.setVariable("tessedit_create_pdf", "0");
-        tesseract.setVariable("tessedit_create_tsv", "0");
+    private final TesseractEnginePool enginePool;
+    private final OcrWorkerPool workers;
+    private final OcrResultCache resultCache;
+    private final OcrResultStore resultStore;
+    private final TextCorrectionEngine correctionEngine;
+    private final ImagePreprocessor preprocessor;
+    private final TextRegionDetector regionDetector;
+    private final RegionTiler regionTiler;
+    private final ExecutorService regionExecutor;
+    private final ExecutorService nativeExecutor;
+    private final OcrMetrics metrics;
+    private final CodeKeywords codeKeywords;
+    private final LanguageRegistry languages;
 
-        if (charWhitelist != null && !charWhitelist.isBlank()){
-            tesseract.setTessVariable("tessedit_char_whitelist", charWhitelist);
-        }
-        return tesseract;
+    public OcrService(TesseractEnginePool enginePool, OcrResultCache resultCache, OcrResultStore resultStore,
+                      TextCorrectionEngine correctionEngine, ImagePreprocessor preprocessor,
+                      TextRegionDetector regionDetector, RegionTiler regionTiler,
+                      @Qualifier("ocrRegionExecutor") ExecutorService regionExecutor,
+                      @Qualifier("ocrNativeExecutor") ExecutorService nativeExecutor,
+                      OcrMetrics metrics, CodeKeywords codeKeywords, LanguageRegistry languages,
+                      OcrWorkerPool workers) {
+        this.enginePool = enginePool;
+        this.resultCache = resultCache;
+        this.resultStore = resultStore;
+        this.correctionEngine = correctionEngine;
+        this.preprocessor = preprocessor;
+        this.regionDetector = regionDetector;
+        this.regionTiler = regionTiler;
+        this.regionExecutor = regionExecutor;
+        this.nativeExecutor = nativeExecutor;
+        this.metrics = metrics;
+        this.codeKeywords = codeKeywords;
+        this.languages = languages;
+        this.workers = workers;
     }
 
-    public String doOcr(File imageFile, String language, String mode) throws TesseractException {
-        if (tesseractEngine == null || !language.equals(currentLanguage)) {
-            tesseractEngine = newEngine(language, mode);
-            currentLanguage = language;
-        }
+    public OcrResult doOcr(BufferedImage img, String language, String mode) throws TesseractException {
+        return doOcr(img, language, mode, metrics.newTimings());
+    }
+
+    public OcrResult doOcr(BufferedImage img, String language, String mode, StageTimings timings)
+            throws TesseractException {
+        return doOcr(img, language, mode, timings, Detail.TEXT);
+    }
+
+    // What each row carries besides its text. Boxes or a confidence threshold switch the
+    // engines to reading Tesseract's result iterator in the same recognition pass.
+    public record Detail(boolean boxes, float minConfidence) {
+        public static final Detail TEXT = new Detail(false, 0);
 
+        boolean needsLayout() { return boxes || minConfidence > 0; }
+    }
+
+    public OcrResult doOcr(BufferedImage img, String language, String mode, StageTimings timings, Detail detail)
+            throws TesseractException {
         try{
-            BufferedImage img = ImageIO.read(imageFile);
-            if (img == null) {
-                throw new TesseractException("Image could not decode the file. Unsupported Format");
+            long t = System.nanoTime();
+            // Only plain text results are cached; the on-disk store backs the in-memory cache
+            OcrResultCache.Fingerprint fingerprint = null;
+            OcrResultStore.Key storeKey = null;
+            if ((resultCache.isEnabled() || resultStore.isEnabled()) && !detail.needsLayout()) {
+                fingerprint = resultCache.fingerprint(img);
+                OcrResultCache.Hit hit = resultCache.lookup(fingerprint, language, mode);
+                if (hit == null && resultStore.isEnabled()) {
+                    storeKey = resultStore.imageKey(fingerprint, language, mode);
+                    hit = resultStore.lookup(storeKey);
+                    if (hit != null) resultCache.put(fingerprint, language, mode, hit.rows(), hit.detectedLanguage());
+                }
+                t = timings.record(OcrMetrics.CACHE_LOOKUP, t);
+                if (hit != null) {
+                    return new OcrResult(hit.rows(), true, null, hit.detectedLanguage());
+                }
             }
 
-            // Apply preprocessing for better code recognition
-            if ("code".equals(mode)) {
-                img = preprocessForCode(img);
+            ImagePreprocessor.Output prepared = preprocessor.process(img);
+            t = timings.record(OcrMetrics.PREPROCESS, t);
+            GrayRaster raster = prepared.raster();
+            List<Rectangle> regions = regionDetector.detect(raster);
+            t = timings.record(OcrMetrics.DETECT_REGIONS, t);
+
+            // Results are cached under the requested language, so "auto" hits skip detection
+            String engineLanguage = language;
+            if (LanguageRegistry.AUTO.equals(language) && !regions.isEmpty()) {
+                // Recorded as detect_script by recognize, without the wait for an engine
+                engineLanguage = detectLanguage(raster, regions, timings);
+                t = System.nanoTime();
             }
 
-            String rawText = tesseractEngine.doOCR(img);
-            return processOcrText(rawText, mode);
+            // Big blocks are recognised as tiles; their lines are joined per block again
+            List<List<Rectangle>> tiles = regionTiler.split(raster, regions);
+
+            // No text-like structure at all: skip Tesseract
+            List<TextRow> rows = List.of();
+            // Code always goes through the layout path: indentation comes from the line boxes
+            if (!regions.isEmpty() && (detail.needsLayout() || "code".equals(mode))) {
+                List<List<OcrEngine.Line>> tileLines = recognizeAll(RegionTiler.flatten(tiles), engineLanguage, mode,
+                    timings, (engine, region) -> engine.recognizeLines(raster, region));
+                List<List<OcrEngine.Line>> lines = RegionTiler.joinLines(regions, tiles, tileLines);
+                t = System.nanoTime();
+                rows = toRows(regions, lines, mode, detail, prepared.scaleFactor());
+                timings.record(OcrMetrics.CORRECTION, t);
+            } else if (!regions.isEmpty()) {
+                List<String> texts = recognizeAll(RegionTiler.flatten(tiles), engineLanguage, mode, timings,
+                    (engine, region) -> engine.recognize(raster, region));
+                t = System.nanoTime();
+                rows = correctionEngine.toRows(String.join("\n", texts), mode);
+                timings.record(OcrMetrics.CORRECTION, t);
+            }
+            String detectedLanguage = LanguageRegistry.AUTO.equals(language) ? engineLanguage : null;
+            if (fingerprint != null) {
+                resultCache.put(fingerprint, language, mode, rows, detectedLanguage);
+            }
+            if (storeKey != null) {
+                resultStore.put(storeKey, rows, detectedLanguage);
+            }
+            return new OcrResult(rows, false, prepared.scaleFactor(), detectedLanguage);
 
         } catch (Exception e) {
             throw new TesseractException("Image reading failed: " + e.getMessage(), e);
         }
     }
-    
-    private BufferedImage preprocessForCode(BufferedImage original) {
-        // Scale up for better character recognition
-        int newWidth = original.getWidth() * 2;
-        int newHeight = original.getHeight() * 2;
-        
-        BufferedImage scaled = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_INT_RGB);
-        Graphics2D g2d = scaled.createGraphics();
-        g2d.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BICUBIC);
-        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
-        g2d.drawImage(original, 0, 0, newWidth, newHeight, null);
-        g2d.dispose();
-        
-        // Convert to grayscale and enhance contrast
-        BufferedImage processed = new BufferedImage(newWidth, newHeight, BufferedImage.TYPE_BYTE_GRAY);
-        Graphics2D g = processed.createGraphics();
-        g.drawImage(scaled, 0, 0, null);
-        g.dispose();
-        
-        return processed;
+
+    // One OSD pass over the largest block. Without osd.traineddata, or when the script is
+    // not mapped, the default language is used.
+    private String detectLanguage(GrayRaster raster, List<Rectangle> regions, StageTimings timings) {
+        Rectangle largest = regions.get(0);
+        for (Rectangle region : regions) {
+            if ((long) region.width * region.height > (long) largest.width * largest.height) largest = region;
+        }
+        try {
+            String script = recognize(largest, LanguageRegistry.OSD, "osd", timings, OcrMetrics.DETECT_SCRIPT,
+                (engine, region) -> engine.detectScript(raster, region));
+            return languages.forScript(script);
+        } catch (TesseractException e) {
+            log.debug("Script detection failed, using the default language: {}", e.getMessage());
+            return languages.getDefaultLanguage();
+        }
     }
 
-    private String processOcrText(String rawText, String mode) {
-        return processOcrText(rawText);
+    // One row per Tesseract line, corrected on its own, with boxes mapped back to the
+    // submitted image. Code gets its indentation rebuilt and keywords fixed for the
+    // language it looks like.
+    private List<TextRow> toRows(List<Rectangle> regions, List<List<OcrEngine.Line>> lines,
+                                 String mode, Detail detail, double scale) {
+        boolean code = "code".equals(mode);
+        List<TextRow> rows = new ArrayList<>();
+        List<Integer> indents = new ArrayList<>();
+        for (int i = 0; i < regions.size(); i++) {
+            Rectangle region = regions.get(i);
+            List<OcrEngine.Line> blockLines = lines.get(i);
+            int[] indentation = code ? CodeLayout.indentation(blockLines) : null;
+            for (int j = 0; j < blockLines.size(); j++) {
+                OcrEngine.Line line = blockLines.get(j);
+                if (line.confidence() < detail.minConfidence()) continue;
+                String content = correctionEngine.correctLine(line.text(), mode);
+                if (content.isEmpty()) continue;
+
+                TextRow row = new TextRow(rows.size() + 1, content);
+                if (detail.needsLayout()) row.setConfidence(line.confidence());
+                if (detail.boxes()) {
+                    row.setBbox(toBox(line.bounds(), region, scale));
+                    List<OcrResponse.Word> words = new ArrayList<>(line.words().size());
+                    for (OcrEngine.Word word : line.words()) {
+                        words.add(new OcrResponse.Word(word.text(), word.confidence(), toBox(word.bounds(), region, scale)));
+                    }
+                    row.setWords(words);
+                }
+                rows.add(row);
+                if (code) indents.add(indentation[j]);
+            }
+        }
+
+        if (code) {
+            String language = codeKeywords.detect(rows.stream().map(TextRow::getContent).toList());
+            for (int k = 0; k < rows.size(); k++) {
+                TextRow row = rows.get(k);
+                row.setContent(" ".repeat(indents.get(k)) + codeKeywords.correct(row.getContent(), language));
+            }
+        }
+        return rows;
     }
-    
-    private String processOcrText(String rawText) {
-        if (rawText == null || rawText.trim().isEmpty()) {
-            return "";
+
+    private static OcrResponse.Box toBox(Rectangle bounds, Rectangle region, double scale) {
+        Rectangle r = toSource(new Rectangle(bounds.x + region.x, bounds.y + region.y, bounds.width, bounds.height), scale);
+        return new OcrResponse.Box(r.x, r.y, r.width, r.height);
+    }
+
+    // Raw text of one detected block; bounds are in source image pixels
+    public record RegionText(Rectangle bounds, String text) {}
+
+    // OCR for a stream of similar frames: blocks for which reuse returns text (because that
+    // part of the frame did not change) are not recognised again. Results bypass the cache.
+    public List<RegionText> recognizeFrame(BufferedImage img, String language, String mode,
+                                           Function<Rectangle, String> reuse) throws TesseractException {
+        StageTimings timings = metrics.newTimings();
+        long t = System.nanoTime();
+        ImagePreprocessor.Output prepared = preprocessor.process(img);
+        t = timings.record(OcrMetrics.PREPROCESS, t);
+        List<Rectangle> regions = regionDetector.detect(prepared.raster());
+        timings.record(OcrMetrics.DETECT_REGIONS, t);
+
+        List<RegionText> result = new ArrayList<>(regions.size());
+        List<Rectangle> pending = new ArrayList<>();
+        List<Integer> pendingIndex = new ArrayList<>();
+        Rectangle frame = new Rectangle(0, 0, img.getWidth(), img.getHeight());
+        for (Rectangle region : regions) {
+            Rectangle bounds = toSource(region, prepared.scaleFactor()).intersection(frame);
+            String text = reuse.apply(bounds);
+            if (text == null) {
+                pending.add(region);
+                pendingIndex.add(result.size());
+            }
+            result.add(new RegionText(bounds, text));
         }
 
-        // Fix literal \n in text and normalize line breaks
-        rawText = rawText.replace("\\n", "\n");
-        rawText = rawText.replace("\\r\\n", "\n");
-        rawText = rawText.replace("\\r", "\n");
-        
-        // Also handle cases where OCR reads \n as literal text
-        rawText = rawText.replace(" \n ", "\n");
-        rawText = rawText.replace("\n", "\n");
-        rawText = rawText.replace("| ", "\n"); // Handle | as line separator
-        
-        String[] lines = rawText.split("\n");
-        
-        StringBuilder formatted = new StringBuilder();
-        
-        for (String line : lines) {
-            line = line.trim();
-            if (!line.isEmpty()) {
-                String correctedLine = correctCommonOcrErrors(line);
-                formatted.append(correctedLine).append("\n");
+        if (!pending.isEmpty()) {
+            GrayRaster raster = prepared.raster();
+            List<List<Rectangle>> tiles = regionTiler.split(raster, pending);
+            List<String> texts = RegionTiler.joinTexts(tiles, recognizeAll(RegionTiler.flatten(tiles), language,
+                mode, timings, (engine, region) -> engine.recognize(raster, region)));
+            for (int i = 0; i < texts.size(); i++) {
+                int index = pendingIndex.get(i);
+                result.set(index, new RegionText(result.get(index).bounds(), texts.get(i)));
             }
         }
-        
-        String result = formatted.toString().trim();
         return result;
     }
 
-    private String correctCommonOcrErrors(String text) {
-        // Code-specific OCR corrections
-        
-        // Fix common Java/programming symbols
-        text = text.replaceAll("\\b1(?=\\w)", "I"); // 1 -> I at word start
-        text = text.replaceAll("(?<=\\w)1(?=\\w)", "l"); // 1 -> l in middle
-        text = text.replaceAll("\\b0(?=\\w)", "O"); // 0 -> O at word start
-        text = text.replaceAll("(?<=\\w)0\\b", "o"); // 0 -> o at word end
-        
-        // Fix lambda arrows and operators
-        text = text.replaceAll("\\s*-\\s*>\\s*", " -> "); // Fix lambda arrows
-        text = text.replaceAll("\\s*=\\s*>\\s*", " -> "); // = > to ->
-        text = text.replaceAll("\\s*—\\s*>\\s*", " -> "); // em dash to ->
-        text = text.replaceAll("\\s*–\\s*>\\s*", " -> "); // en dash to ->
-        
-        // Fix generic brackets
-        text = text.replaceAll("\\s*<\\s*", "<"); // Fix < spacing
-        text = text.replaceAll("\\s*>\\s*", ">"); // Fix > spacing
-        text = text.replaceAll("\\(\\s*", "("); // Fix ( spacing
-        text = text.replaceAll("\\s*\\)", ")"); // Fix ) spacing
-        
-        // Fix common programming keywords
-        text = text.replaceAll("\\bpubIic\\b", "public");
-        text = text.replaceAll("\\bstalic\\b", "static");
-        text = text.replaceAll("\\bvold\\b", "void");
-        text = text.replaceAll("\\bmalN\\b", "main");
-        text = text.replaceAll("\\bMaln\\b", "Main");
-        text = text.replaceAll("\\bSysteM\\b", "System");
-        text = text.replaceAll("\\bprintln\\b", "println");
-        text = text.replaceAll("\\bFunctlon\\b", "Function");
-        text = text.replaceAll("\\blnteger\\b", "Integer");
-        text = text.replaceAll("\\bapply\\b", "apply");
-        text = text.replaceAll("\\bandThen\\b", "andThen");
-        
-        // Fix common OCR mistakes in code
-        text = text.replaceAll("\\brn\\b", "m"); // rn -> m
-        text = text.replaceAll("\\bvv\\b", "w"); // vv -> w
-        text = text.replaceAll("\\b\\|\\b", "I"); // | -> I
-        text = text.replaceAll("\\b5\\b", "S"); // 5 -> S in context
-        text = text.replaceAll("\\b8\\b", "B"); // 8 -> B in context
-        
-        // Fix method calls and dots
-        text = text.replaceAll("\\s*\\.\\s*", "."); // Fix dot spacing
-        text = text.replaceAll("\\s*;\\s*", ";"); // Fix semicolon spacing
-        text = text.replaceAll("\\s*,\\s*", ", "); // Fix comma spacing
-        
-        // Fix indentation (preserve leading spaces but normalize)
-        text = text.replaceAll("^\\s+", "    "); // Normalize indentation to 4 spaces
-        
-        // Remove extra spaces but preserve single spaces
-        text = text.replaceAll(" +", " ");
-        
-        return text.trim();
+    public List<TextRow> toRows(List<RegionText> regions, String mode) {
+        long t = System.nanoTime();
+        StringBuilder text = new StringBuilder();
+        for (RegionText region : regions) {
+            if (!text.isEmpty()) text.append('\n');
+            text.append(region.text());
+        }
+        List<TextRow> rows = correctionEngine.toRows(text.toString(), mode);
+        metrics.record(OcrMetrics.CORRECTION, System.nanoTime() - t);
+        return rows;
+    }
+
+    private static Rectangle toSource(Rectangle region, double scale) {
+        int x0 = (int) Math.floor(region.x / scale);
+        int y0 = (int) Math.floor(region.y / scale);
+        int x1 = (int) Math.ceil((region.x + region.width) / scale);
+        int y1 = (int) Math.ceil((region.y + region.height) / scale);
+        return new Rectangle(x0, y0, x1 - x0, y1 - y0);
+    }
+
+    @FunctionalInterface
+    private interface EngineCall<T> {
+        T run(Recognizer engine, Rectangle region) throws TesseractException;
+    }
+
+    // Blocks are recognised in parallel, each on its own engine; results come back in the
+    // order of regions. The first block runs on the calling thread. Each block's engine
+    // time is recorded as recognize, so parallel blocks add up like engine_wait does.
+    private <T> List<T> recognizeAll(List<Rectangle> regions, String language, String mode,
+                                     StageTimings timings, EngineCall<T> call) throws TesseractException {
+        List<CompletableFuture<T>> rest = new ArrayList<>(regions.size() - 1);
+        for (Rectangle region : regions.subList(1, regions.size())) {
+            rest.add(CompletableFuture.supplyAsync(() -> {
+                try {
+                    return recognize(region, language, mode, timings, OcrMetrics.RECOGNIZE, call);
+                } catch (TesseractException e) {
+                    throw new CompletionException(e);
+                }
+            }, regionExecutor));
+        }
+
+        List<T> results = new ArrayList<>(regions.size());
+        TesseractException failure = null;
+        try {
+            results.add(recognize(regions.get(0), language, mode, timings, OcrMetrics.RECOGNIZE, call));
+        } catch (TesseractException e) {
+            failure = e;
+        }
+        // Wait for every block even after a failure: they all read the caller's raster buffer
+        for (CompletableFuture<T> future : rest) {
+            try {
+                results.add(future.join());
+            } catch (CompletionException e) {
+                if (failure == null) {
+                    failure = e.getCause() instanceof TesseractException te
+                        ? te : new TesseractException(e.getCause().getMessage(), e.getCause());
+                }
+            }
+        }
+        if (failure != null) throw failure;
+        return results;
+    }
+
+    // The stage clock starts once an engine is leased; the wait for it is engine_wait
+    private <T> T recognize(Rectangle region, String language, String mode, StageTimings timings,
+                            String stage, EngineCall<T> call) throws TesseractException {
+        long t = System.nanoTime();
+        if (workers.isEnabled()) {
+            T result = call.run(workers.recognizer(language, mode), region);
+            timings.record(stage, t);
+            return result;
+        }
+
+        try (TesseractEnginePool.Lease lease = enginePool.borrow(language, mode)) {
+            t = timings.record(OcrMetrics.ENGINE_WAIT, t);
+            try {
+                T result = callEngine(lease.engine(), region, call);
+                timings.record(stage, t);
+                return result;
+            } catch (TesseractException | RuntimeException | Error e) {
+                // The native state after a failed call is unknown: close the engine, open a fresh one next time
+                lease.discard();
+                throw e;
+            }
+        }
+    }
+
+    // Tesseract is called directly from platform threads. A virtual thread hands the call
+    // to the native executor and parks, so its carrier stays free for other requests.
+    private <T> T callEngine(OcrEngine engine, Rectangle region, EngineCall<T> call) throws TesseractException {
+        if (!VirtualThreads.isVirtual(Thread.currentThread())) return call.run(engine, region);
+
+        Future<T> future = nativeExecutor.submit(() -> call.run(engine, region));
+        boolean interrupted = false;
+        try {
+            // The engine goes back to the pool when we return, so wait for the call to finish
+            while (true) {
+                try {
+                    return future.get();
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof TesseractException te) throw te;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            if (e.getCause() instanceof Error error) throw error;
+            throw new TesseractException(e.getCause().getMessage(), e.getCause());
+        } finally {
+            if (interrupted) Thread.currentThread().interrupt();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,332 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import com.ocr.yt_ocr_backend.dto.OcrStreamUpdate;
+import com.ocr.yt_ocr_backend.util.GrayImageOps;
+import com.ocr.yt_ocr_backend.util.ImageRejectedException;
+import com.ocr.yt_ocr_backend.util.ImageUtils;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.tess4j.TesseractException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Streaming OCR for a video being watched: the client posts frames to a session and gets
+// line diffs back (in the response and as server-sent events). Frames whose tiles match
+// the last OCRed frame are dropped, and text blocks that lie in unchanged tiles keep the
+// text they had instead of being recognised again.
+@Service
+public class OcrStreamService {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrStreamService.class);
+
+    private final OcrService ocrService;
+    private final OcrJobService jobService;
+
+    @Value("${app.upload.max-size:5242880}")
+    private long maxFileSize = 5_242_880;
+
+    // Checked against the image header, before the pixels are decoded
+    @Value("${app.upload.max-pixels:40000000}")
+    private long maxPixels = 40_000_000;
+
+    // Gray buffers larger than this are used once instead of being pinned to the thread
+    @Value("${ocr.preprocess.max-retained-bytes:16777216}")
+    private int maxRetainedBytes = 16_777_216;
+
+    @Value("${ocr.stream.max-sessions:64}")
+    private int maxSessions = 64;
+
+    @Value("${ocr.stream.session-idle-ms:120000}")
+    private long sessionIdleMs = 120_000;
+
+    // Frames are compared as means of tile x tile source pixels
+    @Value("${ocr.stream.tile-size:16}")
+    private int tileSize = 16;
+
+    // A tile counts as changed when its mean moves by more than this many gray levels
+    @Value("${ocr.stream.tile-threshold:6}")
+    private int tileThreshold = 6;
+
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+    private final ThreadLocal<byte[]> grayBuffer = new ThreadLocal<>();
+    private ScheduledExecutorService janitor;
+
+    public OcrStreamService(OcrService ocrService, OcrJobService jobService) {
+        this.ocrService = ocrService;
+        this.jobService = jobService;
+    }
+
+    @PostConstruct
+    void start() {
+        janitor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ocr-stream-janitor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, sessionIdleMs / 4);
+        janitor.scheduleWithFixedDelay(this::closeIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        janitor.shutdownNow();
+        sessions.keySet().forEach(this::close);
+    }
+
+    // Returns the new session id, or null when the session limit is reached. The language
+    // must already be resolved by LanguageRegistry.
+    public String open(String language, String mode) {
+        if (sessions.size() >= maxSessions) return null;
+        Session session = new Session(UUID.randomUUID().toString(),
+            language, OcrRequestProcessor.sanitizeInput(mode));
+        sessions.put(session.id, session);
+        return session.id;
+    }
+
+    public boolean close(String id) {
+        Session session = sessions.remove(id);
+        if (session == null) return false;
+        session.emitters.forEach(SseEmitter::complete);
+        return true;
+    }
+
+    // Event stream of the session's updates; null for an unknown session
+    public SseEmitter subscribe(String id) {
+        Session session = sessions.get(id);
+        if (session == null) return null;
+
+        SseEmitter emitter = new SseEmitter(sessionIdleMs);
+        session.emitters.add(emitter);
+        emitter.onCompletion(() -> session.emitters.remove(emitter));
+        emitter.onTimeout(() -> session.emitters.remove(emitter));
+        emitter.onError(e -> session.emitters.remove(emitter));
+        return emitter;
+    }
+
+    public OcrStreamUpdate processFrame(String id, String imageBase64, OcrClient client) {
+        long startTime = System.currentTimeMillis();
+        Session session = sessions.get(id);
+        if (session == null) return new OcrStreamUpdate(id, 0, "session_not_found");
+        session.lastActive = startTime;
+
+        // One frame per session at a time; frames arriving meanwhile are stale anyway
+        if (!session.lock.tryLock()) return new OcrStreamUpdate(id, 0, "busy");
+        try {
+            long frameNo = ++session.frames;
+            OcrStreamUpdate update = recognize(session, frameNo, imageBase64, client);
+            update.setProcessingTimeMs(System.currentTimeMillis() - startTime);
+            if ("processed".equals(update.getStatus())) publish(session, update);
+            return update;
+        } finally {
+            session.lock.unlock();
+        }
+    }
+
+    private OcrStreamUpdate recognize(Session session, long frameNo, String imageBase64, OcrClient client) {
+        if (imageBase64 == null || imageBase64.isBlank()) {
+            return new OcrStreamUpdate(session.id, frameNo, "invalid_base64");
+        }
+        if (imageBase64.length() > maxFileSize * 2) {
+            return new OcrStreamUpdate(session.id, frameNo, "file_too_large");
+        }
+
+        BufferedImage image;
+        try {
+            image = ImageUtils.readImage(new ByteArrayInputStream(ImageUtils.decodeBase64(imageBase64)), maxPixels);
+        } catch (ImageRejectedException e) {
+            return new OcrStreamUpdate(session.id, frameNo, e.getStatus());
+        } catch (IllegalArgumentException | IOException e) {
+            return new OcrStreamUpdate(session.id, frameNo, "invalid_base64");
+        }
+
+        Tiles tiles = tiles(image);
+        boolean[] changed = session.tiles != null && session.tiles.sameGrid(tiles)
+            ? session.tiles.changed(tiles, tileThreshold)
+            : null;
+        if (changed != null && !any(changed)) {
+            return new OcrStreamUpdate(session.id, frameNo, "unchanged");
+        }
+
+        List<OcrService.RegionText> previous = session.regions;
+        int[] reused = new int[1];
+        CompletableFuture<List<OcrService.RegionText>> future = jobService.execute(OcrJob.Priority.INTERACTIVE, client, () -> {
+            try {
+                return ocrService.recognizeFrame(image, session.language, session.mode, bounds -> {
+                    String text = changed == null ? null : reusable(previous, bounds, tiles, changed);
+                    if (text != null) reused[0]++;
+                    return text;
+                });
+            } catch (TesseractException e) {
+                throw new CompletionException(e);
+            }
+        });
+        if (future == null) {
+            return new OcrStreamUpdate(session.id, frameNo, "queue_full");
+        }
+
+        List<OcrService.RegionText> regions;
+        try {
+            regions = future.get(jobService.getWaitTimeoutMs(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            return new OcrStreamUpdate(session.id, frameNo, "timeout");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new OcrStreamUpdate(session.id, frameNo, "error");
+        } catch (ExecutionException e) {
+            // recognizeFrame's TesseractException arrives wrapped in a CompletionException
+            Throwable cause = e.getCause() instanceof CompletionException ? e.getCause().getCause() : e.getCause();
+            log.warn("Stream frame {} of session {} failed: {}", frameNo, session.id, String.valueOf(cause));
+            return new OcrStreamUpdate(session.id, frameNo, cause instanceof TesseractException ? "ocr_failed" : "error");
+        }
+
+        List<TextRow> rows = ocrService.toRows(regions, session.mode);
+        LineDiff.Result diff = LineDiff.diff(session.rows, rows);
+        session.tiles = tiles;
+        session.regions = regions;
+        session.rows = rows;
+
+        OcrStreamUpdate update = new OcrStreamUpdate(session.id, frameNo, "processed");
+        update.setRemoved(diff.removed());
+        update.setAdded(diff.added());
+        update.setTotalLines(rows.size());
+        update.setRegionsRecognized(regions.size() - reused[0]);
+        update.setRegionsReused(reused[0]);
+        return update;
+    }
+
+    // Text of a previous block at (about) the same place, provided none of its tiles changed
+    private String reusable(List<OcrService.RegionText> previous, Rectangle bounds, Tiles tiles, boolean[] changed) {
+        for (OcrService.RegionText region : previous) {
+            Rectangle old = region.bounds();
+            if (Math.abs(old.x - bounds.x) > tileSize || Math.abs(old.y - bounds.y) > tileSize
+                    || Math.abs(old.width - bounds.width) > tileSize
+                    || Math.abs(old.height - bounds.height) > tileSize) {
+                continue;
+            }
+            return tiles.anyChanged(old.union(bounds), changed) ? null : region.text();
+        }
+        return null;
+    }
+
+    private Tiles tiles(BufferedImage image) {
+        int w = image.getWidth();
+        int h = image.getHeight();
+        byte[] gray = grayBuffer.get();
+        if (gray == null || gray.length < w * h) {
+            gray = new byte[w * h];
+            if (gray.length <= maxRetainedBytes) grayBuffer.set(gray);
+        }
+        GrayImageOps.toGray(image, gray);
+
+        Tiles tiles = new Tiles(w, h, tileSize);
+        GrayImageOps.tileMeans(gray, w, h, tileSize, tiles.means);
+        return tiles;
+    }
+
+    private static boolean any(boolean[] flags) {
+        for (boolean f : flags) if (f) return true;
+        return false;
+    }
+
+    private void publish(Session session, OcrStreamUpdate update) {
+        for (SseEmitter emitter : session.emitters) {
+            try {
+                emitter.send(SseEmitter.event().name("lines").id(String.valueOf(update.getFrameNo())).data(update));
+            } catch (IOException | IllegalStateException e) {
+                session.emitters.remove(emitter);
+            }
+        }
+    }
+
+    private void closeIdle() {
+        long cutoff = System.currentTimeMillis() - sessionIdleMs;
+        new ArrayList<>(sessions.values()).stream()
+            .filter(s -> s.lastActive < cutoff && s.emitters.isEmpty())
+            .forEach(s -> close(s.id));
+    }
+
+    static final class Tiles {
+        final int width;
+        final int height;
+        final int size;
+        final int columns;
+        final int[] means;
+
+        Tiles(int width, int height, int size) {
+            this.width = width;
+            this.height = height;
+            this.size = size;
+            this.columns = (width + size - 1) / size;
+            this.means = new int[columns * ((height + size - 1) / size)];
+        }
+
+        boolean sameGrid(Tiles other) {
+            return width == other.width && height == other.height && size == other.size;
+        }
+
+        boolean[] changed(Tiles current, int threshold) {
+            boolean[] changed = new boolean[means.length];
+            for (int i = 0; i < means.length; i++) {
+                changed[i] = Math.abs(means[i] - current.means[i]) > threshold;
+            }
+            return changed;
+        }
+
+        boolean anyChanged(Rectangle area, boolean[] changed) {
+            int rows = means.length / columns;
+            int tx0 = Math.max(0, area.x / size);
+            int ty0 = Math.max(0, area.y / size);
+            int tx1 = Math.min(columns - 1, (area.x + area.width - 1) / size);
+            int ty1 = Math.min(rows - 1, (area.y + area.height - 1) / size);
+            for (int ty = ty0; ty <= ty1; ty++) {
+                for (int tx = tx0; tx <= tx1; tx++) {
+                    if (changed[ty * columns + tx]) return true;
+                }
+            }
+            return false;
+        }
+    }
+
+    private static final class Session {
+        final String id;
+        final String language;
+        final String mode;
+        final ReentrantLock lock = new ReentrantLock();
+        final List<SseEmitter> emitters = new CopyOnWriteArrayList<>();
+        volatile long lastActive = System.currentTimeMillis();
+        long frames;
+        // State of the last OCRed frame, guarded by lock
+        Tiles tiles;
+        List<OcrService.RegionText> regions = List.of();
+        List<TextRow> rows = List.of();
+
+        Session(String id, String language, String mode) {
+            this.id = id;
+            this.language = language;
+            this.mode = mode;
+        }
+    }
+}
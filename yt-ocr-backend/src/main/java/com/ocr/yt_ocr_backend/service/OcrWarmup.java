@@ -0,0 +1,137 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.util.ImageUtils;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import net.sourceforge.tess4j.TesseractException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.stereotype.Component;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+// Runs one OCR of a rendered code snippet per warmed mode before the application reports
+// ready: Spring Boot only moves readiness to ACCEPTING_TRAFFIC once the runners are done,
+// so /actuator/health/readiness stays down until decoding, preprocessing and a real
+// Tesseract pass have all been through once. With ocr.warmup.exit the JVM then exits,
+// which the cds build profile uses for its training and time-to-first-OCR runs.
+@Component
+public class OcrWarmup implements ApplicationRunner {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrWarmup.class);
+
+    private static final String[] SAMPLE = {
+        "public static void main(String[] args) {",
+        "    for (int i = 0; i < 10; i++) {",
+        "        System.out.println(\"Hello \" + i);",
+        "    }",
+        "}",
+    };
+
+    private final OcrService ocrService;
+    private final OcrMetrics metrics;
+    private final LanguageRegistry languages;
+    private final ConfigurableApplicationContext context;
+
+    @Value("${ocr.warmup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${ocr.warmup.modes:auto,code}")
+    private String modes = "auto,code";
+
+    // Exit once warmed up (build-time training and measurement runs)
+    @Value("${ocr.warmup.exit:false}")
+    private boolean exit;
+
+    // Where to write the startup timings as JSON; empty = only log them
+    @Value("${ocr.warmup.report-file:}")
+    private String reportFile = "";
+
+    private volatile double firstOcrMs = Double.NaN;
+
+    public OcrWarmup(OcrService ocrService, OcrMetrics metrics, LanguageRegistry languages,
+                     MeterRegistry registry, ConfigurableApplicationContext context) {
+        this.ocrService = ocrService;
+        this.metrics = metrics;
+        this.languages = languages;
+        this.context = context;
+        TimeGauge.builder("ocr.startup.first_ocr", this, TimeUnit.MILLISECONDS, w -> w.firstOcrMs)
+            .description("Time from JVM start until the warm-up OCR finished")
+            .register(registry);
+    }
+
+    @Override
+    public void run(ApplicationArguments args) throws IOException {
+        if (!enabled) return;
+
+        long start = System.nanoTime();
+        boolean ok = true;
+        try {
+            // Through the upload decoder, so the ImageIO plugins are scanned now
+            BufferedImage img = ImageUtils.readImage(png(sample()));
+            // Boxes bypass the result cache and store, so every mode really reaches Tesseract
+            OcrService.Detail detail = new OcrService.Detail(true, 0);
+            for (String mode : modes.split(",")) {
+                if (mode.isBlank()) continue;
+                ocrService.doOcr(img, languages.getDefaultLanguage(), mode.trim(), metrics.newTimings(), detail);
+            }
+        } catch (TesseractException | RuntimeException | LinkageError e) {
+            ok = false;
+            log.warn("Warm-up OCR failed, the first request will pay for it: {}", e.getMessage());
+        }
+        long warmupMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        long uptimeMs = ManagementFactory.getRuntimeMXBean().getUptime();
+        firstOcrMs = uptimeMs;
+        log.info("Warm-up OCR took {} ms; ready for OCR {} ms after JVM start", warmupMs, uptimeMs);
+
+        if (!reportFile.isBlank()) {
+            String json = String.format("{\"time_to_first_ocr_ms\":%d,\"warmup_ms\":%d,\"ocr_ok\":%b}%n",
+                uptimeMs, warmupMs, ok);
+            Files.writeString(Path.of(reportFile), json, StandardCharsets.UTF_8);
+        }
+        if (exit) {
+            System.exit(SpringApplication.exit(context));
+        }
+    }
+
+    // Light text on a dark editor background, like the frames the extension sends
+    static BufferedImage sample() {
+        BufferedImage img = new BufferedImage(720, 220, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = img.createGraphics();
+        g.setColor(new Color(30, 30, 30));
+        g.fillRect(0, 0, img.getWidth(), img.getHeight());
+        g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+        g.setColor(new Color(220, 220, 220));
+        g.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 20));
+        int y = 40;
+        for (String line : SAMPLE) {
+            g.drawString(line, 20, y);
+            y += 34;
+        }
+        g.dispose();
+        return img;
+    }
+
+    private static byte[] png(BufferedImage img) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(img, "png", out);
+        return out.toByteArray();
+    }
+}
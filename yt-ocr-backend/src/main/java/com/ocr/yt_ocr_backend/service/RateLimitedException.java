@@ -0,0 +1,16 @@
+package com.ocr.yt_ocr_backend.service;
+
+// A client ran out of tokens for an endpoint; answered with status rate_limited and a 429
+public class RateLimitedException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final long retryAfterSeconds;
+
+    public RateLimitedException(long retryAfterSeconds) {
+        super("Rate limit exceeded");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public long getRetryAfterSeconds() { return retryAfterSeconds; }
+}
@@ -0,0 +1,18 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import net.sourceforge.tess4j.TesseractException;
+
+import java.awt.Rectangle;
+import java.util.List;
+
+// The Tesseract calls OcrService makes on one region of a raster: an OcrEngine from the
+// local pool, or a worker process when ocr.workers is configured.
+public interface Recognizer {
+
+    String recognize(GrayRaster raster, Rectangle region) throws TesseractException;
+
+    List<OcrEngine.Line> recognizeLines(GrayRaster raster, Rectangle region) throws TesseractException;
+
+    String detectScript(GrayRaster raster, Rectangle region) throws TesseractException;
+}
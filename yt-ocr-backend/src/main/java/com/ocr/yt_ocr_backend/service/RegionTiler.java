@@ -0,0 +1,149 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+// Cuts blocks too big for one Tesseract call (a full IDE window, an upscaled 4K frame)
+// into horizontal tiles that are recognised side by side on separate engines. Cuts are
+// only made in blank rows, found from the horizontal projection profile of edges, so no
+// text line is ever split; a block without blank rows stays whole.
+@Component
+public class RegionTiler {
+
+    @Value("${ocr.tiles.enabled:true}")
+    private boolean enabled = true;
+
+    // Blocks above this many preprocessed pixels are tiled, into tiles about this big
+    @Value("${ocr.tiles.max-pixels:1500000}")
+    private long maxPixels = 1_500_000;
+
+    @Value("${ocr.tiles.min-height:96}")
+    private int minHeight = 96;
+
+    // A pixel step stronger than this is an edge; rows with (almost) none are blank
+    @Value("${ocr.regions.min-gradient:32}")
+    private int minGradient = 32;
+
+    // Tiles of each block, top to bottom; a block that needs no tiling is its own tile
+    public List<List<Rectangle>> split(GrayRaster raster, List<Rectangle> regions) {
+        List<List<Rectangle>> tiles = new ArrayList<>(regions.size());
+        for (Rectangle region : regions) {
+            tiles.add(split(raster, region));
+        }
+        return tiles;
+    }
+
+    List<Rectangle> split(GrayRaster raster, Rectangle region) {
+        long area = (long) region.width * region.height;
+        if (!enabled || area <= maxPixels || region.height < 2 * minHeight) return List.of(region);
+
+        int count = (int) Math.min((area + maxPixels - 1) / maxPixels, region.height / minHeight);
+        List<Integer> gaps = blankRowCenters(raster, region);
+        int top = region.y;
+        int bottom = region.y + region.height;
+
+        List<Rectangle> tiles = new ArrayList<>(count);
+        int start = top;
+        int g = 0;
+        for (int i = 1; i < count; i++) {
+            int ideal = top + (int) ((long) region.height * i / count);
+            // nearest gap to the ideal cut that leaves both sides tall enough
+            int best = -1;
+            for (; g < gaps.size(); g++) {
+                int cut = gaps.get(g);
+                if (cut - start < minHeight) continue;
+                if (bottom - cut < minHeight) break;
+                if (best >= 0 && Math.abs(cut - ideal) > Math.abs(best - ideal)) break;
+                best = cut;
+            }
+            if (best < 0) continue;
+            tiles.add(new Rectangle(region.x, start, region.width, best - start));
+            start = best;
+        }
+        tiles.add(new Rectangle(region.x, start, region.width, bottom - start));
+        return tiles;
+    }
+
+    // Middle row of every run of blank rows inside the region
+    private List<Integer> blankRowCenters(GrayRaster raster, Rectangle region) {
+        byte[] data = raster.getData();
+        int width = raster.getWidth();
+        // JPEG noise leaves the odd edge in an empty row
+        int tolerance = Math.max(1, region.width / 256);
+
+        List<Integer> centers = new ArrayList<>();
+        int runStart = -1;
+        for (int y = region.y; y <= region.y + region.height; y++) {
+            boolean blank = false;
+            if (y < region.y + region.height) {
+                int edges = 0;
+                int row = y * width;
+                for (int x = region.x + 1; x < region.x + region.width && edges <= tolerance; x++) {
+                    if (Math.abs((data[row + x] & 0xff) - (data[row + x - 1] & 0xff)) > minGradient) edges++;
+                }
+                blank = edges <= tolerance;
+            }
+            if (blank && runStart < 0) {
+                runStart = y;
+            } else if (!blank && runStart >= 0) {
+                // the first and last rows border the block, not a gap between lines
+                if (runStart > region.y && y < region.y + region.height) centers.add((runStart + y) / 2);
+                runStart = -1;
+            }
+        }
+        return centers;
+    }
+
+    // Tile lines back into one list per block, with bounds relative to the block again
+    static List<List<OcrEngine.Line>> joinLines(List<Rectangle> regions, List<List<Rectangle>> tiles,
+                                                List<List<OcrEngine.Line>> tileLines) {
+        List<List<OcrEngine.Line>> blocks = new ArrayList<>(regions.size());
+        int t = 0;
+        for (int i = 0; i < regions.size(); i++) {
+            List<OcrEngine.Line> lines = new ArrayList<>();
+            for (Rectangle tile : tiles.get(i)) {
+                int dy = tile.y - regions.get(i).y;
+                for (OcrEngine.Line line : tileLines.get(t++)) {
+                    lines.add(dy == 0 ? line : shift(line, dy));
+                }
+            }
+            blocks.add(lines);
+        }
+        return blocks;
+    }
+
+    // Tile texts back into one text per block
+    static List<String> joinTexts(List<List<Rectangle>> tiles, List<String> tileTexts) {
+        List<String> blocks = new ArrayList<>(tiles.size());
+        int t = 0;
+        for (List<Rectangle> blockTiles : tiles) {
+            List<String> parts = tileTexts.subList(t, t + blockTiles.size());
+            blocks.add(parts.size() == 1 ? parts.get(0) : String.join("\n", parts));
+            t += blockTiles.size();
+        }
+        return blocks;
+    }
+
+    static List<Rectangle> flatten(List<List<Rectangle>> tiles) {
+        List<Rectangle> flat = new ArrayList<>();
+        tiles.forEach(flat::addAll);
+        return flat;
+    }
+
+    private static OcrEngine.Line shift(OcrEngine.Line line, int dy) {
+        List<OcrEngine.Word> words = new ArrayList<>(line.words().size());
+        for (OcrEngine.Word word : line.words()) {
+            words.add(new OcrEngine.Word(word.text(), word.confidence(), shift(word.bounds(), dy)));
+        }
+        return new OcrEngine.Line(line.text(), line.confidence(), shift(line.bounds(), dy), words);
+    }
+
+    private static Rectangle shift(Rectangle r, int dy) {
+        return new Rectangle(r.x, r.y + dy, r.width, r.height);
+    }
+}
@@ -0,0 +1,38 @@
+package com.ocr.yt_ocr_backend.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Stage durations of one request. Every stage is also recorded in OcrMetrics; the
+// per-request copy is what OcrResponse can return as stages_ms. Stages recorded more
+// than once (engine_wait and recognize for parallel blocks) add up.
+public class StageTimings {
+
+    private final OcrMetrics metrics;
+    private final Map<String, Long> nanos = new LinkedHashMap<>();
+
+    StageTimings(OcrMetrics metrics) {
+        this.metrics = metrics;
+    }
+
+    // Records the time since start under stage and returns the current time, so
+    // consecutive stages can be chained: t = timings.record("decode", t);
+    public long record(String stage, long start) {
+        long now = System.nanoTime();
+        long elapsed = now - start;
+        synchronized (nanos) {
+            nanos.merge(stage, elapsed, Long::sum);
+        }
+        if (metrics != null) metrics.record(stage, elapsed);
+        return now;
+    }
+
+    // Milliseconds with two decimals, in the order the stages first ran
+    public Map<String, Double> toMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        synchronized (nanos) {
+            nanos.forEach((stage, n) -> millis.put(stage, Math.round(n / 10_000.0) / 100.0));
+        }
+        return millis;
+    }
+}
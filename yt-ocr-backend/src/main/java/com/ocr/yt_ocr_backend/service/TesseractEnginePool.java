@@ -0,0 +1,350 @@
+package com.ocr.yt_ocr_backend.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.tess4j.ITessAPI;
+import net.sourceforge.tess4j.TesseractException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Component
+public class TesseractEnginePool {
+
+    private static final Logger log = LoggerFactory.getLogger(TesseractEnginePool.class);
+
+    @Value("${ocr.tessdata-path}")
+    private String tessdatapath;
+
+    @Value("${ocr.psm:6}")
+    private String psm;
+
+    @Value("${ocr.oem:1}")
+    private String oem;
+
+    @Value("${ocr.char-whitelist:}")
+    private String charWhitelist;
+
+    // 0 means one engine per available core
+    @Value("${ocr.pool.max-active:0}")
+    private int maxActive;
+
+    @Value("${ocr.pool.max-per-key:0}")
+    private int maxPerKey;
+
+    @Value("${ocr.pool.min-idle-per-key:1}")
+    private int minIdlePerKey;
+
+    @Value("${ocr.pool.borrow-timeout-ms:30000}")
+    private long borrowTimeoutMs;
+
+    @Value("${ocr.pool.idle-timeout-ms:300000}")
+    private long idleTimeoutMs;
+
+    // comma separated language:mode pairs, e.g. eng:auto,eng:code
+    @Value("${ocr.pool.prewarm:${ocr.lang:eng}:auto}")
+    private String prewarm;
+
+    // With worker processes configured, OCR runs there and this pool stays cold
+    @Value("${ocr.workers.count:0}")
+    private int workerProcesses;
+
+    @Value("${ocr.workers.remote:}")
+    private String remoteWorkers;
+
+    private final Map<EngineKey, Slot> slots = new ConcurrentHashMap<>();
+    private Semaphore activePermits;
+    private ScheduledExecutorService evictor;
+
+    private final Timer waitTimer;
+    private final Timer createTimer;
+    private final Counter created;
+    private final Counter discarded;
+    private final Counter evicted;
+    private final LanguageRegistry languages;
+
+    public TesseractEnginePool(MeterRegistry registry, LanguageRegistry languages) {
+        this.languages = languages;
+        waitTimer = Timer.builder("ocr.engines.wait")
+            .description("Time from asking for an engine until one is handed out")
+            .publishPercentiles(0.5, 0.95, 0.99)
+            .publishPercentileHistogram()
+            .register(registry);
+        createTimer = Timer.builder("ocr.engines.create")
+            .description("Time to build an engine and load its traineddata")
+            .register(registry);
+        created = Counter.builder("ocr.engines.created").register(registry);
+        discarded = Counter.builder("ocr.engines.discarded")
+            .description("Engines closed after a failed call")
+            .register(registry);
+        evicted = Counter.builder("ocr.engines.evicted")
+            .description("Idle engines closed after the idle timeout")
+            .register(registry);
+        Gauge.builder("ocr.engines.in_flight", this, TesseractEnginePool::getActiveCount)
+            .description("OCR calls currently holding an engine")
+            .register(registry);
+        Gauge.builder("ocr.engines.idle", this, TesseractEnginePool::getIdleCount).register(registry);
+        Gauge.builder("ocr.engines.open", this, TesseractEnginePool::getOpenCount).register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        int cores = Runtime.getRuntime().availableProcessors();
+        if (maxActive <= 0) maxActive = cores;
+        if (maxPerKey <= 0) maxPerKey = maxActive;
+        activePermits = new Semaphore(maxActive, true);
+
+        evictor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ocr-engine-evictor");
+            t.setDaemon(true);
+            return t;
+        });
+        long period = Math.max(1000, idleTimeoutMs / 2);
+        evictor.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+
+        if (workerProcesses <= 0 && remoteWorkers.isBlank()) prewarmEngines();
+    }
+
+    @PreDestroy
+    void shutdown() {
+        evictor.shutdownNow();
+        for (Slot slot : slots.values()) {
+            PooledEngine pooled;
+            while ((pooled = slot.idle.pollFirst()) != null) {
+                pooled.engine.close();
+            }
+        }
+        slots.clear();
+    }
+
+    public EngineKey keyFor(String language, String mode) {
+        // Script detection needs the legacy engine and the OSD-only page mode
+        if (LanguageRegistry.OSD.equals(language)) {
+            return new EngineKey(LanguageRegistry.OSD, "osd", ITessAPI.TessPageSegMode.PSM_OSD_ONLY,
+                ITessAPI.TessOcrEngineMode.OEM_TESSERACT_ONLY);
+        }
+        // Every non-code mode runs with the configured defaults, so they share engines
+        if ("code".equals(mode)) {
+            return new EngineKey(language, "code", 6, 1);
+        }
+        return new EngineKey(language, "default", Integer.parseInt(psm), Integer.parseInt(oem));
+    }
+
+    public Lease borrow(String language, String mode) throws TesseractException {
+        EngineKey key = keyFor(language, mode);
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(borrowTimeoutMs);
+
+        try {
+            if (!activePermits.tryAcquire(borrowTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new TesseractException("Timed out waiting for an OCR engine");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("Interrupted while waiting for an OCR engine", e);
+        }
+
+        try {
+            Lease lease = new Lease(this, takeEngine(key, deadline));
+            waitTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            return lease;
+        } catch (TesseractException | RuntimeException e) {
+            activePermits.release();
+            throw e;
+        }
+    }
+
+    private OcrEngine takeEngine(EngineKey key, long deadline) throws TesseractException {
+        Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+
+        PooledEngine pooled = slot.idle.pollFirst();
+        if (pooled != null) return pooled.engine;
+
+        if (slot.created.incrementAndGet() <= maxPerKey) {
+            try {
+                return newEngine(key);
+            } catch (TesseractException | RuntimeException | LinkageError e) {
+                slot.created.decrementAndGet();
+                throw e instanceof TesseractException te ? te : new TesseractException(e.getMessage(), e);
+            }
+        }
+        slot.created.decrementAndGet();
+
+        try {
+            pooled = slot.idle.pollFirst(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("Interrupted while waiting for an OCR engine", e);
+        }
+        if (pooled == null) {
+            throw new TesseractException("Timed out waiting for an OCR engine for " + key);
+        }
+        return pooled.engine;
+    }
+
+    private void giveBack(OcrEngine engine, boolean broken) {
+        try {
+            Slot slot = slots.get(engine.getKey());
+            if (broken || slot == null) {
+                engine.close();
+                discarded.increment();
+                if (slot != null) slot.created.decrementAndGet();
+            } else {
+                // LIFO so the most recently used engines stay hot and the rest can age out
+                slot.idle.offerFirst(new PooledEngine(engine, System.currentTimeMillis()));
+            }
+        } finally {
+            activePermits.release();
+        }
+    }
+
+    private OcrEngine newEngine(EngineKey key) throws TesseractException {
+        long start = System.nanoTime();
+        OcrEngine tesseract = new OcrEngine(key);
+
+        String resolvePath = tessdatapath.startsWith("./") || tessdatapath.equals("tessdata")
+            ? System.getProperty("user.dir") + "/tessdata"
+            : tessdatapath;
+        tesseract.setDatapath(resolvePath);
+        tesseract.setLanguage(key.language());
+        tesseract.setPageSegMode(key.psm());
+        tesseract.setOcrEngineMode(key.oem());
+
+        // Optimize for code recognition
+        if ("code".equals(key.mode())) {
+            // Code-specific settings
+            tesseract.setVariable("tessedit_char_blacklist", ""); // Allow all characters
+            tesseract.setVariable("preserve_interword_spaces", "1");
+            tesseract.setVariable("tessedit_enable_dict_correction", "0"); // Disable dictionary for code
+            tesseract.setVariable("tessedit_enable_bigram_correction", "0");
+            tesseract.setVariable("load_system_dawg", "0"); // Disable word lists
+            tesseract.setVariable("load_freq_dawg", "0");
+            tesseract.setVariable("load_punc_dawg", "0");
+            tesseract.setVariable("load_number_dawg", "0");
+            tesseract.setVariable("load_unambig_dawg", "0");
+            tesseract.setVariable("load_bigram_dawg", "0");
+            tesseract.setVariable("load_fixed_length_dawgs", "0");
+        }
+
+        tesseract.setVariable("tessedit_create_hocr", "0");
+        tesseract.setVariable("tessedit_create_pdf", "0");
+        tesseract.setVariable("tessedit_create_tsv", "0");
+
+        if (charWhitelist != null && !charWhitelist.isBlank()){
+            tesseract.setTessVariable("tessedit_char_whitelist", charWhitelist);
+        }
+
+        tesseract.open();
+        createTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        created.increment();
+        return tesseract;
+    }
+
+    // The configured pairs, plus every supported language so that no request has to load
+    // traineddata, plus the script detector when language=auto is on
+    private void prewarmEngines() {
+        Set<EngineKey> keys = new LinkedHashSet<>();
+        if (prewarm != null) {
+            for (String entry : prewarm.split(",")) {
+                String[] parts = entry.trim().split(":");
+                if (parts[0].isEmpty()) continue;
+                keys.add(keyFor(parts[0], parts.length > 1 ? parts[1] : "auto"));
+            }
+        }
+        for (String language : languages.getLanguages()) {
+            keys.add(keyFor(language, "auto"));
+        }
+        if (languages.isAutoDetect()) {
+            keys.add(keyFor(LanguageRegistry.OSD, "osd"));
+        }
+
+        for (EngineKey key : keys) {
+            Slot slot = slots.computeIfAbsent(key, k -> new Slot());
+            while (slot.created.get() < minIdlePerKey) {
+                slot.created.incrementAndGet();
+                try {
+                    slot.idle.offerFirst(new PooledEngine(newEngine(key), System.currentTimeMillis()));
+                } catch (TesseractException | RuntimeException | LinkageError e) {
+                    slot.created.decrementAndGet();
+                    log.warn("Could not pre-warm OCR engine {}: {}", key, e.getMessage());
+                    break;
+                }
+            }
+        }
+    }
+
+    private void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleTimeoutMs;
+        for (Slot slot : slots.values()) {
+            for (PooledEngine pooled : slot.idle) {
+                if (slot.idle.size() <= minIdlePerKey) break;
+                // remove() fails if a borrower grabbed the engine in the meantime
+                if (pooled.lastUsed < cutoff && slot.idle.remove(pooled)) {
+                    pooled.engine.close();
+                    slot.created.decrementAndGet();
+                    evicted.increment();
+                }
+            }
+        }
+    }
+
+    public int getMaxActive() { return maxActive; }
+
+    public int getActiveCount() { return maxActive - activePermits.availablePermits(); }
+
+    public int getIdleCount() {
+        return slots.values().stream().mapToInt(slot -> slot.idle.size()).sum();
+    }
+
+    public int getOpenCount() {
+        return slots.values().stream().mapToInt(slot -> slot.created.get()).sum();
+    }
+
+    private static final class Slot {
+        final LinkedBlockingDeque<PooledEngine> idle = new LinkedBlockingDeque<>();
+        final AtomicInteger created = new AtomicInteger();
+    }
+
+    private record PooledEngine(OcrEngine engine, long lastUsed) {}
+
+    // Exclusive use of one engine; closing the lease returns it to the pool
+    public static final class Lease implements AutoCloseable {
+        private final TesseractEnginePool pool;
+        private final OcrEngine engine;
+        private boolean broken;
+        private boolean closed;
+
+        private Lease(TesseractEnginePool pool, OcrEngine engine) {
+            this.pool = pool;
+            this.engine = engine;
+        }
+
+        public OcrEngine engine() { return engine; }
+
+        // Drop the engine instead of reusing it, e.g. after a native failure
+        public void discard() { broken = true; }
+
+        @Override
+        public void close() {
+            if (closed) return;
+            closed = true;
+            pool.giveBack(engine, broken);
+        }
+    }
+}
@@ -0,0 +1,359 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+// Turns raw Tesseract output into corrected rows in a single pass over the text.
+// Rules come from <location>/<mode>.rules (falling back to default.rules), are compiled
+// once at startup, and runs of consecutive "word" rules are merged into one trie scan.
+@Component
+public class TextCorrectionEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(TextCorrectionEngine.class);
+    private static final String DEFAULT_RULE_SET = "default";
+
+    @Value("${ocr.corrections.location:classpath:ocr/corrections/}")
+    private String location;
+
+    private Map<String, RuleSet> ruleSets = Map.of(DEFAULT_RULE_SET, new RuleSet(List.of()));
+
+    public TextCorrectionEngine() {}
+
+    // For callers outside Spring, e.g. tests and benchmarks
+    public TextCorrectionEngine(String location) throws IOException {
+        this.location = location;
+        load();
+    }
+
+    @PostConstruct
+    void load() throws IOException {
+        String pattern = location.endsWith("/") ? location + "*.rules" : location + "/*.rules";
+        if (pattern.startsWith("classpath:")) {
+            pattern = "classpath*:" + pattern.substring("classpath:".length());
+        }
+
+        Map<String, RuleSet> loaded = new HashMap<>();
+        for (Resource resource : new PathMatchingResourcePatternResolver().getResources(pattern)) {
+            String name = resource.getFilename();
+            if (name == null) continue;
+            try (InputStream in = resource.getInputStream()) {
+                loaded.put(name.substring(0, name.length() - ".rules".length()),
+                    parse(new InputStreamReader(in, StandardCharsets.UTF_8), name));
+            }
+        }
+        if (!loaded.containsKey(DEFAULT_RULE_SET)) {
+            log.warn("No default.rules found under {}; OCR text will not be corrected", location);
+            loaded.put(DEFAULT_RULE_SET, new RuleSet(List.of()));
+        }
+        ruleSets = Map.copyOf(loaded);
+    }
+
+    public List<TextRow> toRows(String rawText, String mode) {
+        if (rawText == null || rawText.isEmpty()) {
+            return Collections.emptyList();
+        }
+        RuleSet rules = ruleSets.getOrDefault(mode, ruleSets.get(DEFAULT_RULE_SET));
+
+        // Line breaks: real newlines, literal "\n" / "\r" sequences, and "| " which OCR
+        // produces for a line separator. Everything else stays inside the line.
+        List<TextRow> rows = new ArrayList<>();
+        int length = rawText.length();
+        int lineStart = 0;
+        int i = 0;
+        while (i <= length) {
+            int breakLength;
+            if (i == length) {
+                breakLength = 1;
+            } else {
+                breakLength = lineBreakAt(rawText, i);
+                // "| " is a separator too, unless its space belongs to a " <break> " that
+                // collapses first, in which case the pipe stays on its line
+                if (breakLength == 0 && rawText.charAt(i) == '|' && i + 1 < length && rawText.charAt(i + 1) == ' ') {
+                    int next = lineBreakAt(rawText, i + 2);
+                    boolean collapses = next > 0 && i + 2 + next < length && rawText.charAt(i + 2 + next) == ' ';
+                    breakLength = collapses ? 0 : 2;
+                }
+            }
+
+            if (breakLength == 0) {
+                i++;
+                continue;
+            }
+
+            String line = rawText.substring(lineStart, i).trim();
+            if (!line.isEmpty()) {
+                String corrected = rules.apply(line).trim();
+                if (!corrected.isEmpty()) {
+                    rows.add(new TextRow(rows.size() + 1, corrected));
+                }
+            }
+            i += breakLength;
+            lineStart = i;
+        }
+        return rows;
+    }
+
+    // One line that is already known to be a line (from Tesseract's layout); "" if nothing is left
+    public String correctLine(String line, String mode) {
+        RuleSet rules = ruleSets.getOrDefault(mode, ruleSets.get(DEFAULT_RULE_SET));
+        String trimmed = line.trim();
+        return trimmed.isEmpty() ? "" : rules.apply(trimmed).trim();
+    }
+
+    // Real newline, or the literal "\n" / "\r" escapes that OCR sometimes emits
+    private static int lineBreakAt(String text, int i) {
+        if (i >= text.length()) return 0;
+        char c = text.charAt(i);
+        if (c == '\n') return 1;
+        if (c == '\\' && i + 1 < text.length() && (text.charAt(i + 1) == 'n' || text.charAt(i + 1) == 'r')) return 2;
+        return 0;
+    }
+
+    static RuleSet parse(Reader source, String name) throws IOException {
+        List<Rule> rules = new ArrayList<>();
+        TreeMap<String, String> pendingWords = null;
+
+        BufferedReader reader = new BufferedReader(source);
+        String line;
+        int lineNo = 0;
+        while ((line = reader.readLine()) != null) {
+            lineNo++;
+            String trimmed = line.trim();
+            if (trimmed.isEmpty() || trimmed.startsWith("#")) continue;
+
+            List<String> fields = splitFields(trimmed);
+            if (fields.size() != 3) {
+                throw new IOException(name + ":" + lineNo + ": expected <kind> <pattern> <replacement>");
+            }
+
+            switch (fields.get(0)) {
+                case "word" -> {
+                    if (pendingWords == null) pendingWords = new TreeMap<>();
+                    pendingWords.put(fields.get(1), fields.get(2));
+                }
+                case "regex" -> {
+                    if (pendingWords != null) {
+                        rules.add(new WordRule(pendingWords));
+                        pendingWords = null;
+                    }
+                    try {
+                        rules.add(new RegexRule(Pattern.compile(fields.get(1)), fields.get(2)));
+                    } catch (PatternSyntaxException e) {
+                        throw new IOException(name + ":" + lineNo + ": " + e.getDescription(), e);
+                    }
+                }
+                default -> throw new IOException(name + ":" + lineNo + ": unknown rule kind " + fields.get(0));
+            }
+        }
+        if (pendingWords != null) {
+            rules.add(new WordRule(pendingWords));
+        }
+        return new RuleSet(rules);
+    }
+
+    private static List<String> splitFields(String line) {
+        List<String> fields = new ArrayList<>(3);
+        int i = 0;
+        while (i < line.length()) {
+            char c = line.charAt(i);
+            if (Character.isWhitespace(c)) {
+                i++;
+            } else if (c == '"') {
+                int end = line.indexOf('"', i + 1);
+                if (end == -1) end = line.length();
+                fields.add(line.substring(i + 1, end));
+                i = end + 1;
+            } else {
+                int end = i;
+                while (end < line.length() && !Character.isWhitespace(line.charAt(end))) end++;
+                fields.add(line.substring(i, end));
+                i = end;
+            }
+        }
+        return fields;
+    }
+
+    // Same notion of a word character as \b in java.util.regex
+    static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_';
+    }
+
+    static final class RuleSet {
+        private final Rule[] rules;
+
+        RuleSet(List<Rule> rules) {
+            this.rules = rules.toArray(new Rule[0]);
+        }
+
+        String apply(String line) {
+            for (Rule rule : rules) {
+                line = rule.apply(line);
+            }
+            return line;
+        }
+    }
+
+    interface Rule {
+        String apply(String text);
+    }
+
+    private static final class RegexRule implements Rule {
+        private final Pattern pattern;
+        private final String replacement;
+        private final int requiredChar;
+
+        RegexRule(Pattern pattern, String replacement) {
+            this.pattern = pattern;
+            this.replacement = Matcher.quoteReplacement(replacement);
+            this.requiredChar = requiredLiteral(pattern.pattern());
+        }
+
+        @Override
+        public String apply(String text) {
+            // Most rules target one punctuation char; skip the regex when it cannot match
+            if (requiredChar >= 0 && text.indexOf(requiredChar) < 0) return text;
+            Matcher m = pattern.matcher(text);
+            return m.find() ? m.replaceAll(replacement) : text;
+        }
+    }
+
+    // First literal char every match must contain, or -1 when that is not obvious.
+    // Groups are skipped, a quantified literal is optional, and alternation gives up.
+    static int requiredLiteral(String regex) {
+        int found = -1;
+        int i = 0;
+        while (i < regex.length()) {
+            char c = regex.charAt(i);
+            int literal = -1;
+            int next = i + 1;
+
+            if (c == '\\' && i + 1 < regex.length()) {
+                char escaped = regex.charAt(i + 1);
+                if (!Character.isLetterOrDigit(escaped)) literal = escaped;
+                else if ("sSwWdDbB".indexOf(escaped) < 0) return -1;
+                next = i + 2;
+            } else if (c == '(') {
+                // inline flags such as (?i) change how literals match
+                if (regex.startsWith("(?", i) && i + 2 < regex.length()
+                        && (Character.isLetter(regex.charAt(i + 2)) || regex.charAt(i + 2) == '-')) {
+                    return -1;
+                }
+                int depth = 0;
+                for (next = i; next < regex.length(); next++) {
+                    char g = regex.charAt(next);
+                    if (g == '\\') next++;
+                    else if (g == '(') depth++;
+                    else if (g == ')' && --depth == 0) break;
+                }
+                next++;
+            } else if (c == '[') {
+                next = regex.indexOf(']', i + 2) + 1;
+                if (next == 0) return -1;
+            } else if (c == '|') {
+                return -1;
+            } else if (".^$*+?{}".indexOf(c) < 0) {
+                literal = c;
+            }
+
+            boolean optional = next < regex.length() && "*?{".indexOf(regex.charAt(next)) >= 0;
+            if (found < 0 && literal >= 0 && !optional) found = literal;
+            i = next;
+        }
+        return found;
+    }
+
+    // Whole-word replacements looked up in a trie while scanning each token once
+    private static final class WordRule implements Rule {
+        private final TrieNode root = new TrieNode();
+
+        WordRule(Map<String, String> words) {
+            words.forEach(this::insert);
+            root.freeze();
+        }
+
+        private void insert(String word, String replacement) {
+            TrieNode node = root;
+            for (int i = 0; i < word.length(); i++) {
+                node = node.building.computeIfAbsent(word.charAt(i), c -> new TrieNode());
+            }
+            node.replacement = replacement;
+        }
+
+        @Override
+        public String apply(String text) {
+            StringBuilder out = null;
+            int copied = 0;
+            int length = text.length();
+            int i = 0;
+
+            while (i < length) {
+                if (!isWordChar(text.charAt(i))) {
+                    i++;
+                    continue;
+                }
+                int end = i;
+                TrieNode node = root;
+                while (end < length && isWordChar(text.charAt(end))) {
+                    if (node != null) node = node.child(text.charAt(end));
+                    end++;
+                }
+                if (node != null && node.replacement != null) {
+                    if (out == null) out = new StringBuilder(length + 8);
+                    out.append(text, copied, i).append(node.replacement);
+                    copied = end;
+                }
+                i = end;
+            }
+
+            if (out == null) return text;
+            return out.append(text, copied, length).toString();
+        }
+    }
+
+    private static final class TrieNode {
+        private TreeMap<Character, TrieNode> building = new TreeMap<>();
+        private char[] keys;
+        private TrieNode[] children;
+        private String replacement;
+
+        void freeze() {
+            keys = new char[building.size()];
+            children = new TrieNode[building.size()];
+            int i = 0;
+            for (Map.Entry<Character, TrieNode> e : building.entrySet()) {
+                keys[i] = e.getKey();
+                children[i++] = e.getValue();
+                e.getValue().freeze();
+            }
+            building = null;
+        }
+
+        TrieNode child(char c) {
+            int idx = Arrays.binarySearch(keys, c);
+            return idx >= 0 ? children[idx] : null;
+        }
+    }
+}
@@ -0,0 +1,298 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.util.GrayImageOps;
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+// Finds blocks of text in a preprocessed raster so only those areas go to Tesseract.
+// Works on a box-downsampled copy: text is where the morphological gradient (3x3 dilate
+// minus erode) is strong; short horizontal gaps are closed so glyphs join into lines,
+// lines are found as connected components of pixel runs, and lines close to each other
+// are merged into blocks.
+@Component
+public class TextRegionDetector {
+
+    @Value("${ocr.regions.enabled:true}")
+    private boolean enabled = true;
+
+    // Gradient strength below which a pixel never counts as an edge
+    @Value("${ocr.regions.min-gradient:32}")
+    private int minGradient = 32;
+
+    // Gaps in preprocessed pixels: closed between glyphs of a line, and allowed between
+    // lines (or words spread across a line) of one block
+    @Value("${ocr.regions.close-gap:24}")
+    private int closeGap = 24;
+
+    @Value("${ocr.regions.merge-gap-x:64}")
+    private int mergeGapX = 64;
+
+    @Value("${ocr.regions.merge-gap-y:40}")
+    private int mergeGapY = 40;
+
+    // Detection runs at 1/downsample of the preprocessed size; after adaptive scaling the
+    // x-height is ~22 px, which leaves ~7 px to work with at the default of 3
+    @Value("${ocr.regions.downsample:3}")
+    private int downsample = 3;
+
+    @Value("${ocr.regions.padding:8}")
+    private int padding = 8;
+
+    // Beyond this many blocks, or this much of the frame, one full-frame pass is cheaper
+    @Value("${ocr.regions.max-regions:24}")
+    private int maxRegions = 24;
+
+    @Value("${ocr.regions.max-coverage:0.6}")
+    private double maxCoverage = 0.6;
+
+    // Larger buffers (all four together) are used once and dropped instead of being pinned
+    // to the thread
+    @Value("${ocr.preprocess.max-retained-bytes:16777216}")
+    private int maxRetainedBytes = 16_777_216;
+
+    private static final int MAX_COMPONENTS = 2000;
+    // In downsampled pixels
+    private static final int MIN_LINE_HEIGHT = 3;
+    private static final int MIN_LINE_WIDTH = 3;
+
+    private final ThreadLocal<byte[][]> buffers = new ThreadLocal<>();
+
+    public boolean isEnabled() { return enabled; }
+
+    // Blocks in reading order; empty when the raster has no text-like structure, and the
+    // whole raster when splitting would not pay off
+    public List<Rectangle> detect(GrayRaster raster) {
+        int w = raster.getWidth();
+        int h = raster.getHeight();
+        Rectangle full = new Rectangle(0, 0, w, h);
+        if (!enabled || w < 3 || h < 3) return List.of(full);
+
+        int k = Math.max(1, Math.min(downsample, Math.min(w, h) / 3));
+        int sw = (w + k - 1) / k;
+        int sh = (h + k - 1) / k;
+        byte[][] buf = buffers(sw * sh);
+        byte[] small = raster.getData();
+        if (k > 1) {
+            small = buf[3];
+            GrayImageOps.downsample(raster.getData(), w, h, k, small);
+        }
+
+        byte[] edges = buf[0];
+        gradient(small, sw, sh, buf[1], buf[2], edges);
+        threshold(edges, sw * sh);
+        closeRows(edges, sw, sh, ceilDiv(closeGap, k));
+
+        List<Rectangle> lines = lineComponents(edges, sw, sh);
+        if (lines == null) return List.of(full);
+        if (lines.isEmpty()) return List.of();
+
+        List<Rectangle> blocks = mergeBlocks(lines, ceilDiv(mergeGapX, k), ceilDiv(mergeGapY, k));
+        long covered = 0;
+        for (int i = 0; i < blocks.size(); i++) {
+            Rectangle b = blocks.get(i);
+            b = new Rectangle(b.x * k - padding, b.y * k - padding,
+                b.width * k + 2 * padding, b.height * k + 2 * padding).intersection(full);
+            blocks.set(i, b);
+            covered += (long) b.width * b.height;
+        }
+        if (blocks.size() > maxRegions || covered > maxCoverage * w * h) {
+            return List.of(full);
+        }
+
+        blocks.sort(Comparator.comparingInt((Rectangle r) -> r.y).thenComparingInt(r -> r.x));
+        return blocks;
+    }
+
+    private static int ceilDiv(int a, int b) {
+        return (a + b - 1) / b;
+    }
+
+    private byte[][] buffers(int size) {
+        byte[][] buf = buffers.get();
+        if (buf == null || buf[0].length < size) {
+            buf = new byte[][]{new byte[size], new byte[size], new byte[size], new byte[size]};
+            if (4L * size <= maxRetainedBytes) buffers.set(buf);
+        }
+        return buf;
+    }
+
+    // Separable 3x3 max/min: rowMax/rowMin hold the horizontal pass, out gets max - min
+    static void gradient(byte[] src, int w, int h, byte[] rowMax, byte[] rowMin, byte[] out) {
+        for (int y = 0; y < h; y++) {
+            int row = y * w;
+            for (int x = 0; x < w; x++) {
+                int a = src[row + Math.max(0, x - 1)] & 0xff;
+                int b = src[row + x] & 0xff;
+                int c = src[row + Math.min(w - 1, x + 1)] & 0xff;
+                rowMax[row + x] = (byte) Math.max(a, Math.max(b, c));
+                rowMin[row + x] = (byte) Math.min(a, Math.min(b, c));
+            }
+        }
+        for (int y = 0; y < h; y++) {
+            int up = Math.max(0, y - 1) * w;
+            int row = y * w;
+            int down = Math.min(h - 1, y + 1) * w;
+            for (int x = 0; x < w; x++) {
+                int max = Math.max(rowMax[up + x] & 0xff, Math.max(rowMax[row + x] & 0xff, rowMax[down + x] & 0xff));
+                int min = Math.min(rowMin[up + x] & 0xff, Math.min(rowMin[row + x] & 0xff, rowMin[down + x] & 0xff));
+                out[row + x] = (byte) (max - min);
+            }
+        }
+    }
+
+    // Edge pixels become 1, the rest 0
+    private void threshold(byte[] edges, int length) {
+        int t = Math.max(minGradient, GrayImageOps.otsuThreshold(edges, length));
+        for (int i = 0; i < length; i++) {
+            edges[i] = (edges[i] & 0xff) > t ? (byte) 1 : 0;
+        }
+    }
+
+    // Fills horizontal gaps up to maxGap between edge pixels of the same row
+    static void closeRows(byte[] mask, int w, int h, int maxGap) {
+        for (int y = 0; y < h; y++) {
+            int row = y * w;
+            int last = -1;
+            for (int x = 0; x < w; x++) {
+                if (mask[row + x] == 0) continue;
+                if (last >= 0 && x - last > 1 && x - last <= maxGap) {
+                    Arrays.fill(mask, row + last + 1, row + x, (byte) 1);
+                }
+                last = x;
+            }
+        }
+    }
+
+    // Bounding boxes of 8-connected components, built from horizontal runs with union-find
+    // over runs so memory grows with the number of runs rather than pixels. Returns null
+    // when the frame is too busy to be text.
+    private List<Rectangle> lineComponents(byte[] mask, int w, int h) {
+        IntList runY = new IntList();
+        IntList runX0 = new IntList();
+        IntList runX1 = new IntList();
+        IntList parent = new IntList();
+
+        int prevStart = 0;
+        int prevEnd = 0;
+        for (int y = 0; y < h; y++) {
+            int rowStart = runY.size();
+            int row = y * w;
+            int p = prevStart;
+            int x = 0;
+            while (x < w) {
+                if (mask[row + x] == 0) {
+                    x++;
+                    continue;
+                }
+                int x0 = x;
+                while (x < w && mask[row + x] != 0) x++;
+                int id = runY.size();
+                runY.add(y);
+                runX0.add(x0);
+                runX1.add(x - 1);
+                parent.add(id);
+
+                // Runs of the previous row touching [x0 - 1, x] (8-connectivity)
+                while (p < prevEnd && runX1.get(p) < x0 - 1) p++;
+                for (int q = p; q < prevEnd && runX0.get(q) <= x; q++) {
+                    union(parent, id, q);
+                }
+            }
+            prevStart = rowStart;
+            prevEnd = runY.size();
+        }
+
+        int runs = runY.size();
+        int[] boxIndex = new int[runs];
+        Arrays.fill(boxIndex, -1);
+        List<int[]> boxes = new ArrayList<>(); // minX, minY, maxX, maxY, pixels
+        for (int i = 0; i < runs; i++) {
+            int root = find(parent, i);
+            int[] box;
+            if (boxIndex[root] < 0) {
+                if (boxes.size() >= MAX_COMPONENTS) return null;
+                boxIndex[root] = boxes.size();
+                box = new int[]{Integer.MAX_VALUE, Integer.MAX_VALUE, -1, -1, 0};
+                boxes.add(box);
+            } else {
+                box = boxes.get(boxIndex[root]);
+            }
+            box[0] = Math.min(box[0], runX0.get(i));
+            box[1] = Math.min(box[1], runY.get(i));
+            box[2] = Math.max(box[2], runX1.get(i));
+            box[3] = Math.max(box[3], runY.get(i));
+            box[4] += runX1.get(i) - runX0.get(i) + 1;
+        }
+
+        List<Rectangle> lines = new ArrayList<>();
+        for (int[] box : boxes) {
+            int bw = box[2] - box[0] + 1;
+            int bh = box[3] - box[1] + 1;
+            // Drops specks, rule lines and sparse outlines such as panel borders
+            if (bh < MIN_LINE_HEIGHT || bw < MIN_LINE_WIDTH) continue;
+            if (box[4] < (long) bw * bh / 5) continue;
+            lines.add(new Rectangle(box[0], box[1], bw, bh));
+        }
+        return lines;
+    }
+
+    // Merges boxes whose gap is within gapX horizontally and gapY vertically
+    private static List<Rectangle> mergeBlocks(List<Rectangle> lines, int gapX, int gapY) {
+        int gx = gapX + 1;
+        int gy = gapY + 1;
+        List<Rectangle> blocks = new ArrayList<>(lines);
+        boolean merged = true;
+        while (merged) {
+            merged = false;
+            for (int i = 0; i < blocks.size(); i++) {
+                Rectangle a = blocks.get(i);
+                Rectangle reach = new Rectangle(a.x - gx, a.y - gy, a.width + 2 * gx, a.height + 2 * gy);
+                for (int j = i + 1; j < blocks.size(); j++) {
+                    if (reach.intersects(blocks.get(j))) {
+                        a = a.union(blocks.remove(j--));
+                        reach = new Rectangle(a.x - gx, a.y - gy, a.width + 2 * gx, a.height + 2 * gy);
+                        merged = true;
+                    }
+                }
+                blocks.set(i, a);
+            }
+        }
+        return blocks;
+    }
+
+    private static int find(IntList parent, int i) {
+        while (parent.get(i) != i) {
+            int grand = parent.get(parent.get(i));
+            parent.set(i, grand);
+            i = grand;
+        }
+        return i;
+    }
+
+    private static void union(IntList parent, int a, int b) {
+        int ra = find(parent, a);
+        int rb = find(parent, b);
+        if (ra != rb) parent.set(Math.max(ra, rb), Math.min(ra, rb));
+    }
+
+    private static final class IntList {
+        private int[] data = new int[256];
+        private int size;
+
+        void add(int v) {
+            if (size == data.length) data = Arrays.copyOf(data, size * 2);
+            data[size++] = v;
+        }
+
+        int get(int i) { return data[i]; }
+        void set(int i, int v) { data[i] = v; }
+        int size() { return size; }
+    }
+}
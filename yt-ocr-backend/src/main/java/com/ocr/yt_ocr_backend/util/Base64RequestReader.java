@@ -0,0 +1,324 @@
+package com.ocr.yt_ocr_backend.util;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Base64;
+import java.util.function.UnaryOperator;
+
+// Reads the JSON body of a base64 OCR request straight from the request stream. The
+// imageBase64 value is base64-decoded and fed to the image reader while it streams in,
+// so the payload never exists as a String or as a second byte[]. Only the flat request
+// object is understood; unknown fields are skipped. The language is resolved as soon as
+// its field is read, so a request that names it before the image is refused with
+// unsupported_language without decoding anything.
+public final class Base64RequestReader {
+
+    private static final int MAX_FIELD_LENGTH = 256;
+    private static final int MAX_PREFIX_LENGTH = 128;
+    private static final byte[] DATA_URL = {'d', 'a', 't', 'a', ':'};
+
+    public record Parsed(BufferedImage image, String language, String mode, boolean includeStages,
+                         boolean includeBoxes, float minConfidence, String videoId, Long videoTimeMs,
+                         String since) {}
+
+    private final InputStream in;
+    private final long maxImageBytes;
+    private final long maxPixels;
+    private final UnaryOperator<String> languages;
+    private final byte[] buf = new byte[8192];
+    private int pos;
+    private int limit;
+
+    private Base64RequestReader(InputStream in, long maxImageBytes, long maxPixels, UnaryOperator<String> languages) {
+        this.in = in;
+        this.maxImageBytes = maxImageBytes;
+        this.maxPixels = maxPixels;
+        this.languages = languages;
+    }
+
+    // The language as sent
+    public static Parsed read(InputStream body, long maxImageBytes, long maxPixels) throws IOException {
+        return read(body, maxImageBytes, maxPixels, UnaryOperator.identity());
+    }
+
+    // languages maps the sent value (null when absent) to the language to run, or to null
+    // when it is not supported
+    public static Parsed read(InputStream body, long maxImageBytes, long maxPixels,
+                              UnaryOperator<String> languages) throws IOException {
+        return new Base64RequestReader(body, maxImageBytes, maxPixels, languages).readObject();
+    }
+
+    private Parsed readObject() throws IOException {
+        BufferedImage image = null;
+        String language = null;
+        boolean hasLanguage = false;
+        String mode = "auto";
+        boolean includeStages = false;
+        boolean includeBoxes = false;
+        float minConfidence = 0;
+        String videoId = null;
+        Long videoTimeMs = null;
+        String since = null;
+
+        expect(nextToken(), '{');
+        int c = nextToken();
+        while (c != '}') {
+            expect(c, '"');
+            String key = readString();
+            expect(nextToken(), ':');
+            c = nextToken();
+            switch (key) {
+                case "imageBase64" -> {
+                    if (c == '"') image = readImage();
+                    else skipValue(c);
+                }
+                case "language" -> {
+                    language = resolveLanguage(stringOrNull(c));
+                    hasLanguage = true;
+                }
+                case "mode" -> mode = stringOrNull(c);
+                case "includeStages" -> includeStages = "true".equals(c == '"' ? readString() : skipValue(c));
+                case "includeBoxes" -> includeBoxes = "true".equals(c == '"' ? readString() : skipValue(c));
+                case "minConfidence" -> minConfidence = parseFloat(c == '"' ? readString() : skipValue(c));
+                case "videoId" -> videoId = stringOrNull(c);
+                case "videoTimeMs" -> videoTimeMs = parseLong(c == '"' ? readString() : skipValue(c));
+                case "since" -> since = stringOrNull(c);
+                default -> skipValue(c);
+            }
+            c = nextToken();
+            if (c == ',') c = nextToken();
+            else expect(c, '}');
+        }
+
+        if (image == null) {
+            throw new ImageRejectedException("invalid_base64", "Request has no image");
+        }
+        if (!hasLanguage) language = resolveLanguage(null);
+        return new Parsed(image, language, mode, includeStages, includeBoxes, minConfidence, videoId, videoTimeMs, since);
+    }
+
+    private String resolveLanguage(String requested) throws ImageRejectedException {
+        String language = languages.apply(requested);
+        if (language == null) {
+            throw new ImageRejectedException("unsupported_language", "Language not supported: " + requested);
+        }
+        return language;
+    }
+
+    private static float parseFloat(String value) throws IOException {
+        if (value.isEmpty() || value.equals("null")) return 0;
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Not a number: " + value);
+        }
+    }
+
+    private static Long parseLong(String value) throws IOException {
+        if (value.isEmpty() || value.equals("null")) return null;
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IOException("Not a whole number: " + value);
+        }
+    }
+
+    private BufferedImage readImage() throws IOException {
+        skipDataUrlPrefix();
+        Base64Chars chars = new Base64Chars((maxImageBytes + 2) / 3 * 4);
+        BufferedImage image;
+        try {
+            image = ImageUtils.readImage(Base64.getMimeDecoder().wrap(chars), maxPixels);
+        } catch (ImageRejectedException e) {
+            throw e;
+        } catch (IOException | IllegalArgumentException e) {
+            // Image readers wrap what the stream throws, so a size rejection can arrive as a cause
+            for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+                if (cause instanceof ImageRejectedException rejected) throw rejected;
+            }
+            throw new ImageRejectedException("invalid_base64", "Image could not be decoded: " + e.getMessage());
+        }
+        // The image reader stops at the end of the image; trailing characters are skipped
+        while (chars.read() >= 0) { }
+        return image;
+    }
+
+    private void skipDataUrlPrefix() throws IOException {
+        if (!fillTo(DATA_URL.length)) return;
+        for (int i = 0; i < DATA_URL.length; i++) {
+            if (buf[pos + i] != DATA_URL[i]) return;
+        }
+        // "data:image/png;base64,"
+        for (int n = 0; n < MAX_PREFIX_LENGTH; n++) {
+            int c = next();
+            if (c == ',') return;
+            if (c < 0 || c == '"') break;
+        }
+        throw new ImageRejectedException("invalid_base64", "Malformed data URL");
+    }
+
+    // The characters of the JSON string holding the image, unescaped, ending at the closing quote
+    private final class Base64Chars extends InputStream {
+
+        private final long maxChars;
+        private long count;
+        private boolean ended;
+
+        Base64Chars(long maxChars) {
+            this.maxChars = maxChars;
+        }
+
+        @Override
+        public int read() throws IOException {
+            while (!ended) {
+                int c = next();
+                if (c < 0) throw new IOException("Unterminated string");
+                if (c == '"') {
+                    ended = true;
+                    break;
+                }
+                if (c == '\\') c = unescape();
+                // Line breaks and padding characters never count towards the size
+                if (c <= ' ') continue;
+                if (c != '=' && ++count > maxChars) {
+                    throw new ImageRejectedException("file_too_large", "Image exceeds " + maxImageBytes + " bytes");
+                }
+                return c;
+            }
+            return -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            int n = 0;
+            while (n < len) {
+                int c = read();
+                if (c < 0) return n == 0 ? -1 : n;
+                b[off + n++] = (byte) c;
+            }
+            return n;
+        }
+    }
+
+    private String stringOrNull(int c) throws IOException {
+        if (c == '"') return readString();
+        skipValue(c);
+        return null;
+    }
+
+    // Bytes are taken as Latin-1: only ASCII keys and values (language, mode) matter here
+    private String readString() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        while (true) {
+            int c = next();
+            if (c < 0) throw new IOException("Unterminated string");
+            if (c == '"') return sb.toString();
+            if (c == '\\') c = unescape();
+            if (sb.length() >= MAX_FIELD_LENGTH) {
+                throw new ImageRejectedException("invalid_request", "Field value too long");
+            }
+            sb.append((char) c);
+        }
+    }
+
+    private int unescape() throws IOException {
+        int c = next();
+        return switch (c) {
+            case '"', '\\', '/' -> c;
+            case 'b' -> '\b';
+            case 'f' -> '\f';
+            case 'n' -> '\n';
+            case 'r' -> '\r';
+            case 't' -> '\t';
+            case 'u' -> {
+                int value = 0;
+                for (int i = 0; i < 4; i++) {
+                    int digit = Character.digit(next(), 16);
+                    if (digit < 0) throw new IOException("Bad unicode escape");
+                    value = value * 16 + digit;
+                }
+                yield value;
+            }
+            default -> throw new IOException("Bad escape");
+        };
+    }
+
+    // Returns the literal for true/false/null/numbers, "" for strings, objects and arrays
+    private String skipValue(int c) throws IOException {
+        if (c == '"') {
+            skipString();
+            return "";
+        }
+        if (c == '{' || c == '[') {
+            int depth = 1;
+            while (depth > 0) {
+                int d = next();
+                if (d < 0) throw new IOException("Unterminated value");
+                if (d == '"') skipString();
+                else if (d == '{' || d == '[') depth++;
+                else if (d == '}' || d == ']') depth--;
+            }
+            return "";
+        }
+
+        StringBuilder sb = new StringBuilder();
+        sb.append((char) c);
+        while (true) {
+            int d = next();
+            if (d < 0) break;
+            if (!Character.isLetterOrDigit(d) && d != '.' && d != '-' && d != '+') {
+                pos--;
+                break;
+            }
+            if (sb.length() >= MAX_FIELD_LENGTH) throw new IOException("Literal too long");
+            sb.append((char) d);
+        }
+        return sb.toString();
+    }
+
+    private void skipString() throws IOException {
+        while (true) {
+            int c = next();
+            if (c < 0) throw new IOException("Unterminated string");
+            if (c == '"') return;
+            if (c == '\\') next();
+        }
+    }
+
+    private int nextToken() throws IOException {
+        while (true) {
+            int c = next();
+            if (c < 0) throw new IOException("Unexpected end of request");
+            if (c != ' ' && c != '\n' && c != '\r' && c != '\t') return c;
+        }
+    }
+
+    private static void expect(int c, char expected) throws IOException {
+        if (c != expected) throw new IOException("Malformed request JSON");
+    }
+
+    private int next() throws IOException {
+        if (pos == limit) {
+            int n = in.read(buf, 0, buf.length);
+            if (n <= 0) return -1;
+            pos = 0;
+            limit = n;
+        }
+        return buf[pos++] & 0xff;
+    }
+
+    // Makes at least count bytes available from pos without consuming them
+    private boolean fillTo(int count) throws IOException {
+        if (limit - pos >= count) return true;
+        System.arraycopy(buf, pos, buf, 0, limit - pos);
+        limit -= pos;
+        pos = 0;
+        while (limit < count) {
+            int n = in.read(buf, limit, buf.length - limit);
+            if (n <= 0) return false;
+            limit += n;
+        }
+        return true;
+    }
+}
@@ -0,0 +1,46 @@
+package com.ocr.yt_ocr_backend.util;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+// Fails with file_too_large once more than max bytes have been read, so a body without
+// (or with a false) Content-Length cannot grow past the limit while it is being bound
+public final class BoundedInputStream extends FilterInputStream {
+
+    private final long max;
+    private long count;
+
+    public BoundedInputStream(InputStream in, long max) {
+        super(in);
+        this.max = max;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b >= 0) count(1);
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) count(n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    private void count(long n) throws ImageRejectedException {
+        count += n;
+        if (count > max) {
+            throw new ImageRejectedException("file_too_large", "Request body exceeds " + max + " bytes");
+        }
+    }
+}
@@ -0,0 +1,342 @@
+package com.ocr.yt_ocr_backend.util;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.awt.image.DataBufferInt;
+import java.awt.image.PixelInterleavedSampleModel;
+import java.awt.image.Raster;
+import java.awt.image.SinglePixelPackedSampleModel;
+import java.util.Arrays;
+
+// Raster operations on 8-bit gray buffers. Every method writes into a caller supplied
+// array so the preprocessing pipeline can reuse its buffers between requests.
+public final class GrayImageOps {
+
+    private GrayImageOps() {}
+
+    // Luma (BT.601, fixed point); transparent pixels are composited over black
+    public static void toGray(BufferedImage src, byte[] dst) {
+        int w = src.getWidth();
+        int h = src.getHeight();
+        Raster raster = src.getRaster();
+
+        switch (src.getType()) {
+            case BufferedImage.TYPE_BYTE_GRAY -> {
+                if (raster.getDataBuffer() instanceof DataBufferByte db
+                        && raster.getSampleModel() instanceof PixelInterleavedSampleModel sm
+                        && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0) {
+                    byte[] data = db.getData();
+                    int stride = sm.getScanlineStride();
+                    int offset = db.getOffset() + sm.getBandOffsets()[0];
+                    for (int y = 0; y < h; y++) {
+                        System.arraycopy(data, offset + y * stride, dst, y * w, w);
+                    }
+                    return;
+                }
+            }
+            case BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_ARGB_PRE -> {
+                if (raster.getDataBuffer() instanceof DataBufferInt db
+                        && raster.getSampleModel() instanceof SinglePixelPackedSampleModel sm
+                        && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0) {
+                    int[] data = db.getData();
+                    int stride = sm.getScanlineStride();
+                    int offset = db.getOffset();
+                    boolean alpha = src.getType() == BufferedImage.TYPE_INT_ARGB;
+                    for (int y = 0; y < h; y++) {
+                        int in = offset + y * stride;
+                        int out = y * w;
+                        for (int x = 0; x < w; x++) {
+                            dst[out + x] = (byte) luma(data[in + x], alpha);
+                        }
+                    }
+                    return;
+                }
+            }
+            case BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR -> {
+                if (raster.getDataBuffer() instanceof DataBufferByte db
+                        && raster.getSampleModel() instanceof PixelInterleavedSampleModel sm
+                        && raster.getSampleModelTranslateX() == 0 && raster.getSampleModelTranslateY() == 0) {
+                    byte[] data = db.getData();
+                    int stride = sm.getScanlineStride();
+                    int pixelStride = sm.getPixelStride();
+                    int[] bands = sm.getBandOffsets(); // r, g, b[, a]
+                    int offset = db.getOffset();
+                    boolean alpha = bands.length == 4;
+                    for (int y = 0; y < h; y++) {
+                        int in = offset + y * stride;
+                        int out = y * w;
+                        for (int x = 0; x < w; x++, in += pixelStride) {
+                            int r = data[in + bands[0]] & 0xff;
+                            int g = data[in + bands[1]] & 0xff;
+                            int b = data[in + bands[2]] & 0xff;
+                            int l = (r * 77 + g * 150 + b * 29) >> 8;
+                            if (alpha) l = l * (data[in + bands[3]] & 0xff) / 255;
+                            dst[out + x] = (byte) l;
+                        }
+                    }
+                    return;
+                }
+            }
+            default -> { }
+        }
+
+        // Indexed, 16-bit and other layouts go through the color model
+        int[] row = new int[w];
+        for (int y = 0; y < h; y++) {
+            src.getRGB(0, y, w, 1, row, 0, w);
+            int out = y * w;
+            for (int x = 0; x < w; x++) {
+                dst[out + x] = (byte) luma(row[x], true);
+            }
+        }
+    }
+
+    private static int luma(int argb, boolean alpha) {
+        int l = (((argb >> 16) & 0xff) * 77 + ((argb >> 8) & 0xff) * 150 + (argb & 0xff) * 29) >> 8;
+        return alpha ? l * (argb >>> 24) / 255 : l;
+    }
+
+    // Lookup table for out = clamp(in * contrast + offset)
+    public static byte[] contrastLut(float contrast, float offset) {
+        byte[] lut = new byte[256];
+        for (int i = 0; i < 256; i++) {
+            lut[i] = (byte) Math.max(0, Math.min(255, Math.round(i * contrast + offset)));
+        }
+        return lut;
+    }
+
+    // Bilinear resize of src (sw x sh) into dst (dw x dh) with the LUT applied on the way out
+    public static void scale(byte[] src, int sw, int sh, byte[] dst, int dw, int dh, byte[] lut) {
+        if (sw == dw && sh == dh) {
+            int n = sw * sh;
+            for (int i = 0; i < n; i++) {
+                dst[i] = lut[src[i] & 0xff];
+            }
+            return;
+        }
+
+        // 8-bit fixed point source coordinates for each destination column
+        int[] x0 = new int[dw];
+        int[] fx = new int[dw];
+        for (int x = 0; x < dw; x++) {
+            int sx = (int) (((x + 0.5) * sw / dw - 0.5) * 256);
+            if (sx < 0) sx = 0;
+            x0[x] = Math.min(sw - 1, sx >> 8);
+            fx[x] = x0[x] == sw - 1 ? 0 : sx & 0xff;
+        }
+
+        for (int y = 0; y < dh; y++) {
+            int sy = (int) (((y + 0.5) * sh / dh - 0.5) * 256);
+            if (sy < 0) sy = 0;
+            int y0 = Math.min(sh - 1, sy >> 8);
+            int fy = y0 == sh - 1 ? 0 : sy & 0xff;
+            int row0 = y0 * sw;
+            int row1 = fy == 0 ? row0 : row0 + sw;
+            int out = y * dw;
+
+            for (int x = 0; x < dw; x++) {
+                int a = x0[x];
+                int b = fx[x] == 0 ? a : a + 1;
+                int top = (src[row0 + a] & 0xff) * (256 - fx[x]) + (src[row0 + b] & 0xff) * fx[x];
+                int bottom = (src[row1 + a] & 0xff) * (256 - fx[x]) + (src[row1 + b] & 0xff) * fx[x];
+                int v = (top * (256 - fy) + bottom * fy + (1 << 15)) >> 16;
+                dst[out + x] = lut[v];
+            }
+        }
+    }
+
+    // Mean of each tile x tile block (edge tiles are partial), row-major into out,
+    // which needs ceil(w / tile) * ceil(h / tile) entries
+    public static void tileMeans(byte[] data, int w, int h, int tile, int[] out) {
+        int tilesX = (w + tile - 1) / tile;
+        int tilesY = (h + tile - 1) / tile;
+        Arrays.fill(out, 0, tilesX * tilesY, 0);
+        for (int y = 0; y < h; y++) {
+            int row = y * w;
+            int tileRow = (y / tile) * tilesX;
+            for (int tx = 0; tx < tilesX; tx++) {
+                int end = row + Math.min(w, (tx + 1) * tile);
+                int sum = 0;
+                for (int i = row + tx * tile; i < end; i++) sum += data[i] & 0xff;
+                out[tileRow + tx] += sum;
+            }
+        }
+        for (int ty = 0; ty < tilesY; ty++) {
+            int th = Math.min(tile, h - ty * tile);
+            for (int tx = 0; tx < tilesX; tx++) {
+                int tw = Math.min(tile, w - tx * tile);
+                out[ty * tilesX + tx] /= tw * th;
+            }
+        }
+    }
+
+    // Box-filter reduction by an integer factor into dst of ceil(w / factor) x ceil(h / factor);
+    // edge cells average only the pixels they cover
+    public static void downsample(byte[] src, int w, int h, int factor, byte[] dst) {
+        int dw = (w + factor - 1) / factor;
+        int dh = (h + factor - 1) / factor;
+        int[] sums = new int[dw];
+        for (int dy = 0; dy < dh; dy++) {
+            Arrays.fill(sums, 0);
+            int y0 = dy * factor;
+            int y1 = Math.min(h, y0 + factor);
+            for (int y = y0; y < y1; y++) {
+                int row = y * w;
+                for (int dx = 0; dx < dw; dx++) {
+                    int end = row + Math.min(w, (dx + 1) * factor);
+                    int sum = 0;
+                    for (int i = row + dx * factor; i < end; i++) sum += src[i] & 0xff;
+                    sums[dx] += sum;
+                }
+            }
+            int out = dy * dw;
+            for (int dx = 0; dx < dw; dx++) {
+                int cells = (y1 - y0) * (Math.min(w, (dx + 1) * factor) - dx * factor);
+                dst[out + dx] = (byte) (sums[dx] / cells);
+            }
+        }
+    }
+
+    public static int otsuThreshold(byte[] data, int length) {
+        int[] histogram = new int[256];
+        for (int i = 0; i < length; i++) {
+            histogram[data[i] & 0xff]++;
+        }
+
+        long total = length;
+        long sumAll = 0;
+        for (int i = 0; i < 256; i++) sumAll += (long) i * histogram[i];
+
+        long sumBackground = 0;
+        long weightBackground = 0;
+        double bestVariance = -1;
+        int threshold = 127;
+        for (int t = 0; t < 256; t++) {
+            weightBackground += histogram[t];
+            if (weightBackground == 0) continue;
+            long weightForeground = total - weightBackground;
+            if (weightForeground == 0) break;
+
+            sumBackground += (long) t * histogram[t];
+            double meanBackground = (double) sumBackground / weightBackground;
+            double meanForeground = (double) (sumAll - sumBackground) / weightForeground;
+            double diff = meanBackground - meanForeground;
+            double variance = (double) weightBackground * weightForeground * diff * diff;
+            if (variance > bestVariance) {
+                bestVariance = variance;
+                threshold = t;
+            }
+        }
+        return threshold;
+    }
+
+    public static void binarizeOtsu(byte[] data, int length) {
+        int threshold = otsuThreshold(data, length);
+        for (int i = 0; i < length; i++) {
+            data[i] = (data[i] & 0xff) > threshold ? (byte) 255 : 0;
+        }
+    }
+
+    // Median x-height in pixels of the text lines in the image, or 0 when no line is found.
+    // Lines come from the horizontal projection of ink pixels (the minority side of the Otsu
+    // threshold); within each line the x-height is the band of rows with at least half the
+    // peak ink count, which leaves out ascenders and descenders.
+    public static int estimateXHeight(byte[] data, int w, int h) {
+        int length = w * h;
+        int threshold = otsuThreshold(data, length);
+        int dark = 0;
+        for (int i = 0; i < length; i++) {
+            if ((data[i] & 0xff) <= threshold) dark++;
+        }
+        boolean darkInk = dark <= length - dark;
+
+        int[] profile = new int[h];
+        for (int y = 0; y < h; y++) {
+            int row = y * w;
+            int count = 0;
+            for (int x = 0; x < w; x++) {
+                if (((data[row + x] & 0xff) <= threshold) == darkInk) count++;
+            }
+            profile[y] = count;
+        }
+
+        // Rule lines and borders are only a row or two tall, panels span most of the frame
+        int minInk = Math.max(2, w / 200);
+        int maxLine = Math.max(3, h / 3);
+        int[] heights = new int[h / 3 + 1];
+        int lines = 0;
+        int y = 0;
+        while (y < h) {
+            if (profile[y] < minInk) {
+                y++;
+                continue;
+            }
+            int start = y;
+            int peak = 0;
+            while (y < h && profile[y] >= minInk) {
+                peak = Math.max(peak, profile[y]);
+                y++;
+            }
+            int lineHeight = y - start;
+            if (lineHeight < 3 || lineHeight > maxLine) continue;
+
+            int core = 0;
+            for (int i = start; i < y; i++) {
+                if (profile[i] * 2 >= peak) core++;
+            }
+            if (lines < heights.length) heights[lines++] = core;
+        }
+        if (lines == 0) return 0;
+
+        Arrays.sort(heights, 0, lines);
+        return heights[lines / 2];
+    }
+
+    // Sauvola thresholding with statistics gathered per window-sized tile and interpolated
+    // between tile centres, so memory stays proportional to the tile count, not the image
+    public static void binarizeSauvola(byte[] data, int w, int h, int window, double k) {
+        int tile = Math.max(8, window);
+        int tilesX = (w + tile - 1) / tile;
+        int tilesY = (h + tile - 1) / tile;
+        float[] thresholds = new float[tilesX * tilesY];
+
+        for (int ty = 0; ty < tilesY; ty++) {
+            int yEnd = Math.min(h, (ty + 1) * tile);
+            for (int tx = 0; tx < tilesX; tx++) {
+                int xEnd = Math.min(w, (tx + 1) * tile);
+                long sum = 0;
+                long sumSq = 0;
+                for (int y = ty * tile; y < yEnd; y++) {
+                    int row = y * w;
+                    for (int x = tx * tile; x < xEnd; x++) {
+                        int v = data[row + x] & 0xff;
+                        sum += v;
+                        sumSq += v * v;
+                    }
+                }
+                int n = (yEnd - ty * tile) * (xEnd - tx * tile);
+                double mean = (double) sum / n;
+                double std = Math.sqrt(Math.max(0, (double) sumSq / n - mean * mean));
+                thresholds[ty * tilesX + tx] = (float) (mean * (1 + k * (std / 128.0 - 1)));
+            }
+        }
+
+        for (int y = 0; y < h; y++) {
+            float gy = Math.max(0, Math.min(tilesY - 1, (y + 0.5f) / tile - 0.5f));
+            int ty0 = (int) gy;
+            int ty1 = Math.min(tilesY - 1, ty0 + 1);
+            float fy = gy - ty0;
+            int row = y * w;
+            for (int x = 0; x < w; x++) {
+                float gx = Math.max(0, Math.min(tilesX - 1, (x + 0.5f) / tile - 0.5f));
+                int tx0 = (int) gx;
+                int tx1 = Math.min(tilesX - 1, tx0 + 1);
+                float fx = gx - tx0;
+                float top = thresholds[ty0 * tilesX + tx0] * (1 - fx) + thresholds[ty0 * tilesX + tx1] * fx;
+                float bottom = thresholds[ty1 * tilesX + tx0] * (1 - fx) + thresholds[ty1 * tilesX + tx1] * fx;
+                float t = top * (1 - fy) + bottom * fy;
+                data[row + x] = (data[row + x] & 0xff) > t ? (byte) 255 : 0;
+            }
+        }
+    }
+}
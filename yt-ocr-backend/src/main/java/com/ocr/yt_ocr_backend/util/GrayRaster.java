@@ -0,0 +1,26 @@
+package com.ocr.yt_ocr_backend.util;
+
+// 8-bit gray image stored row by row with no padding. The backing array may be a reused
+// buffer that is longer than width * height.
+public final class GrayRaster {
+    private final int width;
+    private final int height;
+    private final byte[] data;
+
+    public GrayRaster(int width, int height, byte[] data) {
+        if (data.length < width * height) {
+            throw new IllegalArgumentException("Buffer too small for " + width + "x" + height);
+        }
+        this.width = width;
+        this.height = height;
+        this.data = data;
+    }
+
+    public int getWidth() { return width; }
+    public int getHeight() { return height; }
+    public byte[] getData() { return data; }
+
+    public int length() { return width * height; }
+
+    public int get(int x, int y) { return data[y * width + x] & 0xff; }
+}
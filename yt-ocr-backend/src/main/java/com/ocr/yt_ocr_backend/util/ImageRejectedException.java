@@ -0,0 +1,18 @@
+package com.ocr.yt_ocr_backend.util;
+
+import java.io.IOException;
+
+// Input refused before or while decoding; status is the OcrResponse status to report
+public class ImageRejectedException extends IOException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String status;
+
+    public ImageRejectedException(String status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public String getStatus() { return status; }
+}
@@ -1,65 +1,76 @@
 package com.ocr.yt_ocr_backend.util;
 
 import javax.imageio.ImageIO;
-import java.awt.*;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
 import java.awt.image.BufferedImage;
-import java.awt.image.RescaleOp;
 import java.io.ByteArrayInputStream;
-import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
 import java.util.Base64;
+import java.util.Iterator;
 
 public class ImageUtils {
 
-    // Accept either raw data base64 or data url; return a temp file (PNG)
-    public static File base64ToTempPng(String base64) throws IOException {
+    private static final int HEADER_BYTES = 12;
+
+    // Accept either raw data base64 or data url; return the encoded image bytes
+    public static byte[] decodeBase64(String base64) {
         String cleaned = base64;
         int comma = base64.indexOf(',');
         if(comma != -1) {
             cleaned = cleaned.substring(comma + 1); // strip "data: image/...;base64"
         }
-        byte[] bytes = Base64.getDecoder().decode(cleaned);
-        
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(bytes)) {
-            BufferedImage img = ImageIO.read(bis);
-            if (img == null) throw new IOException("Invalid image data");
-
-            BufferedImage processed = preprocess(img);
+        return Base64.getDecoder().decode(cleaned);
+    }
 
-            File tmp = File.createTempFile("ocr_", ".png");
-            ImageIO.write(processed, "png", tmp);
-            return tmp;
-        }
+    public static BufferedImage readImage(byte[] bytes) throws IOException {
+        return readImage(new ByteArrayInputStream(bytes), Long.MAX_VALUE);
     }
 
-    // Basic image preprocessing for better OCR
-    private static BufferedImage preprocess(BufferedImage src) {
-      //1. Upscale 2x (bilinear)
-        int w = src.getWidth() * 2;
-        int h = src.getHeight() * 2;
-        BufferedImage scaled = new BufferedImage(w,h, BufferedImage.TYPE_INT_ARGB);
-        Graphics2D g = scaled.createGraphics();
-        try {
-            g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
-            g.drawImage(src, 0, 0, w, h, null);
-        } finally {
-            g.dispose();
-        }
+    // Checks the magic bytes and the dimensions in the header before any pixel is decoded.
+    // Uses a memory cache: ImageIO.read(InputStream) would spool the stream to a temp file.
+    public static BufferedImage readImage(InputStream in, long maxPixels) throws IOException {
+        try (ImageInputStream iis = new MemoryCacheImageInputStream(in)) {
+            byte[] header = new byte[HEADER_BYTES];
+            iis.mark();
+            int n = 0;
+            for (int r; n < HEADER_BYTES && (r = iis.read(header, n, HEADER_BYTES - n)) > 0; ) n += r;
+            iis.reset();
+            if (!isImageHeader(header, n)) {
+                throw new ImageRejectedException("invalid_format", "Not a supported image");
+            }
 
-        //2. convert to grayscale
-        BufferedImage gray = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_GRAY);
-        Graphics g2 = gray.getGraphics();
-        try {
-            g2.drawImage(scaled, 0, 0, null);
-        } finally {
-            g2.dispose();
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(iis);
+            if (!readers.hasNext()) {
+                throw new ImageRejectedException("invalid_format", "No reader for image");
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(iis, true, true);
+                long pixels = (long) reader.getWidth(0) * reader.getHeight(0);
+                if (pixels > maxPixels) {
+                    throw new ImageRejectedException("file_too_large", "Image has " + pixels + " pixels");
+                }
+                BufferedImage img = reader.read(0);
+                if (img == null) throw new IOException("Invalid image data");
+                return img;
+            } finally {
+                reader.dispose();
+            }
         }
+    }
 
-        //3. Light contrast stretch (normalize)
-        RescaleOp op = new RescaleOp(1.5f, 10, null); // scale offset
-        BufferedImage contrasted = new BufferedImage(w,h, BufferedImage.TYPE_BYTE_GRAY);
-        op.filter(gray, contrasted);
-
-        return contrasted;
+    // PNG, JPEG, GIF, BMP, TIFF and WebP signatures
+    static boolean isImageHeader(byte[] h, int n) {
+        if (n >= 8 && (h[0] & 0xff) == 0x89 && h[1] == 'P' && h[2] == 'N' && h[3] == 'G') return true;
+        if (n >= 3 && (h[0] & 0xff) == 0xff && (h[1] & 0xff) == 0xd8 && (h[2] & 0xff) == 0xff) return true;
+        if (n >= 6 && h[0] == 'G' && h[1] == 'I' && h[2] == 'F' && h[3] == '8') return true;
+        if (n >= 2 && h[0] == 'B' && h[1] == 'M') return true;
+        if (n >= 4 && ((h[0] == 'I' && h[1] == 'I' && h[2] == 42 && h[3] == 0)
+                || (h[0] == 'M' && h[1] == 'M' && h[2] == 0 && h[3] == 42))) return true;
+        return n >= 12 && h[0] == 'R' && h[1] == 'I' && h[2] == 'F' && h[3] == 'F'
+            && h[8] == 'W' && h[9] == 'E' && h[10] == 'B' && h[11] == 'P';
     }
 }
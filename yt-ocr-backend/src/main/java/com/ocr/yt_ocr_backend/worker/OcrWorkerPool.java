@@ -0,0 +1,270 @@
+package com.ocr.yt_ocr_backend.worker;
+
+import com.ocr.yt_ocr_backend.YtOcrBackendApplication;
+import com.ocr.yt_ocr_backend.service.OcrEngine;
+import com.ocr.yt_ocr_backend.service.Recognizer;
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.tess4j.TesseractException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.awt.Rectangle;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// OCR in separate worker processes, so a Tesseract crash or leak only takes down a worker.
+// ocr.workers.count processes are launched from this application on consecutive ports and
+// restarted when they exit; ocr.workers.remote adds workers started elsewhere, e.g. on
+// other hosts. Each call goes to the connected worker with the fewest calls in flight.
+@Component
+public class OcrWorkerPool {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrWorkerPool.class);
+
+    private static final int CONNECT_TIMEOUT_MS = 1000;
+
+    @Value("${ocr.workers.count:0}")
+    private int count;
+
+    @Value("${ocr.workers.base-port:9190}")
+    private int basePort;
+
+    // comma separated host:port list
+    @Value("${ocr.workers.remote:}")
+    private String remote;
+
+    // command line that starts this application; empty = the running JVM and class path
+    @Value("${ocr.workers.command:}")
+    private String command;
+
+    // sent to every worker; launched workers get it in OCR_WORKER_SECRET
+    @Value("${ocr.workers.secret:}")
+    private String secret;
+
+    @Value("${ocr.workers.call-timeout-ms:60000}")
+    private long callTimeoutMs;
+
+    @Value("${ocr.workers.check-interval-ms:1000}")
+    private long checkIntervalMs;
+
+    private final List<Worker> workers = new ArrayList<>();
+    private final Counter restarts;
+    private final MeterRegistry registry;
+    private ScheduledExecutorService supervisor;
+
+    public OcrWorkerPool(MeterRegistry registry) {
+        this.registry = registry;
+        restarts = Counter.builder("ocr.workers.restarts")
+            .description("Worker processes started again after they exited")
+            .register(registry);
+    }
+
+    @PostConstruct
+    void start() {
+        for (int i = 0; i < count; i++) {
+            workers.add(new Worker("localhost", basePort + i, true));
+        }
+        for (String entry : remote.split(",")) {
+            int colon = entry.lastIndexOf(':');
+            if (colon < 0) continue;
+            workers.add(new Worker(entry.substring(0, colon).trim(), Integer.parseInt(entry.substring(colon + 1).trim()), false));
+        }
+        if (workers.isEmpty()) return;
+
+        Gauge.builder("ocr.workers.connected", this, OcrWorkerPool::getConnectedCount).register(registry);
+        Gauge.builder("ocr.workers.in_flight", this, OcrWorkerPool::getInFlightCount)
+            .description("OCR calls sent to workers and not answered yet")
+            .register(registry);
+
+        supervisor = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread t = new Thread(r, "ocr-worker-supervisor");
+            t.setDaemon(true);
+            return t;
+        });
+        supervisor.scheduleWithFixedDelay(this::supervise, 0, checkIntervalMs, TimeUnit.MILLISECONDS);
+        log.info("OCR runs in {} worker process(es)", workers.size());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (supervisor != null) supervisor.shutdownNow();
+        for (Worker worker : workers) {
+            worker.stop();
+        }
+    }
+
+    public boolean isEnabled() { return !workers.isEmpty(); }
+
+    // Calls for one language and mode, each sent to the least busy worker
+    public Recognizer recognizer(String language, String mode) {
+        return new Recognizer() {
+            @Override
+            public String recognize(GrayRaster raster, Rectangle region) throws TesseractException {
+                return (String) call(WorkerProtocol.RECOGNIZE, language, mode, raster, region);
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public List<OcrEngine.Line> recognizeLines(GrayRaster raster, Rectangle region) throws TesseractException {
+                return (List<OcrEngine.Line>) call(WorkerProtocol.RECOGNIZE_LINES, language, mode, raster, region);
+            }
+
+            @Override
+            public String detectScript(GrayRaster raster, Rectangle region) throws TesseractException {
+                return (String) call(WorkerProtocol.DETECT_SCRIPT, language, mode, raster, region);
+            }
+        };
+    }
+
+    private Object call(byte op, String language, String mode, GrayRaster raster, Rectangle region)
+            throws TesseractException {
+        Worker worker = null;
+        WorkerConnection connection = null;
+        for (Worker candidate : workers) {
+            WorkerConnection c = candidate.connection;
+            if (c == null || !c.isUsable()) continue;
+            if (connection == null || c.getPendingCount() < connection.getPendingCount()) {
+                worker = candidate;
+                connection = c;
+            }
+        }
+        if (connection == null) throw new TesseractException("No OCR worker is available");
+
+        try {
+            return connection.call(op, language, mode, raster, region, callTimeoutMs);
+        } catch (TesseractException e) {
+            // Lost, or timed out with nothing else in flight: a worker stuck in native code is of
+            // no further use, restart it. Otherwise the supervisor does once the rest are done
+            if (connection.isClosed() || connection.isDrained()) worker.kill(connection);
+            throw e;
+        }
+    }
+
+    private void supervise() {
+        for (Worker worker : workers) {
+            try {
+                worker.check();
+            } catch (RuntimeException e) {
+                log.warn("OCR worker {}:{} check failed: {}", worker.host, worker.port, e.getMessage());
+            }
+        }
+    }
+
+    public int getConnectedCount() {
+        return (int) workers.stream().filter(w -> w.connection != null && !w.connection.isClosed()).count();
+    }
+
+    public int getInFlightCount() {
+        int total = 0;
+        for (Worker worker : workers) {
+            WorkerConnection c = worker.connection;
+            if (c != null) total += c.getPendingCount();
+        }
+        return total;
+    }
+
+    private List<String> workerCommand(int port) {
+        List<String> cmd = new ArrayList<>();
+        if (!command.isBlank()) {
+            cmd.addAll(List.of(command.trim().split("\\s+")));
+        } else {
+            String java = ProcessHandle.current().info().command()
+                .orElse(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+            String classPath = System.getProperty("java.class.path");
+            cmd.add(java);
+            if (classPath.endsWith(".jar") && !classPath.contains(File.pathSeparator)) {
+                cmd.add("-jar");
+                cmd.add(classPath);
+            } else {
+                cmd.add("-cp");
+                cmd.add(classPath);
+                cmd.add(YtOcrBackendApplication.class.getName());
+            }
+        }
+        cmd.add("--spring.main.web-application-type=none");
+        cmd.add("--ocr.worker.port=" + port);
+        cmd.add("--ocr.worker.parent-pid=" + ProcessHandle.current().pid());
+        // A worker must not start workers of its own, nor open this server's result store
+        cmd.add("--ocr.workers.count=0");
+        cmd.add("--ocr.workers.remote=");
+        cmd.add("--ocr.store.enabled=false");
+        return cmd;
+    }
+
+    private final class Worker {
+        final String host;
+        final int port;
+        final boolean local;
+        volatile WorkerConnection connection;
+        private Process process;
+
+        Worker(String host, int port, boolean local) {
+            this.host = host;
+            this.port = port;
+            this.local = local;
+        }
+
+        // Starts the process if it is not running, then connects once it is listening
+        synchronized void check() {
+            WorkerConnection current = connection;
+            if (current != null && current.isDrained()) kill(current);
+            if (local && (process == null || !process.isAlive())) {
+                if (process != null) {
+                    log.warn("OCR worker on port {} exited with {}, restarting", port, process.exitValue());
+                    restarts.increment();
+                }
+                closeConnection();
+                try {
+                    ProcessBuilder builder = new ProcessBuilder(workerCommand(port)).inheritIO();
+                    // Not on the command line, where other users could read it
+                    if (!secret.isBlank()) builder.environment().put("OCR_WORKER_SECRET", secret);
+                    process = builder.start();
+                } catch (IOException e) {
+                    log.error("Could not start OCR worker on port {}: {}", port, e.getMessage());
+                    process = null;
+                }
+                return;
+            }
+            WorkerConnection c = connection;
+            if (c == null || c.isClosed()) {
+                try {
+                    connection = WorkerConnection.open(host, port, CONNECT_TIMEOUT_MS, secret);
+                    log.info("Connected to OCR worker {}:{}", host, port);
+                } catch (IOException e) {
+                    // still starting up, or down; retried on the next check
+                    log.debug("OCR worker {}:{} not reachable: {}", host, port, e.getMessage());
+                }
+            }
+        }
+
+        synchronized void kill(WorkerConnection failed) {
+            if (connection != failed) return; // already replaced
+            closeConnection();
+            if (local && process != null) process.destroyForcibly();
+        }
+
+        synchronized void stop() {
+            closeConnection();
+            if (process != null) process.destroy();
+        }
+
+        private void closeConnection() {
+            WorkerConnection c = connection;
+            if (c != null) c.close();
+            connection = null;
+        }
+    }
+}
@@ -0,0 +1,160 @@
+package com.ocr.yt_ocr_backend.worker;
+
+import com.ocr.yt_ocr_backend.service.OcrEngine;
+import com.ocr.yt_ocr_backend.service.TesseractEnginePool;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import net.sourceforge.tess4j.TesseractException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.awt.Rectangle;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+// The worker side of OcrWorkerPool: this application started with ocr.worker.port and no
+// web server answers OCR calls on that port with engines from its own pool. A launched
+// worker exits together with the application that started it.
+@Component
+@ConditionalOnProperty("ocr.worker.port")
+public class OcrWorkerServer {
+
+    private static final Logger log = LoggerFactory.getLogger(OcrWorkerServer.class);
+
+    private final TesseractEnginePool enginePool;
+    private final int port;
+    private final String bindAddress;
+    private final String secret;
+    private final long parentPid;
+    private ServerSocket serverSocket;
+    private ExecutorService executor;
+
+    public OcrWorkerServer(TesseractEnginePool enginePool,
+                           @Value("${ocr.worker.port}") int port,
+                           // empty = loopback only; set an address to serve other hosts
+                           @Value("${ocr.worker.bind-address:}") String bindAddress,
+                           // clients must send it; required when other hosts can connect
+                           @Value("${ocr.worker.secret:}") String secret,
+                           @Value("${ocr.worker.parent-pid:0}") long parentPid) {
+        this.enginePool = enginePool;
+        this.port = port;
+        this.bindAddress = bindAddress;
+        this.secret = secret;
+        this.parentPid = parentPid;
+    }
+
+    @PostConstruct
+    void start() throws IOException {
+        InetAddress address = bindAddress.isBlank() ? InetAddress.getLoopbackAddress() : InetAddress.getByName(bindAddress);
+        if (!address.isLoopbackAddress() && secret.isBlank()) {
+            throw new IllegalStateException("ocr.worker.bind-address " + bindAddress
+                + " lets other hosts run OCR; set ocr.worker.secret as well");
+        }
+        serverSocket = new ServerSocket(port, 50, address);
+        executor = Executors.newFixedThreadPool(enginePool.getMaxActive(), r -> {
+            Thread t = new Thread(r, "ocr-worker-call");
+            t.setDaemon(true);
+            return t;
+        });
+
+        // Not a daemon: with no web server this thread keeps the worker process alive
+        Thread acceptor = new Thread(this::accept, "ocr-worker-acceptor");
+        acceptor.start();
+
+        if (parentPid > 0) {
+            ProcessHandle.of(parentPid).ifPresentOrElse(
+                parent -> parent.onExit().thenRun(this::exit),
+                this::exit);
+        }
+        log.info("OCR worker listening on {}:{}", address.getHostAddress(), port);
+    }
+
+    @PreDestroy
+    void shutdown() throws IOException {
+        serverSocket.close();
+        executor.shutdownNow();
+    }
+
+    // On a thread of its own: System.exit waits for the context to close, and this may
+    // run while the context is still starting up
+    private void exit() {
+        new Thread(() -> {
+            log.info("Parent process {} is gone, stopping OCR worker", parentPid);
+            System.exit(0);
+        }, "ocr-worker-exit").start();
+    }
+
+    private void accept() {
+        while (!serverSocket.isClosed()) {
+            try {
+                Socket socket = serverSocket.accept();
+                socket.setTcpNoDelay(true);
+                Thread reader = new Thread(() -> serve(socket), "ocr-worker-conn-" + socket.getPort());
+                reader.setDaemon(true);
+                reader.start();
+            } catch (IOException e) {
+                if (!serverSocket.isClosed()) log.warn("Accepting an OCR client failed: {}", e.getMessage());
+            }
+        }
+    }
+
+    // Requests are read in order and run in parallel; responses go out as they finish
+    private void serve(Socket socket) {
+        try (socket) {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+            WorkerProtocol.readHeader(in, secret);
+            while (true) {
+                WorkerProtocol.Request request = WorkerProtocol.readRequest(in);
+                executor.execute(() -> answer(request, out));
+            }
+        } catch (EOFException e) {
+            // client closed the connection
+        } catch (IOException e) {
+            log.warn("OCR client {} dropped: {}", socket.getRemoteSocketAddress(), e.getMessage());
+        }
+    }
+
+    private void answer(WorkerProtocol.Request request, DataOutputStream out) {
+        Object result = null;
+        String error = null;
+        Rectangle whole = new Rectangle(0, 0, request.raster().getWidth(), request.raster().getHeight());
+        try (TesseractEnginePool.Lease lease = enginePool.borrow(request.language(), request.mode())) {
+            OcrEngine engine = lease.engine();
+            result = switch (request.op()) {
+                case WorkerProtocol.RECOGNIZE -> engine.recognize(request.raster(), whole);
+                case WorkerProtocol.RECOGNIZE_LINES -> engine.recognizeLines(request.raster(), whole);
+                case WorkerProtocol.DETECT_SCRIPT -> engine.detectScript(request.raster(), whole);
+                default -> throw new TesseractException("Unknown op " + request.op());
+            };
+        } catch (TesseractException | RuntimeException | LinkageError e) {
+            error = e.getMessage();
+        }
+
+        synchronized (out) {
+            try {
+                if (error == null) {
+                    WorkerProtocol.writeResult(out, request.id(), request.op(), result);
+                } else {
+                    WorkerProtocol.writeFailure(out, request.id(), request.op(), error);
+                }
+                out.flush();
+            } catch (IOException e) {
+                // the connection is gone; its reader thread notices too
+                log.debug("Could not answer OCR call {}: {}", request.id(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.ocr.yt_ocr_backend.worker;
+
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import net.sourceforge.tess4j.TesseractException;
+
+import java.awt.Rectangle;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// One socket to a worker, shared by all callers: requests are written under a lock and a
+// reader thread completes them as responses arrive. The number of pending calls is the
+// worker's queue depth. A call that times out fails alone; the connection then takes no
+// new calls and is drained once the calls already sent have finished, see OcrWorkerPool.
+final class WorkerConnection implements AutoCloseable {
+
+    private final String name;
+    private final Socket socket;
+    private final DataOutputStream out;
+    private final DataInputStream in;
+    private final Map<Integer, CompletableFuture<Object>> pending = new ConcurrentHashMap<>();
+    private final AtomicInteger ids = new AtomicInteger();
+    private volatile boolean closed;
+    private volatile boolean draining;
+
+    private WorkerConnection(String name, Socket socket) throws IOException {
+        this.name = name;
+        this.socket = socket;
+        this.out = new DataOutputStream(new BufferedOutputStream(socket.getOutputStream(), 64 * 1024));
+        this.in = new DataInputStream(new BufferedInputStream(socket.getInputStream(), 64 * 1024));
+    }
+
+    static WorkerConnection open(String host, int port, int connectTimeoutMs, String secret) throws IOException {
+        Socket socket = new Socket();
+        try {
+            socket.connect(new InetSocketAddress(host, port), connectTimeoutMs);
+            socket.setTcpNoDelay(true);
+            WorkerConnection connection = new WorkerConnection(host + ":" + port, socket);
+            WorkerProtocol.writeHeader(connection.out, secret);
+            Thread reader = new Thread(connection::readResponses, "ocr-worker-reader-" + port);
+            reader.setDaemon(true);
+            reader.start();
+            return connection;
+        } catch (IOException e) {
+            socket.close();
+            throw e;
+        }
+    }
+
+    Object call(byte op, String language, String mode, GrayRaster raster, Rectangle region, long timeoutMs)
+            throws TesseractException {
+        int id = ids.incrementAndGet();
+        CompletableFuture<Object> result = new CompletableFuture<>();
+        pending.put(id, result);
+        try {
+            synchronized (out) {
+                if (closed) throw new IOException("Connection closed");
+                WorkerProtocol.writeRequest(out, id, op, language, mode, raster, region);
+                out.flush();
+            }
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (IOException e) {
+            close();
+            throw new TesseractException("OCR worker " + name + " is unreachable: " + e.getMessage(), e);
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof TesseractException te
+                ? te : new TesseractException(e.getCause().getMessage(), e.getCause());
+        } catch (TimeoutException e) {
+            // The worker may be stuck in native code; the other calls in flight may still finish
+            draining = true;
+            throw new TesseractException("OCR worker " + name + " did not answer within " + timeoutMs + " ms");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TesseractException("Interrupted while waiting for OCR worker " + name, e);
+        } finally {
+            pending.remove(id);
+        }
+    }
+
+    int getPendingCount() { return pending.size(); }
+
+    boolean isClosed() { return closed; }
+
+    // False once closed, or once a call has timed out
+    boolean isUsable() { return !closed && !draining; }
+
+    // A call timed out and every other call sent before it has been answered or given up
+    boolean isDrained() { return draining && pending.isEmpty(); }
+
+    private void readResponses() {
+        try {
+            while (!closed) {
+                WorkerProtocol.Response response = WorkerProtocol.readResponse(in);
+                CompletableFuture<Object> result = pending.remove(response.id());
+                if (result == null) continue; // the caller gave up
+                if (response.status() == WorkerProtocol.OK) {
+                    result.complete(response.value());
+                } else {
+                    result.completeExceptionally(new TesseractException((String) response.value()));
+                }
+            }
+        } catch (IOException e) {
+            close();
+        }
+    }
+
+    // Calls still waiting fail at once; the worker will not answer them any more
+    @Override
+    public void close() {
+        if (closed) return;
+        closed = true;
+        try {
+            socket.close();
+        } catch (IOException ignored) {
+        }
+        TesseractException lost = new TesseractException("Lost connection to OCR worker " + name);
+        pending.values().forEach(result -> result.completeExceptionally(lost));
+    }
+}
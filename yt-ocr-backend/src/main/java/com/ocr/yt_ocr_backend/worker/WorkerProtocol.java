@@ -0,0 +1,190 @@
+package com.ocr.yt_ocr_backend.worker;
+
+import com.ocr.yt_ocr_backend.service.OcrEngine;
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+
+import java.awt.Rectangle;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+
+// Binary frames between the web tier and OCR worker processes. A connection starts with
+// MAGIC, VERSION and the shared secret from the client, then carries any number of requests;
+// responses carry the request id and may come back in any order. The secret only keeps
+// strangers out; nothing is encrypted.
+//
+// request:  id, op, language, mode, width, height, width*height gray pixels
+// response: id, op, status, then the result for the op or an error message
+final class WorkerProtocol {
+
+    static final int MAGIC = 0x4f435257; // "OCRW"
+    static final int VERSION = 2;
+
+    static final byte RECOGNIZE = 1;
+    static final byte RECOGNIZE_LINES = 2;
+    static final byte DETECT_SCRIPT = 3;
+
+    static final byte OK = 0;
+    static final byte FAILED = 1;
+
+    private static final int MAX_PIXELS = 64 * 1024 * 1024;
+    private static final int MAX_STRING = 16 * 1024 * 1024;
+
+    record Request(int id, byte op, String language, String mode, GrayRaster raster) {}
+
+    // value is the op's result on OK, the error message on FAILED
+    record Response(int id, byte op, byte status, Object value) {}
+
+    private WorkerProtocol() {}
+
+    static void writeHeader(DataOutputStream out, String secret) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeString(out, secret == null ? "" : secret);
+        out.flush();
+    }
+
+    // An empty expected secret accepts any client
+    static void readHeader(DataInputStream in, String secret) throws IOException {
+        if (in.readInt() != MAGIC) throw new IOException("Not an OCR worker client");
+        int version = in.readInt();
+        if (version != VERSION) throw new IOException("Unsupported protocol version " + version);
+        String sent = readString(in);
+        if (secret == null || secret.isEmpty()) return;
+        if (sent == null || !MessageDigest.isEqual(secret.getBytes(StandardCharsets.UTF_8),
+                sent.getBytes(StandardCharsets.UTF_8))) {
+            throw new IOException("Wrong worker secret");
+        }
+    }
+
+    // Only the region's pixels go over the wire; the worker sees them as a whole raster
+    static void writeRequest(DataOutputStream out, int id, byte op, String language, String mode,
+                             GrayRaster raster, Rectangle region) throws IOException {
+        out.writeInt(id);
+        out.writeByte(op);
+        writeString(out, language);
+        writeString(out, mode);
+        out.writeInt(region.width);
+        out.writeInt(region.height);
+        byte[] data = raster.getData();
+        if (region.width == raster.getWidth()) {
+            out.write(data, region.y * region.width, region.width * region.height);
+        } else {
+            for (int y = region.y; y < region.y + region.height; y++) {
+                out.write(data, y * raster.getWidth() + region.x, region.width);
+            }
+        }
+    }
+
+    static Request readRequest(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        byte op = in.readByte();
+        String language = readString(in);
+        String mode = readString(in);
+        int width = in.readInt();
+        int height = in.readInt();
+        if (width <= 0 || height <= 0 || (long) width * height > MAX_PIXELS) {
+            throw new IOException("Bad raster size " + width + "x" + height);
+        }
+        byte[] data = new byte[width * height];
+        in.readFully(data);
+        return new Request(id, op, language, mode, new GrayRaster(width, height, data));
+    }
+
+    @SuppressWarnings("unchecked")
+    static void writeResult(DataOutputStream out, int id, byte op, Object result) throws IOException {
+        out.writeInt(id);
+        out.writeByte(op);
+        out.writeByte(OK);
+        switch (op) {
+            case RECOGNIZE, DETECT_SCRIPT -> writeString(out, (String) result);
+            case RECOGNIZE_LINES -> {
+                List<OcrEngine.Line> lines = (List<OcrEngine.Line>) result;
+                out.writeInt(lines.size());
+                for (OcrEngine.Line line : lines) {
+                    writeString(out, line.text());
+                    out.writeFloat(line.confidence());
+                    writeBox(out, line.bounds());
+                    out.writeInt(line.words().size());
+                    for (OcrEngine.Word word : line.words()) {
+                        writeString(out, word.text());
+                        out.writeFloat(word.confidence());
+                        writeBox(out, word.bounds());
+                    }
+                }
+            }
+            default -> throw new IOException("Unknown op " + op);
+        }
+    }
+
+    static void writeFailure(DataOutputStream out, int id, byte op, String message) throws IOException {
+        out.writeInt(id);
+        out.writeByte(op);
+        out.writeByte(FAILED);
+        writeString(out, message != null ? message : "OCR failed");
+    }
+
+    static Response readResponse(DataInputStream in) throws IOException {
+        int id = in.readInt();
+        byte op = in.readByte();
+        byte status = in.readByte();
+        if (status != OK) return new Response(id, op, status, readString(in));
+
+        Object value = switch (op) {
+            case RECOGNIZE, DETECT_SCRIPT -> readString(in);
+            case RECOGNIZE_LINES -> {
+                int count = in.readInt();
+                List<OcrEngine.Line> lines = new ArrayList<>(Math.min(count, 1024));
+                for (int i = 0; i < count; i++) {
+                    String text = readString(in);
+                    float confidence = in.readFloat();
+                    Rectangle bounds = readBox(in);
+                    int wordCount = in.readInt();
+                    List<OcrEngine.Word> words = new ArrayList<>(Math.min(wordCount, 1024));
+                    for (int w = 0; w < wordCount; w++) {
+                        words.add(new OcrEngine.Word(readString(in), in.readFloat(), readBox(in)));
+                    }
+                    lines.add(new OcrEngine.Line(text, confidence, bounds, words));
+                }
+                yield lines;
+            }
+            default -> throw new IOException("Unknown op " + op);
+        };
+        return new Response(id, op, status, value);
+    }
+
+    private static void writeBox(DataOutputStream out, Rectangle box) throws IOException {
+        out.writeInt(box.x);
+        out.writeInt(box.y);
+        out.writeInt(box.width);
+        out.writeInt(box.height);
+    }
+
+    private static Rectangle readBox(DataInputStream in) throws IOException {
+        return new Rectangle(in.readInt(), in.readInt(), in.readInt(), in.readInt());
+    }
+
+    // UTF-8 with an int length, -1 for null; writeUTF stops at 64 KB
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        if (s == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) return null;
+        if (length > MAX_STRING) throw new IOException("String too long: " + length);
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -277,10 +277,11 @@
             const ocrResult = await fetch(OCR_API, {
                 method: 'POST',
                 headers: { 'Content-Type': 'application/json' },
+                // language before the image, so the server can refuse it without decoding
                 body: JSON.stringify({ 
-                    imageBase64: imageData,
                     language: 'eng',
-                    mode: 'code'
+                    mode: 'code',
+                    imageBase64: imageData
                 })
             });
             
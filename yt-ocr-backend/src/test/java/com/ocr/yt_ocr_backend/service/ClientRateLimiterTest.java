@@ -0,0 +1,88 @@
+package com.ocr.yt_ocr_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ClientRateLimiterTest {
+
+	private static final long SECOND = 1_000_000_000L;
+
+	@Test
+	void bucketAllowsABurstThenRefillsAtTheRate() {
+		ClientRateLimiter.Rule rule = new ClientRateLimiter.Rule("/api/ocr", 2, 3);
+		AtomicLongArray arrivals = new AtomicLongArray(1);
+		long now = 0;
+
+		for (int i = 0; i < 3; i++) assertEquals(0, ClientRateLimiter.take(arrivals, 0, rule, 1, now));
+		// Empty: the next token comes after half a second
+		assertEquals(SECOND / 2, ClientRateLimiter.take(arrivals, 0, rule, 1, now));
+
+		assertEquals(0, ClientRateLimiter.take(arrivals, 0, rule, 1, now + SECOND / 2));
+		assertTrue(ClientRateLimiter.take(arrivals, 0, rule, 1, now + SECOND / 2) > 0);
+
+		// A weight of 2 keeps the burst and refills twice as fast
+		AtomicLongArray weighted = new AtomicLongArray(1);
+		for (int i = 0; i < 3; i++) assertEquals(0, ClientRateLimiter.take(weighted, 0, rule, 2, now));
+		assertEquals(SECOND / 4, ClientRateLimiter.take(weighted, 0, rule, 2, now));
+	}
+
+	@Test
+	void longestPrefixDecidesAndClientsAreCountedSeparately() {
+		ClientRateLimiter limiter = new ClientRateLimiter(true, "/api/ocr:100:100,/api/ocr/batch:1:1", "", 60_000, 100, false);
+
+		OcrClient client = limiter.admit(null, "10.0.0.1", "POST", "/api/ocr/batch");
+		RateLimitedException e = assertThrows(RateLimitedException.class,
+			() -> limiter.admit(null, "10.0.0.1", "POST", "/api/ocr/batch"));
+		assertEquals(1, e.getRetryAfterSeconds());
+		assertSame(client, limiter.admit(null, "10.0.0.1", "POST", "/api/ocr/base64"));
+		limiter.admit(null, "10.0.0.2", "POST", "/api/ocr/batch");
+
+		assertEquals(3L, client.usage().get("requests"));
+		assertEquals(1L, client.usage().get("rate_limited"));
+		assertEquals(2, limiter.clients().size());
+	}
+
+	@Test
+	void methodRulesOnlyCountThatMethod() {
+		ClientRateLimiter limiter = new ClientRateLimiter(true, "/api/ocr:100:100,POST /api/ocr/jobs:1:1", "", 60_000, 100, false);
+
+		limiter.admit(null, "10.0.0.1", "POST", "/api/ocr/jobs");
+		// Polling is charged to /api/ocr, not to the spent submission bucket
+		for (int i = 0; i < 10; i++) limiter.admit(null, "10.0.0.1", "GET", "/api/ocr/jobs/abc");
+		assertThrows(RateLimitedException.class, () -> limiter.admit(null, "10.0.0.1", "POST", "/api/ocr/jobs"));
+	}
+
+	@Test
+	void apiKeysAreWeightedAndMasked() {
+		ClientRateLimiter limiter = new ClientRateLimiter(true, "/api/ocr:1:1", "partner-key-1:4", 60_000, 100, false);
+
+		OcrClient partner = limiter.admit("partner-key-1", "10.0.0.1", "POST", "/api/ocr/file");
+
+		assertEquals(4, partner.getWeight());
+		assertEquals("key:part****", partner.getName());
+		assertTrue(partner.isKeyed());
+		assertFalse(partner.usage().toString().contains("partner-key-1"));
+	}
+
+	@Test
+	void unknownKeysAreChargedToTheAddressAndNewAddressesAreCapped() {
+		ClientRateLimiter limiter = new ClientRateLimiter(true, "/api/ocr:1:1", "partner-key-1:1", 60_000, 2, false);
+
+		OcrClient first = limiter.admit("made-up-1", "10.0.0.1", "POST", "/api/ocr/file");
+		assertEquals("ip:10.0.0.1", first.getName());
+		assertFalse(first.isKeyed());
+		// A different made-up key per request does not refill the bucket
+		assertThrows(RateLimitedException.class, () -> limiter.admit("made-up-2", "10.0.0.1", "POST", "/api/ocr/file"));
+
+		limiter.admit(null, "10.0.0.2", "POST", "/api/ocr/file");
+		OcrClient third = limiter.admit(null, "10.0.0.3", "POST", "/api/ocr/file");
+		assertEquals("overflow", third.getName());
+		assertThrows(RateLimitedException.class, () -> limiter.admit(null, "10.0.0.4", "POST", "/api/ocr/file"));
+		assertEquals(2, limiter.clients().size());
+		// Configured keys are not subject to the cap
+		assertEquals("key:part****", limiter.admit("partner-key-1", "10.0.0.5", "POST", "/api/ocr/file").getName());
+	}
+}
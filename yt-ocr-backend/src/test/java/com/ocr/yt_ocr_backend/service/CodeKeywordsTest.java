@@ -0,0 +1,35 @@
+package com.ocr.yt_ocr_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeKeywordsTest {
+
+	@Test
+	void detectsLanguageFromItsOwnKeywords() throws IOException {
+		CodeKeywords keywords = new CodeKeywords("classpath:ocr/keywords/");
+
+		assertEquals("python", keywords.detect(List.of("def area(self):", "    return self.w * self.h")));
+		assertEquals("java", keywords.detect(List.of("public static void main(String[] args) {")));
+		assertEquals("javascript", keywords.detect(List.of("const x = await fetch(url);", "console.log(x);")));
+		assertNull(keywords.detect(List.of("for x in y", "if x")));
+	}
+
+	@Test
+	void fixesConfusedKeywordsOnly() throws IOException {
+		CodeKeywords keywords = new CodeKeywords("classpath:ocr/keywords/");
+
+		assertEquals("return self.x", keywords.correct("retum 5elf.x", "python"));
+		assertEquals("print(len(items))", keywords.correct("pr1nt(Ien(items))", "python"));
+		assertEquals("int count = 0;", keywords.correct("lnt count = 0;", "java"));
+		assertEquals("while (true) {", keywords.correct("vvhile (true) {", null));
+		// Case-only differences and short identifiers are left alone
+		assertEquals("typeof s === 'string'", keywords.correct("typeof s === 'string'", "java"));
+		assertEquals("ln = lf + 1", keywords.correct("ln = lf + 1", "python"));
+		assertEquals("if (x)", keywords.correct("1f (x)", "javascript"));
+	}
+}
@@ -0,0 +1,51 @@
+package com.ocr.yt_ocr_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeLayoutTest {
+
+	// A line starting at x with 10 px characters, give or take a pixel of box jitter
+	private static OcrEngine.Line line(int x, String... words) {
+		List<OcrEngine.Word> boxes = new ArrayList<>();
+		int wx = x;
+		for (String word : words) {
+			boxes.add(new OcrEngine.Word(word, 90, new Rectangle(wx, 0, word.length() * 10 - 1, 12)));
+			wx += (word.length() + 1) * 10;
+		}
+		return new OcrEngine.Line(String.join(" ", words), 90, new Rectangle(x, 0, wx - x, 12), boxes);
+	}
+
+	@Test
+	void columnsFollowLineOffsets() {
+		List<OcrEngine.Line> lines = List.of(
+			line(100, "def", "area(self):"),
+			line(141, "if", "self.empty:"),
+			line(179, "return", "0"),
+			line(140, "return", "self.w"));
+
+		assertArrayEquals(new int[] {0, 4, 8, 4}, CodeLayout.indentation(lines));
+	}
+
+	@Test
+	void twoSpaceIndentIsKept() {
+		List<OcrEngine.Line> lines = List.of(
+			line(50, "server:"),
+			line(70, "port:", "8080"),
+			line(70, "ssl:"),
+			line(91, "enabled:", "true"));
+
+		assertArrayEquals(new int[] {0, 2, 2, 4}, CodeLayout.indentation(lines));
+	}
+
+	@Test
+	void noWordsMeansNoIndentation() {
+		OcrEngine.Line empty = new OcrEngine.Line("", 0, new Rectangle(30, 0, 0, 0), List.of());
+		assertArrayEquals(new int[] {0}, CodeLayout.indentation(List.of(empty)));
+	}
+}
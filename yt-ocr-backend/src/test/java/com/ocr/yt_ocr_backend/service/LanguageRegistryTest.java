@@ -0,0 +1,43 @@
+package com.ocr.yt_ocr_backend.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LanguageRegistryTest {
+
+	@Test
+	void onlySupportedLanguagesResolve() {
+		LanguageRegistry registry = new LanguageRegistry("eng, eng+hin,chi_sim", "eng", true, "Devanagari:eng+hin,Han:chi_sim");
+
+		assertEquals(List.of("eng", "eng+hin", "chi_sim"), List.copyOf(registry.getLanguages()));
+		assertEquals("eng+hin", registry.resolve("eng+hin"));
+		assertEquals("chi_sim", registry.resolve(" chi_sim "));
+		assertEquals("eng", registry.resolve(null));
+		assertNull(registry.resolve("hin"));
+		assertNull(registry.resolve("../../etc"));
+		assertEquals(LanguageRegistry.AUTO, registry.resolve("auto"));
+	}
+
+	@Test
+	void scriptsMapToLanguagesWithDefaultFallback() {
+		LanguageRegistry registry = new LanguageRegistry("eng,eng+hin", "eng", true, "Devanagari:eng+hin,Cyrillic:rus");
+
+		assertEquals("eng+hin", registry.forScript("Devanagari"));
+		// rus is not supported, so its mapping was dropped
+		assertEquals("eng", registry.forScript("Cyrillic"));
+		assertEquals("eng", registry.forScript(null));
+	}
+
+	@Test
+	void autoFallsBackToDefaultWhenDetectionCannotChangeAnything() {
+		LanguageRegistry latinOnly = new LanguageRegistry("eng", "eng", true, "Latin:eng");
+		assertFalse(latinOnly.isAutoDetect());
+		assertEquals("eng", latinOnly.resolve("auto"));
+
+		LanguageRegistry disabled = new LanguageRegistry("eng,eng+hin", "eng", false, "Devanagari:eng+hin");
+		assertEquals("eng", disabled.resolve("AUTO"));
+	}
+}
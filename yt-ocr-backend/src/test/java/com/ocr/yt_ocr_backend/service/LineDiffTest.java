@@ -0,0 +1,48 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LineDiffTest {
+
+	private static List<TextRow> rows(String... lines) {
+		List<TextRow> rows = new ArrayList<>();
+		for (String line : lines) rows.add(new TextRow(rows.size() + 1, line));
+		return rows;
+	}
+
+	private static List<String> describe(List<TextRow> rows) {
+		return rows.stream().map(r -> r.getLineNo() + ":" + r.getContent()).toList();
+	}
+
+	@Test
+	void reportsOnlyChangedLines() {
+		LineDiff.Result diff = LineDiff.diff(
+			rows("int a = 1;", "int b = 2;", "return a;"),
+			rows("int a = 1;", "int b = 3;", "int c = a + b;", "return a;"));
+
+		assertEquals(List.of("2:int b = 2;"), describe(diff.removed()));
+		assertEquals(List.of("2:int b = 3;", "3:int c = a + b;"), describe(diff.added()));
+	}
+
+	@Test
+	void firstFrameAddsEverythingAndRepeatIsEmpty() {
+		List<TextRow> frame = rows("class A {", "}");
+
+		assertEquals(2, LineDiff.diff(List.of(), frame).added().size());
+		assertTrue(LineDiff.diff(frame, rows("class A {", "}")).isEmpty());
+	}
+
+	@Test
+	void scrolledCodeKeepsSharedLines() {
+		LineDiff.Result diff = LineDiff.diff(rows("a", "b", "c", "d"), rows("c", "d", "e"));
+
+		assertEquals(List.of("1:a", "2:b"), describe(diff.removed()));
+		assertEquals(List.of("3:e"), describe(diff.added()));
+	}
+}
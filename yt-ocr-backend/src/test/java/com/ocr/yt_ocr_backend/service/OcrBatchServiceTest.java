@@ -0,0 +1,79 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrBase64Request;
+import com.ocr.yt_ocr_backend.dto.OcrBatchResponse;
+import com.ocr.yt_ocr_backend.dto.OcrResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrBatchServiceTest {
+
+	// Echoes the request back as the text, noting the thread and how many items run at once
+	private static final class StubProcessor extends OcrRequestProcessor {
+		final List<String> threads = new CopyOnWriteArrayList<>();
+		final AtomicInteger running = new AtomicInteger();
+		volatile int maxRunning;
+
+		StubProcessor() {
+			super(null, null, null, null, null);
+		}
+
+		@Override
+		public OcrResponse processBase64(OcrBase64Request req, OcrClient client) {
+			maxRunning = Math.max(maxRunning, running.incrementAndGet());
+			threads.add(Thread.currentThread().getName());
+			try {
+				Thread.sleep(5);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			running.decrementAndGet();
+			return new OcrResponse(req.getImageBase64(), 1);
+		}
+	}
+
+	private final StubProcessor processor = new StubProcessor();
+	private final OcrJobService jobs = new OcrJobService(2, 2, 60_000);
+	private final OcrBatchService batch = new OcrBatchService(processor, jobs);
+
+	@AfterEach
+	void shutdown() {
+		jobs.shutdown();
+	}
+
+	private static List<OcrBase64Request> items(int count) {
+		List<OcrBase64Request> items = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			OcrBase64Request item = new OcrBase64Request();
+			item.setImageBase64("item " + i);
+			items.add(item);
+		}
+		return items;
+	}
+
+	@Test
+	void itemsRunAsJobsOfTheCallerInRequestOrder() throws InterruptedException {
+		OcrClient client = new OcrClient("key:test", "key:test", 1);
+
+		// More items than the job queue holds: the batch waits for its own items instead of failing
+		OcrBatchResponse response = batch.processBase64Batch(items(10), client);
+
+		assertEquals("success", response.getStatus());
+		assertEquals(10, response.getSucceeded());
+		for (int i = 0; i < 10; i++) assertEquals("item " + i, response.getResults().get(i).getRows().get(0).getContent());
+		assertTrue(processor.threads.stream().allMatch(name -> name.startsWith("ocr-job-")));
+		assertTrue(processor.maxRunning <= jobs.getWorkers());
+		// A worker counts the job just after handing back its result
+		long deadline = System.currentTimeMillis() + 5000;
+		while ((long) client.usage().get("jobs") < 10 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+		assertEquals(10L, client.usage().get("jobs"));
+		assertEquals(0, jobs.getQueued());
+	}
+}
@@ -0,0 +1,177 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrJobServiceTest {
+
+	private final OcrJobService service = new OcrJobService(1, 2, 60_000);
+
+	@AfterEach
+	void shutdown() {
+		service.shutdown();
+	}
+
+	private static OcrResponse response(String text) {
+		return new OcrResponse(text, 1);
+	}
+
+	private OcrJob blockWorker(CountDownLatch release) throws InterruptedException {
+		CountDownLatch started = new CountDownLatch(1);
+		OcrJob blocker = service.submit(OcrJob.Priority.BULK, () -> {
+			started.countDown();
+			try {
+				release.await();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			return response("blocker");
+		});
+		assertTrue(started.await(5, TimeUnit.SECONDS));
+		return blocker;
+	}
+
+	@Test
+	void interactiveJobsOvertakeQueuedBulkJobs() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		blockWorker(release);
+
+		List<String> order = new CopyOnWriteArrayList<>();
+		OcrJob bulk = service.submit(OcrJob.Priority.BULK, () -> {
+			order.add("bulk");
+			return response("bulk");
+		});
+		OcrJob interactive = service.submit(OcrJob.Priority.INTERACTIVE, () -> {
+			order.add("interactive");
+			return response("interactive");
+		});
+		assertEquals("queued", bulk.getStatus());
+
+		release.countDown();
+		bulk.getResult().get(5, TimeUnit.SECONDS);
+		interactive.getResult().get(5, TimeUnit.SECONDS);
+
+		assertEquals(List.of("interactive", "bulk"), order);
+		assertEquals("completed", bulk.getStatus());
+		assertEquals("bulk", bulk.getResult().get().getRows().get(0).getContent());
+		assertSame(bulk, service.get(bulk.getId()));
+	}
+
+	@Test
+	void refusesWorkBeyondQueueCapacity() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		blockWorker(release);
+
+		OcrJob a = service.submit(OcrJob.Priority.BULK, () -> response("a"));
+		OcrJob b = service.submit(OcrJob.Priority.BULK, () -> response("b"));
+		assertNotNull(a);
+		assertNotNull(b);
+		assertNull(service.submit(OcrJob.Priority.INTERACTIVE, () -> response("c")));
+		assertEquals("queue_full", service.runInteractive(() -> response("d")).getStatus());
+		assertFalse(service.hasRoom(OcrClient.ANONYMOUS));
+		assertEquals(3, service.getRejected());
+		assertTrue(service.retryAfterSeconds() >= 1);
+
+		release.countDown();
+		a.getResult().get(5, TimeUnit.SECONDS);
+		b.getResult().get(5, TimeUnit.SECONDS);
+		assertTrue(service.hasRoom(OcrClient.ANONYMOUS));
+		assertEquals("e", service.runInteractive(() -> response("e")).getRows().get(0).getContent());
+	}
+
+	@Test
+	void timedOutInteractiveJobsLeaveTheQueue() throws Exception {
+		CountDownLatch release = new CountDownLatch(1);
+		OcrJob blocker = blockWorker(release);
+		service.setWaitTimeoutMs(50);
+
+		List<String> ran = new CopyOnWriteArrayList<>();
+		assertEquals("timeout", service.runInteractive(() -> {
+			ran.add("late");
+			return response("late");
+		}).getStatus());
+		assertEquals(0, service.getQueued());
+		assertEquals(1, service.getAbandoned());
+
+		release.countDown();
+		blocker.getResult().get(5, TimeUnit.SECONDS);
+		service.setWaitTimeoutMs(5_000);
+		assertEquals("next", service.runInteractive(() -> response("next")).getRows().get(0).getContent());
+		assertEquals(List.of(), ran);
+	}
+
+	@Test
+	void clientsShareTheWorkersFairly() throws Exception {
+		OcrJobService fair = new OcrJobService(1, 16, 60_000);
+		try {
+			CountDownLatch release = new CountDownLatch(1);
+			CountDownLatch started = new CountDownLatch(1);
+			fair.submit(OcrJob.Priority.BULK, () -> {
+				started.countDown();
+				try {
+					release.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				return response("blocker");
+			});
+			assertTrue(started.await(5, TimeUnit.SECONDS));
+
+			OcrClient bulk = new OcrClient("ip:bulk", "ip:bulk", 1);
+			OcrClient light = new OcrClient("ip:light", "ip:light", 1);
+			List<String> order = new CopyOnWriteArrayList<>();
+			for (int i = 0; i < 3; i++) {
+				String name = "bulk" + i;
+				fair.submit(OcrJob.Priority.BULK, bulk, () -> {
+					order.add(name);
+					return response(name);
+				});
+			}
+			OcrJob lightJob = fair.submit(OcrJob.Priority.BULK, light, () -> {
+				order.add("light");
+				return response("light");
+			});
+
+			release.countDown();
+			lightJob.getResult().get(5, TimeUnit.SECONDS);
+			// The job count is recorded just after each job's result is completed
+			long deadline = System.currentTimeMillis() + 5000;
+			while ((order.size() < 4 || (long) bulk.usage().get("jobs") < 3)
+					&& System.currentTimeMillis() < deadline) {
+				Thread.sleep(10);
+			}
+
+			// The late client's job goes right after the first job of the busy one
+			assertEquals(List.of("bulk0", "light", "bulk1", "bulk2"), order);
+			assertEquals(3L, bulk.usage().get("jobs"));
+		} finally {
+			fair.shutdown();
+		}
+	}
+
+	@Test
+	void errorsStillEndTheJob() throws Exception {
+		OcrResponse response = service.runInteractive(() -> {
+			throw new OutOfMemoryError("decoding");
+		});
+		assertEquals("error", response.getStatus());
+
+		CompletableFuture<String> future = service.execute(OcrJob.Priority.INTERACTIVE, () -> {
+			throw new StackOverflowError();
+		});
+		ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+		assertInstanceOf(StackOverflowError.class, e.getCause());
+		// The worker survived
+		assertEquals("ok", service.runInteractive(() -> response("ok")).getRows().get(0).getContent());
+	}
+}
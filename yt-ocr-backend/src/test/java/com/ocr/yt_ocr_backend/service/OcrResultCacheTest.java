@@ -0,0 +1,92 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrResultCacheTest {
+
+	private static BufferedImage frame(int noiseX) {
+		BufferedImage img = new BufferedImage(120, 40, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = img.createGraphics();
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, 120, 40);
+		g.setColor(Color.BLACK);
+		g.drawString("int x = 1;", 5, 25);
+		g.dispose();
+		if (noiseX >= 0) {
+			img.setRGB(noiseX, 2, 0xFEFEFE);
+		}
+		return img;
+	}
+
+	private static List<TextRow> rows(String text) {
+		return List.of(new TextRow(1, text));
+	}
+
+	private static String text(List<TextRow> rows) {
+		return rows == null ? null : rows.get(0).getContent();
+	}
+
+	@Test
+	void exactHitIsScopedByLanguageAndMode() {
+		OcrResultCache cache = new OcrResultCache(true, 16, 60_000, false, 0);
+		OcrResultCache.Fingerprint fp = cache.fingerprint(frame(-1));
+		cache.put(fp, "eng", "code", rows("int x = 1;"));
+
+		assertEquals("int x = 1;", text(cache.get(cache.fingerprint(frame(-1)), "eng", "code")));
+		assertNull(cache.get(fp, "eng", "auto"));
+		assertNull(cache.get(fp, "hin", "code"));
+		assertEquals(1, cache.getHits());
+		assertEquals(2, cache.getMisses());
+
+		cache.put(fp, "auto", "code", rows("int x = 1;"), "eng");
+		assertEquals("eng", cache.lookup(fp, "auto", "code").detectedLanguage());
+	}
+
+	@Test
+	void perceptualOptionMatchesCompressionNoise() {
+		OcrResultCache exact = new OcrResultCache(true, 16, 60_000, false, 0);
+		OcrResultCache fuzzy = new OcrResultCache(true, 16, 60_000, true, 4);
+
+		exact.put(exact.fingerprint(frame(-1)), "eng", "auto", rows("text"));
+		fuzzy.put(fuzzy.fingerprint(frame(-1)), "eng", "auto", rows("text"));
+
+		assertNull(exact.get(exact.fingerprint(frame(60)), "eng", "auto"));
+		assertEquals("text", text(fuzzy.get(fuzzy.fingerprint(frame(60)), "eng", "auto")));
+		assertEquals(1, fuzzy.getPerceptualHits());
+	}
+
+	@Test
+	void evictsLeastRecentlyUsedBeyondMaxEntries() {
+		OcrResultCache cache = new OcrResultCache(true, 2, 60_000, false, 0);
+		OcrResultCache.Fingerprint a = new OcrResultCache.Fingerprint(1, 1, 1L, 0L);
+		OcrResultCache.Fingerprint b = new OcrResultCache.Fingerprint(1, 1, 2L, 0L);
+		OcrResultCache.Fingerprint c = new OcrResultCache.Fingerprint(1, 1, 3L, 0L);
+
+		cache.put(a, "eng", "auto", rows("a"));
+		cache.put(b, "eng", "auto", rows("b"));
+		cache.get(a, "eng", "auto");
+		cache.put(c, "eng", "auto", rows("c"));
+
+		assertEquals(2, cache.size());
+		assertEquals("a", text(cache.get(a, "eng", "auto")));
+		assertNull(cache.get(b, "eng", "auto"));
+		assertEquals(1, cache.getEvictions());
+	}
+
+	@Test
+	void expiredEntriesMiss() throws InterruptedException {
+		OcrResultCache cache = new OcrResultCache(true, 16, 1, false, 0);
+		OcrResultCache.Fingerprint fp = new OcrResultCache.Fingerprint(1, 1, 1L, 0L);
+		cache.put(fp, "eng", "auto", rows("stale"));
+		Thread.sleep(5);
+
+		assertNull(cache.get(fp, "eng", "auto"));
+	}
+}
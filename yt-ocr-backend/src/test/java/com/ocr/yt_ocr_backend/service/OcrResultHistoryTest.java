@@ -0,0 +1,63 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse;
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrResultHistoryTest {
+
+	private static List<TextRow> rows(String... lines) {
+		List<TextRow> rows = new ArrayList<>();
+		for (int i = 0; i < lines.length; i++) rows.add(new TextRow(i + 1, lines[i]));
+		return rows;
+	}
+
+	// What a client does with a delta: drop the removed lines, put the added rows at their numbers
+	private static List<String> patch(List<TextRow> base, OcrResponse delta) {
+		List<String> kept = new ArrayList<>();
+		for (TextRow row : base) {
+			if (!delta.getRemovedLines().contains(row.getLineNo())) kept.add(row.getContent());
+		}
+		for (TextRow row : delta.getRows()) kept.add(row.getLineNo() - 1, row.getContent());
+		return kept;
+	}
+
+	@Test
+	void deltaRebuildsTheFullResult() {
+		OcrResultHistory history = new OcrResultHistory(true, 16, 60_000);
+		List<TextRow> before = rows("int a = 1;", "int b = 2;", "int c = 3;", "return a;");
+		OcrResponse first = new OcrResponse(before, 5);
+		history.apply(first, null);
+		assertNotNull(first.getResultId());
+		assertNull(first.getBaseResultId());
+
+		OcrResponse second = new OcrResponse(rows("int a = 1;", "int c = 3;", "int d = 4;", "return a;"), 5);
+		history.apply(second, first.getResultId());
+
+		assertEquals(first.getResultId(), second.getBaseResultId());
+		assertEquals(List.of(2), second.getRemovedLines());
+		assertEquals(1, second.getRows().size());
+		assertEquals(4, second.getTotalLines());
+		assertEquals(List.of("int a = 1;", "int c = 3;", "int d = 4;", "return a;"), patch(before, second));
+	}
+
+	@Test
+	void unknownOrEvictedIdsGetTheFullResult() {
+		OcrResultHistory history = new OcrResultHistory(true, 1, 60_000);
+		OcrResponse first = new OcrResponse(rows("a"), 1);
+		history.apply(first, null);
+		history.apply(new OcrResponse(rows("b"), 1), null);
+
+		OcrResponse third = new OcrResponse(rows("a", "b"), 1);
+		history.apply(third, first.getResultId());
+
+		assertNull(third.getBaseResultId());
+		assertNull(third.getRemovedLines());
+		assertEquals(2, third.getRows().size());
+	}
+}
@@ -0,0 +1,110 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrResultStoreTest {
+
+	@TempDir
+	Path dir;
+
+	private static List<TextRow> rows(String... lines) {
+		List<TextRow> rows = new ArrayList<>();
+		for (int i = 0; i < lines.length; i++) rows.add(new TextRow(i + 1, lines[i]));
+		return rows;
+	}
+
+	private static List<String> texts(List<TextRow> rows) {
+		return rows.stream().map(TextRow::getContent).toList();
+	}
+
+	@Test
+	void resultsSurviveReopening() throws IOException {
+		OcrResultStore store = new OcrResultStore(dir, 1 << 20, "sig");
+		OcrResultStore.Key frame = store.frameKey("dQw4w9WgXcQ", 61_000, 1280, 720, "eng", "code");
+		store.put(frame, rows("public class A {", "    int ä = 1;", "}"));
+		OcrResultStore.Key auto = store.frameKey("dQw4w9WgXcQ", 61_000, 1280, 720, "auto", "code");
+		store.put(auto, rows("नमस्ते"), "hin");
+		store.close();
+
+		OcrResultStore reopened = new OcrResultStore(dir, 1 << 20, "sig");
+		assertEquals(List.of("public class A {", "    int ä = 1;", "}"), texts(reopened.get(frame)));
+		assertNull(reopened.lookup(frame).detectedLanguage());
+		// language=auto hits still say what was detected
+		assertEquals("hin", reopened.lookup(auto).detectedLanguage());
+		assertEquals(List.of("नमस्ते"), texts(reopened.lookup(auto).rows()));
+		assertNull(reopened.get(reopened.frameKey("dQw4w9WgXcQ", 62_000, 1280, 720, "eng", "code")));
+		// The same moment captured at another size is another frame
+		assertNull(reopened.get(reopened.frameKey("dQw4w9WgXcQ", 61_000, 640, 360, "eng", "code")));
+		reopened.close();
+
+		// Other engine settings never see these results
+		OcrResultStore changed = new OcrResultStore(dir, 1 << 20, "other");
+		assertNull(changed.get(changed.frameKey("dQw4w9WgXcQ", 61_000, 1280, 720, "eng", "code")));
+		changed.close();
+	}
+
+	@Test
+	void compactionKeepsRecentlyUsedResultsWithinTheCap() throws IOException {
+		OcrResultStore store = new OcrResultStore(dir, 8192, "sig");
+		OcrResultStore.Key hot = store.frameKey("hot", 0, 1280, 720, "eng", "auto");
+		store.put(hot, rows("x".repeat(200)));
+		for (int i = 0; i < 100; i++) {
+			store.put(store.frameKey("v", i, 1280, 720, "eng", "auto"), rows("line " + "y".repeat(200)));
+			store.get(hot);
+		}
+
+		assertTrue((long) store.stats().get("compactions") > 0);
+		assertTrue((int) store.stats().get("bytes_used") <= 8192);
+		assertNotNull(store.get(hot));
+		assertNotNull(store.get(store.frameKey("v", 99, 1280, 720, "eng", "auto")));
+		assertNull(store.get(store.frameKey("v", 0, 1280, 720, "eng", "auto")));
+		store.close();
+
+		// Compaction moved to a new generation file; a restart picks it up and drops the old ones
+		OcrResultStore reopened = new OcrResultStore(dir, 8192, "sig");
+		assertEquals(store.dataFile(), reopened.dataFile());
+		assertNotNull(reopened.get(hot));
+		try (Stream<Path> files = Files.list(dir)) {
+			assertEquals(List.of(reopened.dataFile()), files.filter(f -> f.toString().endsWith(".dat")).toList());
+		}
+		reopened.close();
+	}
+
+	@Test
+	void tornRecordIsDroppedOnOpen() throws IOException {
+		OcrResultStore store = new OcrResultStore(dir, 1 << 20, "sig");
+		OcrResultStore.Key first = store.frameKey("v", 1, 1280, 720, "eng", "auto");
+		OcrResultStore.Key second = store.frameKey("v", 2, 1280, 720, "eng", "auto");
+		store.put(first, rows("first"));
+		store.put(second, rows("second"));
+		Path file = store.dataFile();
+		store.close();
+
+		// Corrupt the last byte of the second record's text, as a crash mid-write would
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+			ByteBuffer header = ByteBuffer.allocate(8);
+			channel.read(header, 8);
+			long end = header.flip().getLong();
+			channel.write(ByteBuffer.wrap(new byte[] {'X'}), end - 5);
+		}
+
+		OcrResultStore reopened = new OcrResultStore(dir, 1 << 20, "sig");
+		assertEquals(List.of("first"), texts(reopened.get(first)));
+		assertNull(reopened.get(second));
+		reopened.close();
+	}
+}
@@ -0,0 +1,134 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import com.ocr.yt_ocr_backend.dto.OcrStreamUpdate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrStreamServiceTest {
+
+	private static final Rectangle LEFT = new Rectangle(0, 0, 160, 64);
+	private static final Rectangle RIGHT = new Rectangle(160, 0, 160, 64);
+
+	// Two fixed blocks; "recognises" a block as the text currently set for it
+	private static final class StubOcr extends OcrService {
+		final Map<Rectangle, String> texts = new HashMap<>();
+		final List<Rectangle> recognized = new ArrayList<>();
+
+		StubOcr() {
+			super(null, null, null, null, null, null, null, null, null, null, null, null, null);
+		}
+
+		@Override
+		public List<RegionText> recognizeFrame(BufferedImage img, String language, String mode,
+		                                       Function<Rectangle, String> reuse) {
+			List<RegionText> result = new ArrayList<>();
+			for (Rectangle bounds : List.of(LEFT, RIGHT)) {
+				String text = reuse.apply(bounds);
+				if (text == null) {
+					recognized.add(bounds);
+					text = texts.get(bounds);
+				}
+				result.add(new RegionText(bounds, text));
+			}
+			return result;
+		}
+
+		@Override
+		public List<TextRow> toRows(List<RegionText> regions, String mode) {
+			List<TextRow> rows = new ArrayList<>();
+			for (RegionText region : regions) rows.add(new TextRow(rows.size() + 1, region.text()));
+			return rows;
+		}
+	}
+
+	private final StubOcr ocr = new StubOcr();
+	private final OcrJobService jobs = new OcrJobService(1, 4, 60_000);
+	private final OcrStreamService stream = new OcrStreamService(ocr, jobs);
+
+	@AfterEach
+	void shutdown() {
+		jobs.shutdown();
+	}
+
+	private static BufferedImage frame(Color left, Color right) {
+		BufferedImage img = new BufferedImage(320, 64, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = img.createGraphics();
+		g.setColor(left);
+		g.fillRect(0, 0, 160, 64);
+		g.setColor(right);
+		g.fillRect(160, 0, 160, 64);
+		g.dispose();
+		return img;
+	}
+
+	private static byte[] png(BufferedImage img) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(img, "png", out);
+		return out.toByteArray();
+	}
+
+	private static String base64(byte[] bytes) {
+		return "data:image/png;base64," + Base64.getEncoder().encodeToString(bytes);
+	}
+
+	@Test
+	void unchangedFramesAreDroppedAndUntouchedBlocksReused() throws IOException {
+		String id = stream.open("eng", "auto");
+		ocr.texts.put(LEFT, "int a = 1;");
+		ocr.texts.put(RIGHT, "int b = 2;");
+
+		OcrStreamUpdate first = stream.processFrame(id, base64(png(frame(Color.BLACK, Color.BLACK))), OcrClient.ANONYMOUS);
+		assertEquals("processed", first.getStatus());
+		assertEquals(2, first.getAdded().size());
+		assertEquals(2, first.getRegionsRecognized());
+
+		OcrStreamUpdate same = stream.processFrame(id, base64(png(frame(Color.BLACK, Color.BLACK))), OcrClient.ANONYMOUS);
+		assertEquals("unchanged", same.getStatus());
+
+		// Only the right half changes: the left block keeps its text, the right one is read again
+		ocr.recognized.clear();
+		ocr.texts.put(RIGHT, "int c = 3;");
+		OcrStreamUpdate next = stream.processFrame(id, base64(png(frame(Color.BLACK, Color.WHITE))), OcrClient.ANONYMOUS);
+		assertEquals("processed", next.getStatus());
+		assertEquals(List.of(RIGHT), ocr.recognized);
+		assertEquals(1, next.getRegionsReused());
+		assertEquals(List.of("int b = 2;"), next.getRemoved().stream().map(TextRow::getContent).toList());
+		assertEquals(List.of("int c = 3;"), next.getAdded().stream().map(TextRow::getContent).toList());
+		assertEquals(2, next.getTotalLines());
+	}
+
+	@Test
+	void hugeCanvasIsRefusedBeforeDecoding() throws IOException {
+		String id = stream.open("eng", "auto");
+		// A tiny PNG whose header claims 50000 x 50000 pixels
+		byte[] bomb = png(new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_GRAY));
+		ByteBuffer.wrap(bomb).putInt(16, 50_000).putInt(20, 50_000);
+		CRC32 crc = new CRC32();
+		crc.update(bomb, 12, 17);
+		ByteBuffer.wrap(bomb).putInt(29, (int) crc.getValue());
+
+		OcrStreamUpdate update = stream.processFrame(id, base64(bomb), OcrClient.ANONYMOUS);
+
+		assertEquals("file_too_large", update.getStatus());
+		assertTrue(ocr.recognized.isEmpty());
+	}
+}
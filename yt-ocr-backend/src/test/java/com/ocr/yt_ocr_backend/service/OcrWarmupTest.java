@@ -0,0 +1,27 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.util.GrayImageOps;
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OcrWarmupTest {
+
+	// An empty-looking sample would skip Tesseract and warm nothing but the preprocessor
+	@Test
+	void sampleReachesTheEngine() {
+		BufferedImage img = OcrWarmup.sample();
+		byte[] gray = new byte[img.getWidth() * img.getHeight()];
+		GrayImageOps.toGray(img, gray);
+
+		List<Rectangle> regions = new TextRegionDetector().detect(new GrayRaster(img.getWidth(), img.getHeight(), gray));
+
+		assertFalse(regions.isEmpty());
+		assertTrue(regions.get(0).height > img.getHeight() / 2, regions.toString());
+	}
+}
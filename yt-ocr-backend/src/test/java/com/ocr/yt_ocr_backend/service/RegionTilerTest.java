@@ -0,0 +1,93 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.util.GrayImageOps;
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RegionTilerTest {
+
+	private final RegionTiler tiler = new RegionTiler();
+
+	// A tall page of code: one line every 40 px
+	private static GrayRaster page(int w, int h) {
+		BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = img.createGraphics();
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, w, h);
+		g.setColor(Color.BLACK);
+		g.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 28));
+		for (int y = 40; y < h; y += 40) {
+			g.drawString("    return values.stream().map(v -> v * 2).toList(); // " + y, 10, y);
+		}
+		g.dispose();
+		byte[] gray = new byte[w * h];
+		GrayImageOps.toGray(img, gray);
+		return new GrayRaster(w, h, gray);
+	}
+
+	private static boolean rowHasInk(GrayRaster raster, int y) {
+		for (int x = 0; x < raster.getWidth(); x++) {
+			if (raster.get(x, y) < 128) return true;
+		}
+		return false;
+	}
+
+	@Test
+	void smallBlocksAreNotTiled() {
+		GrayRaster raster = page(800, 600);
+		Rectangle block = new Rectangle(0, 0, 800, 600);
+
+		assertEquals(List.of(List.of(block)), tiler.split(raster, List.of(block)));
+	}
+
+	@Test
+	void bigBlocksAreCutBetweenLines() {
+		GrayRaster raster = page(1200, 4000);
+		Rectangle block = new Rectangle(0, 0, 1200, 4000);
+
+		List<Rectangle> tiles = tiler.split(raster, List.of(block)).get(0);
+
+		// 4.8M pixels at 1.5M per tile
+		assertEquals(4, tiles.size());
+		int y = 0;
+		for (Rectangle tile : tiles) {
+			assertEquals(y, tile.y);
+			assertEquals(block.width, tile.width);
+			if (tile.y > 0) assertFalse(rowHasInk(raster, tile.y), "cut through a line at " + tile.y);
+			y += tile.height;
+		}
+		assertEquals(block.height, y);
+	}
+
+	@Test
+	void blocksWithoutBlankRowsStayWhole() {
+		byte[] stripes = new byte[1200 * 4000];
+		for (int i = 0; i < stripes.length; i++) stripes[i] = (byte) (i % 2 == 0 ? 0 : 255);
+		Rectangle block = new Rectangle(0, 0, 1200, 4000);
+
+		assertEquals(List.of(block), tiler.split(new GrayRaster(1200, 4000, stripes), List.of(block)).get(0));
+	}
+
+	@Test
+	void tileLinesAreJoinedPerBlockRelativeToTheBlock() {
+		Rectangle block = new Rectangle(10, 100, 500, 400);
+		List<List<Rectangle>> tiles = List.of(List.of(new Rectangle(10, 100, 500, 200), new Rectangle(10, 300, 500, 200)));
+		OcrEngine.Word word = new OcrEngine.Word("int", 90, new Rectangle(4, 5, 30, 20));
+		List<List<OcrEngine.Line>> tileLines = List.of(
+			List.of(new OcrEngine.Line("int a;", 90, new Rectangle(4, 5, 80, 20), List.of(word))),
+			List.of(new OcrEngine.Line("int b;", 80, new Rectangle(4, 5, 80, 20), List.of(word))));
+
+		List<List<OcrEngine.Line>> lines = RegionTiler.joinLines(List.of(block), tiles, tileLines);
+
+		assertEquals(1, lines.size());
+		assertEquals(List.of("int a;", "int b;"), lines.get(0).stream().map(OcrEngine.Line::text).toList());
+		assertEquals(new Rectangle(4, 205, 80, 20), lines.get(0).get(1).bounds());
+		assertEquals(new Rectangle(4, 205, 30, 20), lines.get(0).get(1).words().get(0).bounds());
+	}
+}
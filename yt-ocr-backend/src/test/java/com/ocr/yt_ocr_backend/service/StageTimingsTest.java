@@ -0,0 +1,31 @@
+package com.ocr.yt_ocr_backend.service;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StageTimingsTest {
+
+	@Test
+	void recordsEachStageAndAddsUpRepeats() {
+		SimpleMeterRegistry registry = new SimpleMeterRegistry();
+		StageTimings timings = new OcrMetrics(registry).newTimings();
+
+		long t = System.nanoTime();
+		t = timings.record(OcrMetrics.DECODE, t);
+		t = timings.record(OcrMetrics.ENGINE_WAIT, t);
+		timings.record(OcrMetrics.ENGINE_WAIT, t);
+
+		Map<String, Double> millis = timings.toMillis();
+		assertEquals(List.of(OcrMetrics.DECODE, OcrMetrics.ENGINE_WAIT), List.copyOf(millis.keySet()));
+
+		Timer wait = registry.get("ocr.stage").tag("stage", OcrMetrics.ENGINE_WAIT).timer();
+		assertEquals(2, wait.count());
+		assertEquals(1, registry.get("ocr.stage").tag("stage", OcrMetrics.DECODE).timer().count());
+	}
+}
@@ -0,0 +1,85 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.dto.OcrResponse.TextRow;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextCorrectionEngineTest {
+
+	private static List<String> contents(List<TextRow> rows) {
+		return rows.stream().map(TextRow::getContent).toList();
+	}
+
+	@Test
+	void splitsCorrectsAndNumbersRows() throws IOException {
+		TextCorrectionEngine engine = new TextCorrectionEngine("classpath:ocr/corrections/");
+
+		List<TextRow> rows = engine.toRows(
+			"pubIic stalic vold malN(String[] args) {\\n  SysteM.out . println(x) ;\n\n| lnteger y = rn ;", "auto");
+
+		assertEquals(List.of(
+			"public static void main(String[] args) {",
+			"System.out.println(x);",
+			"Integer y = m;"), contents(rows));
+		assertEquals(3, rows.get(2).getLineNo());
+	}
+
+	@Test
+	void correctLineAppliesRulesWithoutSplitting() throws IOException {
+		TextCorrectionEngine engine = new TextCorrectionEngine("classpath:ocr/corrections/");
+
+		assertEquals("System.out.println(x);", engine.correctLine("  SysteM.out . println(x) ;  ", "auto"));
+		assertEquals("", engine.correctLine("   ", "auto"));
+	}
+
+	@Test
+	void keywordFixesOnlyReplaceWholeWords() throws IOException {
+		TextCorrectionEngine engine = new TextCorrectionEngine("classpath:ocr/corrections/");
+
+		assertEquals(List.of("voldemort void rn_x m"), contents(engine.toRows("voldemort vold rn_x rn", "auto")));
+	}
+
+	@Test
+	void blankOutputHasNoRows() throws IOException {
+		TextCorrectionEngine engine = new TextCorrectionEngine("classpath:ocr/corrections/");
+
+		assertTrue(engine.toRows("  \n \\n | ", "auto").isEmpty());
+		assertTrue(engine.toRows(null, "auto").isEmpty());
+	}
+
+	@Test
+	void modeRuleSetOverridesDefault(@TempDir Path dir) throws IOException {
+		Files.writeString(dir.resolve("default.rules"), "word teh the\n");
+		Files.writeString(dir.resolve("code.rules"), "regex \"\\s*=\\s*\" \" = \"\n");
+		TextCorrectionEngine engine = new TextCorrectionEngine(dir.toUri().toString());
+
+		assertEquals(List.of("the x=1"), contents(engine.toRows("teh x=1", "auto")));
+		assertEquals(List.of("teh x = 1"), contents(engine.toRows("teh x=1", "code")));
+	}
+
+	@Test
+	void rejectsMalformedRules(@TempDir Path dir) throws IOException {
+		Files.writeString(dir.resolve("default.rules"), "regex ([ x\n");
+
+		assertThrows(IOException.class, () -> new TextCorrectionEngine(dir.toUri().toString()));
+	}
+
+	@Test
+	void findsLiteralEveryMatchNeeds() {
+		assertEquals('<', TextCorrectionEngine.requiredLiteral("\\s*<\\s*"));
+		assertEquals('1', TextCorrectionEngine.requiredLiteral("(?<=\\w)1(?=\\w)"));
+		assertEquals('|', TextCorrectionEngine.requiredLiteral("\\b\\|\\b"));
+		assertEquals('>', TextCorrectionEngine.requiredLiteral("\\s*-?>"));
+		assertEquals(-1, TextCorrectionEngine.requiredLiteral("^\\s+"));
+		assertEquals(-1, TextCorrectionEngine.requiredLiteral("a|b"));
+		assertEquals(-1, TextCorrectionEngine.requiredLiteral("(?i)x"));
+		assertEquals(-1, TextCorrectionEngine.requiredLiteral("\\p{L}x"));
+	}
+}
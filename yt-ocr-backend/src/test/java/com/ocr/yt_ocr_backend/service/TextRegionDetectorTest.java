@@ -0,0 +1,78 @@
+package com.ocr.yt_ocr_backend.service;
+
+import com.ocr.yt_ocr_backend.util.GrayImageOps;
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TextRegionDetectorTest {
+
+	private final TextRegionDetector detector = new TextRegionDetector();
+
+	private static GrayRaster raster(BufferedImage img) {
+		byte[] gray = new byte[img.getWidth() * img.getHeight()];
+		GrayImageOps.toGray(img, gray);
+		return new GrayRaster(img.getWidth(), img.getHeight(), gray);
+	}
+
+	private static BufferedImage canvas(int w, int h) {
+		BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+		Graphics2D g = img.createGraphics();
+		g.setColor(new Color(30, 30, 30));
+		g.fillRect(0, 0, w, h);
+		g.dispose();
+		return img;
+	}
+
+	private static void write(BufferedImage img, int x, int y, String... lines) {
+		Graphics2D g = img.createGraphics();
+		g.setColor(new Color(220, 220, 220));
+		g.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 28));
+		for (String line : lines) {
+			g.drawString(line, x, y);
+			y += 36;
+		}
+		g.dispose();
+	}
+
+	@Test
+	void emptyFrameHasNoRegions() {
+		assertTrue(detector.detect(raster(canvas(640, 360))).isEmpty());
+	}
+
+	@Test
+	void separateBlocksComeBackInReadingOrder() {
+		BufferedImage img = canvas(1280, 720);
+		write(img, 700, 500, "return total;", "}");
+		write(img, 40, 60, "public int sum(int[] xs) {", "    int total = 0;");
+		// A panel border is not text
+		Graphics2D g = img.createGraphics();
+		g.setColor(Color.GRAY);
+		g.drawRect(2, 2, 1275, 715);
+		g.dispose();
+
+		List<Rectangle> regions = detector.detect(raster(img));
+
+		assertEquals(2, regions.size(), regions.toString());
+		Rectangle first = regions.get(0);
+		Rectangle second = regions.get(1);
+		assertTrue(first.contains(45, 50) && first.y < 60 && first.y + first.height > 96, first.toString());
+		assertTrue(second.x > 600 && second.y > 450, second.toString());
+		assertTrue(first.width * first.height + second.width * second.height < 1280 * 720 / 4);
+	}
+
+	@Test
+	void denseFrameIsReadWhole() {
+		BufferedImage img = canvas(400, 200);
+		for (int y = 30; y < 200; y += 36) {
+			write(img, 5, y, "int a = b + c; int d = e * f;");
+		}
+
+		assertEquals(List.of(new Rectangle(0, 0, 400, 200)), detector.detect(raster(img)));
+	}
+}
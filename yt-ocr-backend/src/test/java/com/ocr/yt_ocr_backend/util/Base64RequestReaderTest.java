@@ -0,0 +1,78 @@
+package com.ocr.yt_ocr_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class Base64RequestReaderTest {
+
+	private static String pngBase64(int width, int height) throws IOException {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		ImageIO.write(new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB), "png", out);
+		return Base64.getEncoder().encodeToString(out.toByteArray());
+	}
+
+	private static Base64RequestReader.Parsed read(String json, long maxBytes, long maxPixels) throws IOException {
+		return Base64RequestReader.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), maxBytes, maxPixels);
+	}
+
+	private static String rejectedStatus(String json, long maxBytes, long maxPixels) {
+		return assertThrows(ImageRejectedException.class, () -> read(json, maxBytes, maxPixels)).getStatus();
+	}
+
+	@Test
+	void decodesDataUrlAndFieldsAroundIt() throws IOException {
+		// Escaped slashes as some encoders write them, fields on both sides of the image
+		String image = pngBase64(40, 30).replace("/", "\\/");
+		String json = "{\"mode\": \"code\", \"extra\": {\"a\": [1, \"}\"]},\n"
+			+ "\"imageBase64\": \"data:image/png;base64," + image + "\","
+			+ "\"language\":\"eng\", \"includeStages\": true, \"includeBoxes\": true, \"minConfidence\": 62.5}";
+
+		Base64RequestReader.Parsed parsed = read(json, 1 << 20, 1 << 20);
+		assertEquals(40, parsed.image().getWidth());
+		assertEquals(30, parsed.image().getHeight());
+		assertEquals("eng", parsed.language());
+		assertEquals("code", parsed.mode());
+		assertTrue(parsed.includeStages());
+		assertTrue(parsed.includeBoxes());
+		assertEquals(62.5f, parsed.minConfidence());
+	}
+
+	@Test
+	void rejectsOversizedPayloadsAndImages() throws IOException {
+		String image = pngBase64(400, 300);
+		assertEquals("file_too_large", rejectedStatus("{\"imageBase64\":\"" + image + "\"}", 64, 1 << 20));
+		assertEquals("file_too_large", rejectedStatus("{\"imageBase64\":\"" + image + "\"}", 1 << 20, 1000));
+	}
+
+	@Test
+	void rejectsNonImagesFromTheHeader() {
+		String text = Base64.getEncoder().encodeToString("#!/bin/sh\necho not an image\n".getBytes(StandardCharsets.UTF_8));
+		assertEquals("invalid_format", rejectedStatus("{\"imageBase64\":\"" + text + "\"}", 1 << 20, 1 << 20));
+		assertEquals("invalid_base64", rejectedStatus("{\"language\":\"eng\"}", 1 << 20, 1 << 20));
+		assertThrows(IOException.class, () -> read("{\"imageBase64\": ", 1 << 20, 1 << 20));
+	}
+
+	@Test
+	void resolvesTheLanguageBeforeTheImageIsDecoded() throws IOException {
+		UnaryOperator<String> languages = value -> value == null ? "eng" : "hin".equals(value) ? value : null;
+		// Not an image at all: only refusing before decoding gives unsupported_language
+		String json = "{\"language\":\"xyz\",\"imageBase64\":\"not an image\"}";
+		ImageRejectedException e = assertThrows(ImageRejectedException.class, () ->
+			Base64RequestReader.read(new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8)), 1 << 20, 1 << 20, languages));
+		assertEquals("unsupported_language", e.getStatus());
+
+		String noLanguage = "{\"imageBase64\":\"" + pngBase64(4, 4) + "\"}";
+		assertEquals("eng", Base64RequestReader.read(new ByteArrayInputStream(noLanguage.getBytes(StandardCharsets.UTF_8)),
+			1 << 20, 1 << 20, languages).language());
+	}
+}
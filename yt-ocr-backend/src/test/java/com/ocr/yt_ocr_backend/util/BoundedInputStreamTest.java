@@ -0,0 +1,28 @@
+package com.ocr.yt_ocr_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedInputStreamTest {
+
+	@Test
+	void readsUpToTheLimitAndFailsPastIt() throws IOException {
+		InputStream exact = new BoundedInputStream(new ByteArrayInputStream(new byte[100]), 100);
+		assertEquals(100, exact.readAllBytes().length);
+
+		InputStream over = new BoundedInputStream(new ByteArrayInputStream(new byte[101]), 100);
+		ImageRejectedException e = assertThrows(ImageRejectedException.class, over::readAllBytes);
+		assertEquals("file_too_large", e.getStatus());
+	}
+
+	@Test
+	void zeroLimitFailsOnTheFirstByte() {
+		InputStream none = new BoundedInputStream(new ByteArrayInputStream(new byte[1]), 0);
+		assertThrows(ImageRejectedException.class, none::read);
+	}
+}
@@ -0,0 +1,154 @@
+package com.ocr.yt_ocr_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.awt.image.IndexColorModel;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GrayImageOpsTest {
+
+	private static BufferedImage sample(int type) {
+		BufferedImage img = new BufferedImage(31, 17, type);
+		Graphics2D g = img.createGraphics();
+		g.setColor(new Color(240, 230, 220));
+		g.fillRect(0, 0, 31, 17);
+		g.setColor(new Color(20, 90, 160));
+		g.fillRect(4, 3, 12, 9);
+		g.dispose();
+		return img;
+	}
+
+	@Test
+	void fastPathsMatchColorModelConversion() {
+		int[] types = {
+			BufferedImage.TYPE_INT_RGB, BufferedImage.TYPE_INT_ARGB,
+			BufferedImage.TYPE_3BYTE_BGR, BufferedImage.TYPE_4BYTE_ABGR
+		};
+		for (int type : types) {
+			BufferedImage img = sample(type);
+			byte[] gray = new byte[31 * 17];
+			GrayImageOps.toGray(img, gray);
+			for (int y = 0; y < 17; y++) {
+				for (int x = 0; x < 31; x++) {
+					int rgb = img.getRGB(x, y);
+					int expected = (((rgb >> 16) & 0xff) * 77 + ((rgb >> 8) & 0xff) * 150 + (rgb & 0xff) * 29) >> 8;
+					assertEquals(expected, gray[y * 31 + x] & 0xff, "type " + type + " at " + x + "," + y);
+				}
+			}
+		}
+	}
+
+	@Test
+	void grayAndIndexedImagesConvert() {
+		BufferedImage gray = new BufferedImage(3, 1, BufferedImage.TYPE_BYTE_GRAY);
+		gray.getRaster().setSamples(0, 0, 3, 1, 0, new int[]{0, 128, 255});
+		byte[] out = new byte[3];
+		GrayImageOps.toGray(gray, out);
+		assertArrayEquals(new byte[]{0, (byte) 128, (byte) 255}, out);
+
+		IndexColorModel palette = new IndexColorModel(1, 2, new byte[]{0, (byte) 255},
+			new byte[]{0, (byte) 255}, new byte[]{0, (byte) 255});
+		BufferedImage indexed = new BufferedImage(2, 1, BufferedImage.TYPE_BYTE_BINARY, palette);
+		indexed.getRaster().setSample(1, 0, 0, 1);
+		GrayImageOps.toGray(indexed, out);
+		assertEquals(0, out[0] & 0xff);
+		assertEquals(255, out[1] & 0xff);
+	}
+
+	@Test
+	void scaleKeepsFlatRegionsAndAppliesLut() {
+		byte[] src = new byte[4 * 4];
+		Arrays.fill(src, (byte) 100);
+		byte[] dst = new byte[8 * 8];
+		GrayImageOps.scale(src, 4, 4, dst, 8, 8, GrayImageOps.contrastLut(1.5f, 10));
+
+		for (byte b : dst) {
+			assertEquals(160, b & 0xff);
+		}
+	}
+
+	@Test
+	void downsampleAveragesCellsIncludingPartialEdges() {
+		// 5 x 4 with factor 2: the last column and row of cells only cover part of a 2 x 2 block
+		byte[] src = new byte[5 * 4];
+		for (int y = 0; y < 4; y++) {
+			for (int x = 0; x < 5; x++) src[y * 5 + x] = (byte) (x < 2 ? 40 : x < 4 ? 200 : 90);
+		}
+		byte[] dst = new byte[3 * 2];
+		GrayImageOps.downsample(src, 5, 4, 2, dst);
+
+		for (int y = 0; y < 2; y++) {
+			assertEquals(40, dst[y * 3] & 0xff);
+			assertEquals(200, dst[y * 3 + 1] & 0xff);
+			assertEquals(90, dst[y * 3 + 2] & 0xff);
+		}
+	}
+
+	@Test
+	void otsuSeparatesTwoLevels() {
+		byte[] data = new byte[100];
+		for (int i = 0; i < 100; i++) data[i] = (byte) (i < 70 ? 200 : 40);
+		GrayImageOps.binarizeOtsu(data, 100);
+
+		assertEquals(255, data[0] & 0xff);
+		assertEquals(0, data[99] & 0xff);
+	}
+
+	@Test
+	void sauvolaFollowsUnevenBackground() {
+		int w = 64;
+		int h = 16;
+		byte[] data = new byte[w * h];
+		for (int y = 0; y < h; y++) {
+			for (int x = 0; x < w; x++) {
+				int background = 120 + x * 2;
+				boolean ink = x % 8 == 3 && y > 3 && y < 12;
+				data[y * w + x] = (byte) (ink ? background - 80 : background);
+			}
+		}
+		GrayImageOps.binarizeSauvola(data, w, h, 16, 0.34);
+
+		assertEquals(0, data[6 * w + 3] & 0xff);
+		assertEquals(0, data[6 * w + 59] & 0xff);
+		assertEquals(255, data[6 * w + 5] & 0xff);
+		assertEquals(255, data[6 * w + 61] & 0xff);
+	}
+
+	private static byte[] textLines(int w, int h, int fontSize) {
+		BufferedImage img = new BufferedImage(w, h, BufferedImage.TYPE_BYTE_GRAY);
+		Graphics2D g = img.createGraphics();
+		g.setColor(Color.WHITE);
+		g.fillRect(0, 0, w, h);
+		g.setColor(Color.BLACK);
+		g.setFont(new Font(Font.SANS_SERIF, Font.PLAIN, fontSize));
+		int lineHeight = fontSize * 3 / 2;
+		for (int y = lineHeight; y < h; y += lineHeight) {
+			g.drawString("for (int i = 0; i < count; i++) { sum += x; }", 4, y);
+		}
+		g.dispose();
+		byte[] gray = new byte[w * h];
+		GrayImageOps.toGray(img, gray);
+		return gray;
+	}
+
+	@Test
+	void xHeightTracksFontSize() {
+		int small = GrayImageOps.estimateXHeight(textLines(400, 200, 12), 400, 200);
+		int large = GrayImageOps.estimateXHeight(textLines(1600, 800, 48), 1600, 800);
+
+		assertTrue(small >= 4 && small <= 9, "small x-height " + small);
+		assertTrue(large >= small * 3 && large <= small * 5, "large x-height " + large);
+	}
+
+	@Test
+	void blankImageHasNoXHeight() {
+		byte[] blank = new byte[64 * 64];
+		Arrays.fill(blank, (byte) 255);
+
+		assertEquals(0, GrayImageOps.estimateXHeight(blank, 64, 64));
+	}
+}
@@ -0,0 +1,35 @@
+package com.ocr.yt_ocr_backend.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualThreadsTest {
+
+	@Test
+	void platformThreadsAreNotVirtual() {
+		assertFalse(VirtualThreads.isVirtual(Thread.currentThread()));
+	}
+
+	@Test
+	void factoryMakesVirtualThreadsWhereSupported() throws InterruptedException {
+		if (!VirtualThreads.isSupported()) {
+			assertThrows(UnsupportedOperationException.class, () -> VirtualThreads.newFactory("vt-"));
+			return;
+		}
+		ThreadFactory factory = VirtualThreads.newFactory("vt-");
+		AtomicBoolean virtual = new AtomicBoolean();
+		Thread thread = factory.newThread(() -> virtual.set(VirtualThreads.isVirtual(Thread.currentThread())));
+		thread.start();
+		thread.join();
+
+		assertTrue(virtual.get());
+		assertEquals("vt-1", thread.getName());
+	}
+}
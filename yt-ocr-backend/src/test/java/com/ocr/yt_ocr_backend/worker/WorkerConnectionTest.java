@@ -0,0 +1,129 @@
+package com.ocr.yt_ocr_backend.worker;
+
+import com.ocr.yt_ocr_backend.service.OcrEngine;
+import com.ocr.yt_ocr_backend.util.GrayRaster;
+import net.sourceforge.tess4j.TesseractException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.awt.Rectangle;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WorkerConnectionTest {
+
+	private ServerSocket server;
+	private WorkerConnection connection;
+
+	// Stands in for a worker: describes the raster it got, fails for DETECT_SCRIPT and never
+	// answers calls in mode "stuck"
+	@BeforeEach
+	void startFakeWorker() throws IOException {
+		server = new ServerSocket(0, 1, InetAddress.getLoopbackAddress());
+		Thread thread = new Thread(() -> {
+			try (Socket socket = server.accept()) {
+				DataInputStream in = new DataInputStream(socket.getInputStream());
+				DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+				WorkerProtocol.readHeader(in, "s3cret");
+				while (true) {
+					WorkerProtocol.Request r = WorkerProtocol.readRequest(in);
+					if ("stuck".equals(r.mode())) continue;
+					GrayRaster raster = r.raster();
+					String summary = r.language() + " " + r.mode() + " " + raster.getWidth() + "x" + raster.getHeight()
+						+ " " + raster.get(0, 0) + "," + raster.get(raster.getWidth() - 1, raster.getHeight() - 1);
+					switch (r.op()) {
+						case WorkerProtocol.RECOGNIZE -> WorkerProtocol.writeResult(out, r.id(), r.op(), summary);
+						case WorkerProtocol.RECOGNIZE_LINES -> WorkerProtocol.writeResult(out, r.id(), r.op(), List.of(
+							new OcrEngine.Line("int x", 91.5f, new Rectangle(1, 2, 30, 10), List.of(
+								new OcrEngine.Word("int", 95f, new Rectangle(1, 2, 12, 10)),
+								new OcrEngine.Word("x", 88f, new Rectangle(20, 2, 5, 10))))));
+						default -> WorkerProtocol.writeFailure(out, r.id(), r.op(), "no osd");
+					}
+					out.flush();
+				}
+			} catch (IOException ignored) {
+			}
+		});
+		thread.setDaemon(true);
+		thread.start();
+		connection = WorkerConnection.open("localhost", server.getLocalPort(), 1000, "s3cret");
+	}
+
+	@AfterEach
+	void stop() throws IOException {
+		connection.close();
+		server.close();
+	}
+
+	private static GrayRaster gradient(int width, int height) {
+		byte[] data = new byte[width * height];
+		for (int i = 0; i < data.length; i++) data[i] = (byte) i;
+		return new GrayRaster(width, height, data);
+	}
+
+	@Test
+	void sendsOnlyTheRegionPixels() throws TesseractException {
+		GrayRaster raster = gradient(10, 8);
+
+		Object text = connection.call(WorkerProtocol.RECOGNIZE, "eng", "code", raster, new Rectangle(2, 3, 4, 2), 5000);
+
+		// first pixel (2,3) = 32, last pixel (5,4) = 45
+		assertEquals("eng code 4x2 32,45", text);
+		assertEquals(0, connection.getPendingCount());
+	}
+
+	@Test
+	@SuppressWarnings("unchecked")
+	void decodesLinesWithWordsAndBoxes() throws TesseractException {
+		List<OcrEngine.Line> lines = (List<OcrEngine.Line>) connection.call(WorkerProtocol.RECOGNIZE_LINES,
+			"eng", "code", gradient(40, 20), new Rectangle(0, 0, 40, 20), 5000);
+
+		assertEquals(1, lines.size());
+		assertEquals("int x", lines.get(0).text());
+		assertEquals(91.5f, lines.get(0).confidence());
+		assertEquals(new Rectangle(20, 2, 5, 10), lines.get(0).words().get(1).bounds());
+	}
+
+	@Test
+	void workerErrorsSurfaceAsTesseractExceptions() {
+		TesseractException e = assertThrows(TesseractException.class, () -> connection.call(
+			WorkerProtocol.DETECT_SCRIPT, "osd", "osd", gradient(4, 4), new Rectangle(0, 0, 4, 4), 5000));
+
+		assertEquals("no osd", e.getMessage());
+		assertFalse(connection.isClosed());
+	}
+
+	@Test
+	void aTimedOutCallFailsAloneAndDrainsTheConnection() throws TesseractException {
+		assertThrows(TesseractException.class, () -> connection.call(
+			WorkerProtocol.RECOGNIZE, "eng", "stuck", gradient(4, 4), new Rectangle(0, 0, 4, 4), 50));
+
+		assertFalse(connection.isClosed());
+		assertFalse(connection.isUsable());
+		assertTrue(connection.isDrained());
+		// Calls already on their way are still answered
+		assertEquals("eng code 4x4 0,15",
+			connection.call(WorkerProtocol.RECOGNIZE, "eng", "code", gradient(4, 4), new Rectangle(0, 0, 4, 4), 5000));
+	}
+
+	@Test
+	void headerCarriesTheSecret() throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		WorkerProtocol.writeHeader(new DataOutputStream(bytes), "s3cret");
+
+		WorkerProtocol.readHeader(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), "s3cret");
+		WorkerProtocol.readHeader(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), "");
+		assertThrows(IOException.class, () -> WorkerProtocol.readHeader(
+			new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())), "other"));
+	}
+}